@@ -0,0 +1,69 @@
+package com.example.tax.benchmarks;
+
+import com.example.tax.models.Transaction;
+import com.example.tax.models.TransactionStore;
+import com.example.tax.models.TransactionStoreList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Record count and total profit aggregation as done by TransactionViewController:
+ * the original rescan of a Transaction list, a scan over the columnar store,
+ * and reading the incrementally maintained aggregates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AggregationBenchmark {
+
+    @Param({"100000"})
+    public int rows;
+
+    private List<Transaction> transactions;
+    private TransactionStore store;
+
+    @Setup
+    public void setUp() {
+        SyntheticData data = new SyntheticData(rows);
+        store = data.toStore();
+        transactions = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            transactions.add(TransactionStoreList.createView(store, i));
+        }
+    }
+
+    /**
+     * The original updateRecordCounts + updateTotalProfit: stream count of valid rows, then a profit loop.
+     */
+    @Benchmark
+    public double rescanTransactionList() {
+        long validRecords = transactions.stream().filter(Transaction::isValidChecksum).count();
+        double totalProfit = 0.0;
+        for (Transaction transaction : transactions) {
+            totalProfit += transaction.getProfit();
+        }
+        return totalProfit + validRecords;
+    }
+
+    @Benchmark
+    public double scanStore() {
+        int validRecords = 0;
+        double totalProfit = 0.0;
+        for (int row = 0; row < store.size(); row++) {
+            if (store.isValid(row)) validRecords++;
+            totalProfit += store.getProfit(row);
+        }
+        return totalProfit + validRecords;
+    }
+
+    @Benchmark
+    public double readAggregates() {
+        return store.getAggregates().getTotalProfit() + store.getAggregates().getValidCount();
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.tax.benchmarks;
+
+import com.example.tax.utils.ChecksumUtil;
+import com.example.tax.utils.MoneyUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checksum hot paths: formatting a line, checksumming a formatted line,
+ * and checksumming straight from the double fields or from fixed-point cents.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChecksumBenchmark {
+
+    @Param({"100000"})
+    public int rows;
+
+    private SyntheticData data;
+    private String[] lines;
+    private long[] costCents;
+    private long[] salePriceCents;
+    private long[] discountUnits;
+    private long[] discountedPriceCents;
+
+    @Setup
+    public void setUp() {
+        data = new SyntheticData(rows);
+        lines = new String[rows];
+        costCents = new long[rows];
+        salePriceCents = new long[rows];
+        discountUnits = new long[rows];
+        discountedPriceCents = new long[rows];
+        for (int i = 0; i < rows; i++) {
+            costCents[i] = MoneyUtil.toCents(data.costs[i]);
+            salePriceCents[i] = MoneyUtil.toCents(data.salePrices[i]);
+            discountUnits[i] = MoneyUtil.toDiscountUnits(data.discounts[i]);
+            discountedPriceCents[i] = MoneyUtil.discountedCents(salePriceCents[i], discountUnits[i]);
+            lines[i] = ChecksumUtil.formatTransactionLine(data.itemCodes[i], data.costs[i],
+                    data.salePrices[i], data.discounts[i], data.discountedPrices[i]);
+        }
+    }
+
+    @Benchmark
+    public long formatTransactionLine() {
+        long total = 0;
+        for (int i = 0; i < rows; i++) {
+            total += ChecksumUtil.formatTransactionLine(data.itemCodes[i], data.costs[i],
+                    data.salePrices[i], data.discounts[i], data.discountedPrices[i]).length();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long calculateChecksumFromLine() {
+        long total = 0;
+        for (int i = 0; i < rows; i++) {
+            total += ChecksumUtil.calculateChecksum(lines[i]);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long formatAndCalculateChecksum() {
+        long total = 0;
+        for (int i = 0; i < rows; i++) {
+            total += ChecksumUtil.calculateChecksum(ChecksumUtil.formatTransactionLine(data.itemCodes[i],
+                    data.costs[i], data.salePrices[i], data.discounts[i], data.discountedPrices[i]));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long calculateChecksumFromFields() {
+        long total = 0;
+        for (int i = 0; i < rows; i++) {
+            total += ChecksumUtil.calculateChecksum(data.itemCodes[i], data.costs[i],
+                    data.salePrices[i], data.discounts[i], data.discountedPrices[i]);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long calculateChecksumFromCents() {
+        long total = 0;
+        for (int i = 0; i < rows; i++) {
+            total += ChecksumUtil.calculateChecksumCents(data.itemCodes[i], costCents[i],
+                    salePriceCents[i], discountUnits[i], discountedPriceCents[i]);
+        }
+        return total;
+    }
+}
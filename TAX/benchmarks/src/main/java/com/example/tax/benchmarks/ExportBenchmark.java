@@ -0,0 +1,60 @@
+package com.example.tax.benchmarks;
+
+import com.example.tax.models.TransactionStore;
+import com.example.tax.utils.ChecksumUtil;
+import com.example.tax.utils.TransactionExporter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exporting a store as a Tax Transaction File: a BufferedWriter with String.format and
+ * ChecksumUtil.calculateChecksum on every line, against TransactionExporter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExportBenchmark {
+
+    @Param({"100000"})
+    public int rows;
+
+    private TransactionStore store;
+    private Path file;
+
+    @Setup
+    public void setUp() throws IOException {
+        store = new SyntheticData(rows).toStore();
+        file = Files.createTempFile("ttf_export", ".csv");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public int exportFormatted() throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write(TransactionExporter.HEADER);
+            for (int row = 0; row < store.size(); row++) {
+                String line = ChecksumUtil.formatTransactionLine(store.getItemCode(row), store.getCost(row),
+                        store.getSalePrice(row), store.getDiscount(row), store.getDiscountedPrice(row));
+                writer.write(line + "," + ChecksumUtil.calculateChecksum(line) + "\n");
+            }
+        }
+        return store.size();
+    }
+
+    @Benchmark
+    public int exportStore() throws IOException {
+        return TransactionExporter.export(store, file);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.tax.benchmarks;
+
+import com.example.tax.models.GroupAggregator;
+import com.example.tax.models.TransactionStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Profit per item code as shown by the summary view: a HashMap keyed by item code string,
+ * and GroupAggregator's partitioned aggregation over the interned item code ids.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GroupByBenchmark {
+
+    @Param({"1000000"})
+    public int rows;
+
+    private TransactionStore store;
+    private GroupAggregator aggregator;
+
+    @Setup
+    public void setUp() {
+        store = new SyntheticData(rows).toStore();
+        aggregator = GroupAggregator.capture(store);
+    }
+
+    @Benchmark
+    public Map<String, Long> hashMapByItemCode() {
+        Map<String, Long> profitCents = new HashMap<>();
+        for (int row = 0; row < store.size(); row++) {
+            profitCents.merge(store.getItemCode(row), store.getProfitCents(row), Long::sum);
+        }
+        return profitCents;
+    }
+
+    @Benchmark
+    public GroupAggregator.Result partitionedAggregate() {
+        return aggregator.aggregate();
+    }
+
+    @Benchmark
+    public GroupAggregator.Result captureAndAggregate() {
+        return GroupAggregator.capture(store).aggregate();
+    }
+}
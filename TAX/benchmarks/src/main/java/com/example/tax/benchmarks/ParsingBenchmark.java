@@ -0,0 +1,121 @@
+package com.example.tax.benchmarks;
+
+import com.example.tax.models.TransactionStore;
+import com.example.tax.utils.MappedTransactionParser;
+import com.example.tax.utils.SnapshotCache;
+import com.example.tax.utils.TransactionFileReader;
+import com.example.tax.utils.TransactionFormatException;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CSV parsing: the original readAllLines + split approach, the per-line parser,
+ * and whole-file imports through the streaming reader and the memory-mapped parser,
+ * compared with reopening the same file from its binary snapshot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParsingBenchmark {
+
+    @Param({"100000"})
+    public int rows;
+
+    private String[] lines;
+    private Path file;
+    private Path snapshotDirectory;
+    private SnapshotCache snapshots;
+
+    @Setup
+    public void setUp() throws IOException, TransactionFormatException {
+        SyntheticData data = new SyntheticData(rows);
+        lines = new String[rows];
+        for (int i = 0; i < rows; i++) {
+            lines[i] = data.line(i);
+        }
+        file = data.writeTempFile();
+
+        snapshotDirectory = Files.createTempDirectory("tax-bench-snapshots");
+        snapshots = new SnapshotCache(snapshotDirectory);
+        TransactionStore store = new TransactionStore(rows);
+        MappedTransactionParser.parse(file, store::add);
+        snapshots.save(SnapshotCache.keyOf(file), store);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        try (Stream<Path> paths = Files.walk(snapshotDirectory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * The parsing done by the original importTransactionFile: readAllLines, trim, split.
+     */
+    @Benchmark
+    public void readAllLinesAndSplit(Blackhole blackhole) throws IOException {
+        List<String> all = Files.readAllLines(file);
+        for (int i = 1; i < all.size(); i++) {
+            String[] data = all.get(i).trim().split(",");
+            blackhole.consume(data[0].trim());
+            blackhole.consume(Double.parseDouble(data[1].trim()));
+            blackhole.consume(Double.parseDouble(data[2].trim()));
+            blackhole.consume(Double.parseDouble(data[3].trim()));
+            blackhole.consume(data[5].trim());
+        }
+    }
+
+    @Benchmark
+    public void parseLines(Blackhole blackhole) throws TransactionFormatException {
+        for (int i = 0; i < rows; i++) {
+            TransactionFileReader.parseLine(lines[i], i + 2, (itemCode, cost, salePrice, discount, checksum) -> {
+                blackhole.consume(itemCode);
+                blackhole.consume(cost + salePrice + discount);
+                blackhole.consume(checksum);
+            });
+        }
+    }
+
+    @Benchmark
+    public TransactionStore streamingImport() throws IOException, TransactionFormatException {
+        TransactionStore store = new TransactionStore(rows);
+        TransactionFileReader.readRows(file, TransactionFileReader.DEFAULT_CHUNK_SIZE, store::add, null);
+        return store;
+    }
+
+    @Benchmark
+    public TransactionStore mappedImport() throws IOException, TransactionFormatException {
+        TransactionStore store = new TransactionStore(rows);
+        MappedTransactionParser.parse(file, store::add);
+        return store;
+    }
+
+    /**
+     * The mapped import followed by validation, i.e. everything a snapshot saves on reopen.
+     */
+    @Benchmark
+    public TransactionStore mappedImportAndValidate() throws IOException, TransactionFormatException {
+        TransactionStore store = mappedImport();
+        store.validateAll();
+        return store;
+    }
+
+    @Benchmark
+    public TransactionStore snapshotReopen() {
+        return snapshots.load(file);
+    }
+}
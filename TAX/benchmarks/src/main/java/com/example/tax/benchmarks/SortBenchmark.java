@@ -0,0 +1,61 @@
+package com.example.tax.benchmarks;
+
+import com.example.tax.models.Transaction;
+import com.example.tax.models.TransactionSorter;
+import com.example.tax.models.TransactionStore;
+import com.example.tax.models.TransactionStoreList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sorting the transaction table: the table's own sort, a stable sort of Transaction views
+ * by their boxed cell values, against TransactionSorter on the store's primitive columns.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SortBenchmark {
+
+    @Param({"100000"})
+    public int rows;
+
+    private TransactionStore store;
+
+    @Setup
+    public void setUp() {
+        store = new SyntheticData(rows).toStore();
+        store.validateAll();
+    }
+
+    @Benchmark
+    public List<Transaction> sortViewsByProfit() {
+        List<Transaction> views = new ArrayList<>(rows);
+        for (int row = 0; row < rows; row++) {
+            views.add(TransactionStoreList.createView(store, row));
+        }
+        views.sort(Comparator.comparing(transaction -> (Double) transaction.getProfit()));
+        return views;
+    }
+
+    @Benchmark
+    public int[] sortStoreByProfit() {
+        return TransactionSorter.capture(store, TransactionSorter.Column.PROFIT, true, TransactionSorter.Filter.ALL).sort();
+    }
+
+    @Benchmark
+    public int[] sortStoreByItemCode() {
+        return TransactionSorter.capture(store, TransactionSorter.Column.ITEM_CODE, true, TransactionSorter.Filter.ALL).sort();
+    }
+
+    @Benchmark
+    public int[] filterValidStore() {
+        return TransactionSorter.capture(store, null, true, TransactionSorter.Filter.VALID).sort();
+    }
+}
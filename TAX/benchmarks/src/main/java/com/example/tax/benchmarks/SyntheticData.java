@@ -0,0 +1,99 @@
+package com.example.tax.benchmarks;
+
+import com.example.tax.models.TransactionStore;
+import com.example.tax.models.TransactionValidator;
+import com.example.tax.utils.ChecksumUtil;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic Tax Transaction File data for the benchmarks.
+ * Rows look like the ones the POS writes (Name_Number item codes, two-decimal prices,
+ * one-decimal discounts), and roughly one row in ten has a wrong checksum.
+ */
+public class SyntheticData {
+    private static final String[] NAMES = {"Cake", "Chocolate", "Lemon", "Brownie", "Donut", "LemonTea", "Muffin", "Tart"};
+    private static final long SEED = 42L;
+
+    public final String[] itemCodes;
+    public final double[] costs;
+    public final double[] salePrices;
+    public final double[] discounts;
+    public final double[] discountedPrices;
+    public final String[] checksums;
+
+    /**
+     * Generates the given number of rows.
+     *
+     * @param rows The number of rows
+     */
+    public SyntheticData(int rows) {
+        itemCodes = new String[rows];
+        costs = new double[rows];
+        salePrices = new double[rows];
+        discounts = new double[rows];
+        discountedPrices = new double[rows];
+        checksums = new String[rows];
+
+        Random random = new Random(SEED);
+        for (int i = 0; i < rows; i++) {
+            itemCodes[i] = NAMES[random.nextInt(NAMES.length)] + "_" + random.nextInt(200);
+            costs[i] = random.nextInt(200_000) / 100.0;
+            salePrices[i] = costs[i] + random.nextInt(50_000) / 100.0;
+            discounts[i] = random.nextInt(300) / 10.0;
+            discountedPrices[i] = TransactionValidator.calculateDiscountedPrice(salePrices[i], discounts[i]);
+            int checksum = ChecksumUtil.calculateChecksum(
+                    itemCodes[i], costs[i], salePrices[i], discounts[i], discountedPrices[i]);
+            checksums[i] = String.valueOf(random.nextInt(10) == 0 ? checksum + 1 : checksum);
+        }
+    }
+
+    public int size() {
+        return costs.length;
+    }
+
+    /**
+     * @param row The row to render
+     * @return The row as it appears in a TTF file
+     */
+    public String line(int row) {
+        return ChecksumUtil.formatTransactionLine(itemCodes[row], costs[row], salePrices[row],
+                discounts[row], discountedPrices[row]) + "," + checksums[row];
+    }
+
+    /**
+     * Writes the rows to a temporary TTF file, deleted when the JVM exits.
+     *
+     * @return The path of the file
+     * @throws IOException If the file cannot be written
+     */
+    public Path writeTempFile() throws IOException {
+        Path file = Files.createTempFile("ttf_bench_", ".csv");
+        file.toFile().deleteOnExit();
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("ItemCode,Cost,SalePrice,Discount,DiscountedPrice,Checksum");
+            writer.newLine();
+            for (int i = 0; i < size(); i++) {
+                writer.write(line(i));
+                writer.newLine();
+            }
+        }
+        return file;
+    }
+
+    /**
+     * @return A store holding all rows
+     */
+    public TransactionStore toStore() {
+        TransactionStore store = new TransactionStore(size());
+        for (int i = 0; i < size(); i++) {
+            store.add(itemCodes[i], costs[i], salePrices[i], discounts[i], checksums[i]);
+        }
+        return store;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.tax.benchmarks;
+
+import com.example.tax.models.Transaction;
+import com.example.tax.models.TransactionStore;
+import com.example.tax.models.TransactionValidator;
+import com.example.tax.utils.BatchChecksum;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transaction validation: the full rules on every call, Transaction.isValidChecksum
+ * both on a fresh object and on one whose result is already cached, and batch validation
+ * of a whole imported file in the store, with and without the Vector API checksum kernel.
+ * The two store benchmarks set the forked JVM's arguments themselves instead of inheriting those of
+ * the JVM running JMH, so only the vectorized one has jdk.incubator.vector and the scalar one runs the
+ * scalar kernel however JMH is started.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidationBenchmark {
+
+    @Param({"100000"})
+    public int rows;
+
+    private SyntheticData data;
+    private Transaction[] transactions;
+    private TransactionStore pendingStore;
+
+    @Setup
+    public void setUp(BenchmarkParams params) {
+        boolean vectorized = params.getBenchmark().endsWith(".validateStoreVectorized");
+        boolean scalar = params.getBenchmark().endsWith(".validateStoreScalar");
+        if ((vectorized || scalar) && BatchChecksum.isVectorized() != vectorized) {
+            throw new IllegalStateException(params.getBenchmark() + " needs the "
+                    + (vectorized ? "vector" : "scalar") + " checksum kernel, but the fork runs with "
+                    + params.getJvmArgs());
+        }
+        data = new SyntheticData(rows);
+        transactions = new Transaction[rows];
+        for (int i = 0; i < rows; i++) {
+            transactions[i] = new Transaction(data.itemCodes[i], data.costs[i], data.salePrices[i],
+                    data.discounts[i], data.checksums[i]);
+            transactions[i].isValidChecksum();
+        }
+    }
+
+    /**
+     * A freshly imported store whose rows have not been validated yet.
+     */
+    @Setup(Level.Invocation)
+    public void importStore() {
+        pendingStore = data.toStore();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgs = "--add-modules=jdk.incubator.vector")
+    public int validateStoreVectorized() {
+        pendingStore.validateAll();
+        return pendingStore.getAggregates().getValidCount();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgs = {})
+    public int validateStoreScalar() {
+        pendingStore.validateAll();
+        return pendingStore.getAggregates().getValidCount();
+    }
+
+    @Benchmark
+    public int validateFields() {
+        int valid = 0;
+        for (int i = 0; i < rows; i++) {
+            if (TransactionValidator.isValid(data.itemCodes[i], data.costs[i], data.salePrices[i],
+                    data.discounts[i], data.discountedPrices[i], data.checksums[i])) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    @Benchmark
+    public int isValidChecksumUncached() {
+        int valid = 0;
+        for (int i = 0; i < rows; i++) {
+            Transaction transaction = new Transaction(data.itemCodes[i], data.costs[i], data.salePrices[i],
+                    data.discounts[i], data.checksums[i]);
+            if (transaction.isValidChecksum()) valid++;
+        }
+        return valid;
+    }
+
+    @Benchmark
+    public int isValidChecksumCached() {
+        int valid = 0;
+        for (Transaction transaction : transactions) {
+            if (transaction.isValidChecksum()) valid++;
+        }
+        return valid;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.tax;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchMainTest {
+
+    private static final String HEADER = "ItemCode,Cost,SalePrice,Discount,DiscountedPrice,Checksum";
+
+    @Test
+    public void testRunPrintsSummaryForFolder() throws Exception {
+        Path directory = Files.createTempDirectory("tax-batch");
+        Files.write(directory.resolve("ttf_1001.csv"), Arrays.asList(
+                HEADER,
+                "Cake_122,1200.00,1400.00,0.0,1400.00,50",
+                "Lemon_3,1500.00,1600.00,20.0,1280.00,61"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        int exitCode = BatchMain.run(new String[]{"--tax-rate", "10", directory.toString()},
+                new PrintStream(out, true, StandardCharsets.UTF_8), new PrintStream(err, true, StandardCharsets.UTF_8));
+
+        String json = out.toString(StandardCharsets.UTF_8);
+        assertEquals(BatchMain.EXIT_OK, exitCode, err.toString(StandardCharsets.UTF_8));
+        assertTrue(json.contains("\"records\":2,\"valid\":2,\"invalid\":0,\"errors\":0,\"totalProfit\":-20.00"), json);
+        assertTrue(json.contains("\"taxRate\":10.0,\"tax\":-2.00"), json);
+    }
+
+    @Test
+    public void testRunReportsInvalidRecordsAndBadArguments() throws Exception {
+        Path file = Files.createTempFile("ttf_", ".csv");
+        Files.write(file, Arrays.asList(HEADER, "Cake_122,1200.00,1400.00,0.0,1400.00,51", "Broken,abc"));
+        PrintStream quiet = new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8);
+
+        assertEquals(BatchMain.EXIT_INVALID_RECORDS, BatchMain.run(new String[]{file.toString()}, quiet, quiet));
+        assertEquals(BatchMain.EXIT_USAGE, BatchMain.run(new String[0], quiet, quiet));
+        assertEquals(BatchMain.EXIT_USAGE, BatchMain.run(new String[]{"--tax-rate"}, quiet, quiet));
+        assertEquals(BatchMain.EXIT_USAGE, BatchMain.run(new String[]{file + ".missing"}, quiet, quiet));
+        assertEquals(BatchMain.EXIT_USAGE, BatchMain.run(new String[]{"--tax-schedule", "10, Cake=", file.toString()}, quiet, quiet));
+    }
+
+    @Test
+    public void testRunComparesTaxSchedulesOverAllFiles() throws Exception {
+        Path directory = Files.createTempDirectory("tax-batch");
+        Files.write(directory.resolve("ttf_1001.csv"), Arrays.asList(HEADER, "Cake_122,1200.00,1400.00,0.0,1400.00,50"));
+        Files.write(directory.resolve("ttf_1002.csv"), Arrays.asList(HEADER, "Lemon_3,1500.00,1600.00,20.0,1280.00,61"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PrintStream quiet = new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8);
+        int exitCode = BatchMain.run(new String[]{"--tax-schedule", "10; 0, Cake=50", directory.toString()},
+                new PrintStream(out, true, StandardCharsets.UTF_8), quiet);
+
+        String json = out.toString(StandardCharsets.UTF_8);
+        assertEquals(BatchMain.EXIT_OK, exitCode);
+        assertFalse(json.contains("\"taxRate\""), json);
+        assertTrue(json.contains("\"taxSchedules\":[{\"schedule\":\"10\",\"tax\":-2.00,\"effectiveRate\":10.00},"
+                + "{\"schedule\":\"0, Cake=50\",\"tax\":100.00,"), json);
+    }
+
+    @Test
+    public void testRunWritesMetricsForEachFileAndTheRun() throws Exception {
+        Path directory = Files.createTempDirectory("tax-batch");
+        Files.write(directory.resolve("ttf_1001.csv"), Arrays.asList(HEADER, "Cake_122,1200.00,1400.00,0.0,1400.00,50"));
+        Files.write(directory.resolve("ttf_1002.csv"), Arrays.asList(HEADER, "LemonTea,300.00,330.00,0.0,330.00,44"));
+        Path metrics = directory.resolve("metrics.json");
+        PrintStream quiet = new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8);
+
+        assertEquals(BatchMain.EXIT_OK, BatchMain.run(new String[]{"--metrics", metrics.toString(), directory.toString()}, quiet, quiet));
+
+        String json = Files.readString(metrics);
+        assertTrue(json.startsWith("{\"operations\":[{\"operation\":\"Read ttf_1001.csv\""), json);
+        assertTrue(json.contains("{\"operation\":\"Read ttf_1002.csv\""), json);
+        assertTrue(json.contains("{\"operation\":\"Batch validation\""), json);
+        assertTrue(json.contains("\"rows\":2,\"bytes\":" + (Files.size(directory.resolve("ttf_1001.csv")) + Files.size(directory.resolve("ttf_1002.csv")))), json);
+    }
+
+    @Test
+    public void testRunReportsRowsWithNumbersThatCannotBeStoredAsBadLines() throws Exception {
+        Path directory = Files.createTempDirectory("tax-batch");
+        Files.write(directory.resolve("ttf_1001.csv"), Arrays.asList(
+                HEADER,
+                "Cake_122,1200.00,1400.00,0.0,1400.00,50",
+                "Lemon_3,NaN,1600.00,20.0,1280.00,61"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        int exitCode = BatchMain.run(new String[]{directory.toString()},
+                new PrintStream(out, true, StandardCharsets.UTF_8), new PrintStream(err, true, StandardCharsets.UTF_8));
+
+        String json = out.toString(StandardCharsets.UTF_8);
+        assertEquals(BatchMain.EXIT_INVALID_RECORDS, exitCode);
+        assertTrue(json.contains("\"records\":1,\"valid\":1,\"invalid\":0,\"errors\":1"), json);
+        assertTrue(err.toString(StandardCharsets.UTF_8).contains("ttf_1001.csv: Number out of range in line 3"),
+                err.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.tax.events;
+
+import com.example.tax.utils.DirectoryImporter;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileImportEventTest {
+
+    private static final String HEADER = "ItemCode,Cost,SalePrice,Discount,DiscountedPrice,Checksum";
+
+    @Test
+    public void testImportEmitsFileImportAndBatchValidationEvents() throws Exception {
+        Path file = Files.createTempFile("ttf_", ".csv");
+        Files.write(file, Arrays.asList(
+                HEADER,
+                "Cake_122,1200.00,1400.00,0.0,1400.00,50",
+                "Cake_122,1200.00,1400.00,0.0,1400.00,51",
+                "Broken,abc"));
+        Path output = Files.createTempFile("tax-events", ".jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable(FileImportEvent.class).withThreshold(Duration.ZERO);
+            recording.enable(BatchValidationEvent.class).withThreshold(Duration.ZERO);
+            recording.start();
+            DirectoryImporter.importFile(file);
+            recording.stop();
+            recording.dump(output);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(output);
+        RecordedEvent imported = find(events, "com.example.tax.FileImport");
+        assertEquals(file.toString(), imported.getString("path"));
+        assertEquals(Files.size(file), imported.getLong("bytes"));
+        assertEquals(2, imported.getInt("rows"));
+        assertEquals(1, imported.getInt("errors"));
+        assertFalse(imported.getBoolean("append"));
+
+        RecordedEvent validated = find(events, "com.example.tax.BatchValidation");
+        assertEquals(2, validated.getInt("rows"));
+        assertEquals(1, validated.getInt("valid"));
+        assertEquals(1, validated.getInt("invalid"));
+    }
+
+    private static RecordedEvent find(List<RecordedEvent> events, String name) {
+        return events.stream().filter(e -> e.getEventType().getName().equals(name)).findFirst()
+                .orElseThrow(() -> new AssertionError("No " + name + " event in " + events));
+    }
+}
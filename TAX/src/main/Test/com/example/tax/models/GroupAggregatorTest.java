@@ -0,0 +1,110 @@
+package com.example.tax.models;
+
+import com.example.tax.utils.ChecksumUtil;
+import com.example.tax.utils.MoneyUtil;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GroupAggregatorTest {
+
+    @Test
+    public void testFamilyOf() {
+        assertEquals("Cake", GroupAggregator.familyOf("Cake_122"));
+        assertEquals("Lemon_Tea", GroupAggregator.familyOf("Lemon_Tea_7"));
+        assertEquals("Lemon_Tea", GroupAggregator.familyOf("Lemon_Tea"));
+        assertEquals("Bread", GroupAggregator.familyOf("Bread"));
+        assertEquals("Bread_", GroupAggregator.familyOf("Bread_"));
+        assertEquals("_12", GroupAggregator.familyOf("_12"));
+    }
+
+    @Test
+    public void testTotalsPerItemCodeAndFamily() {
+        TransactionStore store = new TransactionStore();
+        String checksum = String.valueOf(ChecksumUtil.calculateChecksum("Cake_122", 1200.00, 1400.00, 0.0, 1400.00));
+        store.add("Cake_122", 1200.00, 1400.00, 0.0, checksum);
+        store.add("Cake_122", 1000.00, 1400.00, 10.0, "1");
+        store.add("Cake_7", 500.00, 800.00, 5.0, "1");
+        store.add("Bread", 100.00, 150.00, 0.0, "1");
+
+        GroupAggregator.Result result = GroupAggregator.capture(store).aggregate();
+
+        assertEquals(4, result.getRows());
+        List<GroupTotals> byItemCode = result.getByItemCode();
+        assertEquals(List.of("Cake_122", "Cake_7", "Bread"), byItemCode.stream().map(GroupTotals::getKey).toList());
+        GroupTotals cake122 = byItemCode.get(0);
+        assertEquals(2, cake122.getCount());
+        assertEquals(1, cake122.getValidCount());
+        assertEquals(1, cake122.getInvalidCount());
+        assertEquals(140000 + 126000, cake122.getRevenueCents());
+        assertEquals(120000 + 100000, cake122.getCostCents());
+        assertEquals(46000, cake122.getProfitCents());
+        assertEquals(5.0, cake122.getAverageDiscount(), 1e-9);
+
+        List<GroupTotals> byFamily = result.getByFamily();
+        assertEquals(List.of("Cake", "Bread"), byFamily.stream().map(GroupTotals::getKey).toList());
+        GroupTotals cake = byFamily.get(0);
+        assertEquals(3, cake.getCount());
+        assertEquals(140000 + 126000 + 76000, cake.getRevenueCents());
+        assertEquals(46000 + 26000, cake.getProfitCents());
+        assertEquals(5.0, cake.getAverageDiscount(), 1e-9);
+        assertEquals(5000, byFamily.get(1).getProfitCents());
+    }
+
+    @Test
+    public void testItemCodesWithoutRowsAreSkipped() {
+        TransactionStore store = new TransactionStore();
+        store.add("Cake_122", 1200.00, 1400.00, 0.0, "1");
+        store.add("Bread", 100.00, 150.00, 0.0, "1");
+        store.remove(0);
+
+        GroupAggregator.Result result = GroupAggregator.capture(store).aggregate();
+
+        assertEquals(1, result.getRows());
+        assertEquals(List.of("Bread"), result.getByItemCode().stream().map(GroupTotals::getKey).toList());
+        assertEquals(List.of("Bread"), result.getByFamily().stream().map(GroupTotals::getKey).toList());
+    }
+
+    @Test
+    public void testEmptyStore() {
+        GroupAggregator.Result result = GroupAggregator.capture(new TransactionStore()).aggregate();
+
+        assertEquals(0, result.getRows());
+        assertTrue(result.getByItemCode().isEmpty());
+        assertTrue(result.getByFamily().isEmpty());
+    }
+
+    @Test
+    public void testPartitionedTotalsMatchSequentialSums() {
+        int rows = GroupAggregator.MIN_PARTITION_ROWS * 5 + 17;
+        TransactionStore store = new TransactionStore(rows);
+        long[] revenueCents = new long[10];
+        long[] costCents = new long[10];
+        for (int row = 0; row < rows; row++) {
+            int item = row % 10;
+            long cost = 100 + row % 997;
+            long salePrice = cost + row % 31;
+            long discount = (row % 7) * MoneyUtil.DISCOUNT_SCALE;
+            store.addCents("Item_" + item, cost, salePrice, discount, "1");
+            revenueCents[item] += MoneyUtil.discountedCents(salePrice, discount);
+            costCents[item] += cost;
+        }
+
+        GroupAggregator.Result result = GroupAggregator.capture(store).aggregate();
+
+        assertEquals(rows, result.getRows());
+        assertEquals(10, result.getByItemCode().size());
+        long count = 0;
+        for (GroupTotals group : result.getByItemCode()) {
+            int item = Integer.parseInt(group.getKey().substring("Item_".length()));
+            assertEquals(revenueCents[item], group.getRevenueCents(), group.getKey());
+            assertEquals(costCents[item], group.getCostCents(), group.getKey());
+            count += group.getCount();
+        }
+        assertEquals(rows, count);
+        assertEquals(1, result.getByFamily().size());
+        assertEquals(rows, result.getByFamily().get(0).getCount());
+    }
+}
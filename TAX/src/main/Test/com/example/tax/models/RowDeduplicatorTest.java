@@ -0,0 +1,127 @@
+package com.example.tax.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RowDeduplicatorTest {
+
+    @Test
+    public void testRowsOfEarlierStoresAreDuplicates() {
+        TransactionStore bill = new TransactionStore();
+        bill.add("Cake_122", 1200.00, 1400.00, 0.0, "50");
+        bill.add("Lemon_3", 1500.00, 1600.00, 20.0, "61");
+        TransactionStore allBills = new TransactionStore();
+        allBills.add("LemonTea", 300.00, 330.00, 0.0, "44");
+        allBills.add("Lemon_3", 1500.00, 1600.00, 20.0, "61");
+        allBills.add("Cake_122", 1200.00, 1400.00, 0.0, "50");
+        // Differs from the first bill's row only in the discount
+        allBills.add("Cake_122", 1200.00, 1400.00, 0.5, "50");
+
+        RowDeduplicator deduplicator = new RowDeduplicator(4);
+
+        assertTrue(deduplicator.add(bill, 0).isEmpty());
+        assertEquals(bitSet(1, 2), deduplicator.add(allBills, 1));
+        assertEquals(4, deduplicator.distinctRows());
+    }
+
+    @Test
+    public void testRepeatsWithinAStoreAreOnlyRemovedUpToEarlierCopies() {
+        TransactionStore bill = new TransactionStore();
+        bill.add("Cake_122", 1200.00, 1400.00, 0.0, "50");
+        bill.add("Cake_122", 1200.00, 1400.00, 0.0, "50");
+        TransactionStore allBills = new TransactionStore();
+        allBills.add("Cake_122", 1200.00, 1400.00, 0.0, "50");
+        allBills.add("Cake_122", 1200.00, 1400.00, 0.0, "50");
+        allBills.add("Cake_122", 1200.00, 1400.00, 0.0, "50");
+        TransactionStore later = new TransactionStore();
+        later.add("Cake_122", 1200.00, 1400.00, 0.0, "50");
+        later.add("Cake_122", 1200.00, 1400.00, 0.0, "50");
+        later.add("Cake_122", 1200.00, 1400.00, 0.0, "50");
+        later.add("Cake_122", 1200.00, 1400.00, 0.0, "50");
+
+        RowDeduplicator deduplicator = new RowDeduplicator(1);
+
+        assertTrue(deduplicator.add(bill, 0).isEmpty(), "A bill may sell the same item twice");
+        assertEquals(bitSet(0, 1), deduplicator.add(allBills, 1));
+        assertEquals(bitSet(0, 1, 2), deduplicator.add(later, 2));
+    }
+
+    @Test
+    public void testTableGrowsPastExpectedRows() {
+        TransactionStore first = new TransactionStore();
+        TransactionStore second = new TransactionStore();
+        for (int i = 0; i < 1000; i++) {
+            first.add("ITEM" + i, i, i + 1, 0.0, "1");
+            second.add("ITEM" + (i + 500), i + 500, i + 501, 0.0, "1");
+        }
+
+        RowDeduplicator deduplicator = new RowDeduplicator(16);
+        deduplicator.add(first, 0);
+        BitSet duplicates = deduplicator.add(second, 1);
+
+        assertEquals(500, duplicates.cardinality());
+        assertEquals(499, duplicates.previousSetBit(999));
+        assertEquals(1500, deduplicator.distinctRows());
+    }
+
+    @Test
+    public void testRowsAddedToASourceLaterAreCheckedAgainstAllSources() {
+        TransactionStore bill = new TransactionStore();
+        bill.add("Cake_122", 1200.00, 1400.00, 0.0, "50");
+        TransactionStore allBills = new TransactionStore();
+        allBills.add("Cake_122", 1200.00, 1400.00, 0.0, "50");
+        TransactionStore appended = new TransactionStore();
+        appended.add("Cake_122", 1200.00, 1400.00, 0.0, "50");
+        appended.add("Cake_122", 1200.00, 1400.00, 0.0, "50");
+
+        RowDeduplicator deduplicator = new RowDeduplicator(1);
+        deduplicator.add(bill, 0);
+        assertEquals(bitSet(0), deduplicator.add(allBills, 1));
+
+        // ttf_all_bills.csv now has three copies, and the bill's file had one of them
+        assertEquals(bitSet(), deduplicator.add(appended, 1));
+        assertEquals(bitSet(0, 1), deduplicator.add(appended, 0), "The bill's file has no more copies than are kept");
+    }
+
+    @Test
+    public void testRemovedSourceGivesBackRowsOnlyItHad() {
+        TransactionStore bill = new TransactionStore();
+        bill.add("Cake_122", 1200.00, 1400.00, 0.0, "50");
+        bill.add("Lemon_3", 1500.00, 1600.00, 20.0, "61");
+        TransactionStore allBills = new TransactionStore();
+        allBills.add("Lemon_3", 1500.00, 1600.00, 20.0, "61");
+        allBills.add("Cake_122", 1200.00, 1400.00, 0.0, "50");
+        allBills.add("Cake_122", 1200.00, 1400.00, 0.0, "50");
+        TransactionStore rewritten = new TransactionStore();
+        rewritten.add("Lemon_3", 1500.00, 1600.00, 20.0, "61");
+
+        RowDeduplicator deduplicator = new RowDeduplicator(4);
+        deduplicator.add(bill, 0);
+        assertEquals(bitSet(0, 1), deduplicator.add(allBills, 1));
+        // The rows are removed from the store; the deduplicator keeps its own copies
+        bill.clear();
+
+        deduplicator.removeSource(0);
+
+        assertEquals(bitSet(), deduplicator.add(rewritten, 0), "Lemon_3 is kept by the rewritten file again");
+        Map<Integer, TransactionStore> missing = deduplicator.takeMissingRows();
+        assertEquals(1, missing.size());
+        TransactionStore rows = missing.get(1);
+        assertEquals(1, rows.size(), "One of the two copies in ttf_all_bills.csv is still kept");
+        assertEquals("Cake_122", rows.getItemCode(0));
+        assertEquals(1400_00, rows.getSalePriceCents(0));
+        assertTrue(deduplicator.takeMissingRows().isEmpty());
+    }
+
+    private static BitSet bitSet(int... bits) {
+        BitSet set = new BitSet();
+        for (int bit : bits) {
+            set.set(bit);
+        }
+        return set;
+    }
+}
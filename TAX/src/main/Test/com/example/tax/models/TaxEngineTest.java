@@ -0,0 +1,107 @@
+package com.example.tax.models;
+
+import com.example.tax.utils.MoneyUtil;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaxEngineTest {
+
+    @Test
+    public void testFlatRateMatchesPercentOfTotalProfit() {
+        TransactionStore store = new TransactionStore();
+        store.add("Cake_122", 1200.00, 1400.00, 0.0, "1");
+        store.add("Lemon_3", 1500.00, 1600.00, 20.0, "1");
+
+        TaxEngine engine = new TaxEngine().add(store);
+
+        assertEquals(-2000, engine.getTotalProfitCents());
+        assertEquals(MoneyUtil.percentOf(-2000, 12.5), engine.calculate(TaxSchedule.flat(12.5)).getTaxCents());
+        assertEquals(-250, engine.calculate(TaxSchedule.parse("12.5")).getTaxCents());
+    }
+
+    @Test
+    public void testBracketsTaxEachShareAtItsRate() {
+        TaxSchedule schedule = TaxSchedule.parse("5, 1000:10, 5000:20");
+
+        assertEquals(0, schedule.bracketTaxCents(0));
+        assertEquals(2500, schedule.bracketTaxCents(50_000));                      // 5% of 500
+        assertEquals(5000 + 20000, schedule.bracketTaxCents(300_000));             // 5% of 1000, 10% of 2000
+        assertEquals(5000 + 40000 + 100000, schedule.bracketTaxCents(1_000_000)); // ... and 20% of 5000
+        assertEquals(-500, schedule.bracketTaxCents(-10_000), "A loss is taxed at the first rate");
+    }
+
+    @Test
+    public void testProfitBelowTheFirstThresholdIsTaxFree() {
+        TaxSchedule schedule = TaxSchedule.parse("1000:10");
+
+        assertEquals(0, schedule.bracketTaxCents(100_000));
+        assertEquals(1000, schedule.bracketTaxCents(110_000));
+    }
+
+    @Test
+    public void testFamilyRatesTakeTheirProfitOutOfTheBrackets() {
+        TransactionStore store = new TransactionStore();
+        store.add("Cake_122", 1000.00, 2000.00, 0.0, "1");  // Profit 1000
+        store.add("Cake_7", 500.00, 1500.00, 0.0, "1");     // Profit 1000
+        store.add("Bread", 100.00, 600.00, 0.0, "1");       // Profit 500
+
+        TaxEngine engine = new TaxEngine().add(store);
+        TaxEngine.Result result = engine.calculate(TaxSchedule.parse("10, 400:20, Cake=5"));
+
+        // Cake: 5% of 2000; Bread: 10% of 400 and 20% of 100
+        assertEquals(10000 + 4000 + 2000, result.getTaxCents());
+        assertEquals(250_000, result.getProfitCents());
+        assertEquals(6.4, result.getEffectiveRate(), 1e-9);
+    }
+
+    @Test
+    public void testSweepMatchesSeparateCalculations() {
+        TransactionStore store = new TransactionStore();
+        for (int i = 0; i < 100; i++) {
+            store.add((i % 3 == 0 ? "Cake_" : "Tart_") + i, 100.00 + i, 150.00 + 2 * i, i % 10, "1");
+        }
+        TaxEngine engine = new TaxEngine().add(store);
+        List<TaxSchedule> schedules = TaxSchedule.parseAll("8; 5, 1000:15; 10, Cake=2, Tart=4;; 1000:30, Tart=1");
+
+        List<TaxEngine.Result> results = engine.sweep(schedules);
+
+        assertEquals(4, results.size());
+        for (int i = 0; i < schedules.size(); i++) {
+            assertSame(schedules.get(i), results.get(i).getSchedule());
+            assertEquals(engine.calculate(schedules.get(i)).getTaxCents(), results.get(i).getTaxCents());
+        }
+    }
+
+    @Test
+    public void testEngineFollowsEditsAndDeletes() {
+        TransactionStore store = new TransactionStore();
+        store.add("Cake_122", 1000.00, 2000.00, 0.0, "1");
+        store.add("Bread", 100.00, 600.00, 0.0, "1");
+        store.add("Cake_9", 100.00, 900.00, 0.0, "1");
+        store.set(0, "Bread_2", 1000.00, 1500.00, 0.0, "1");
+        store.remove(1);
+        BitSet lastRow = new BitSet();
+        lastRow.set(1);
+        store.removeRows(lastRow);
+
+        TaxEngine.Result result = new TaxEngine().add(store).calculate(TaxSchedule.parse("0, Cake=50, Bread=10"));
+
+        assertEquals(5000, result.getTaxCents());
+    }
+
+    @Test
+    public void testMalformedSchedulesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> TaxSchedule.parse("abc"));
+        assertThrows(IllegalArgumentException.class, () -> TaxSchedule.parse("10,"));
+        assertThrows(IllegalArgumentException.class, () -> TaxSchedule.parse("10, 0:12"));
+        assertThrows(IllegalArgumentException.class, () -> TaxSchedule.parse("-5:10"));
+        assertThrows(IllegalArgumentException.class, () -> TaxSchedule.parse("Cake=5"));
+        assertThrows(IllegalArgumentException.class, () -> TaxSchedule.parse("10, Cake=5, Cake=6"));
+        assertThrows(IllegalArgumentException.class, () -> TaxSchedule.parse("NaN"));
+        assertThrows(IllegalArgumentException.class, () -> TaxSchedule.parseAll(" ; "));
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.tax.models;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionSorterTest {
+
+    private TransactionStore store;
+
+    @BeforeEach
+    public void setUp() {
+        store = new TransactionStore(16);
+        store.add("ITEM123", 100.00, 150.00, 10.0, "52");
+        store.add("ITEM@123", 80.00, 150.00, 0.0, "42");
+        store.add("ITEM100", 100.00, 120.00, 5.0, "52");
+        store.add("item200", 20.00, 90.00, 25.5, "17");
+        store.add("ITEM100", 50.00, 200.00, 10.0, "52");
+        store.add("ITEM300", 100.00, 150.00, 10.0, "99");
+    }
+
+    @Test
+    public void testSortMatchesStableComparatorSort() {
+        assertArrayEquals(expected(Comparator.comparingDouble(store::getCost)),
+                sort(TransactionSorter.Column.COST, true, TransactionSorter.Filter.ALL));
+        assertArrayEquals(expected(Comparator.comparingDouble(store::getProfit)),
+                sort(TransactionSorter.Column.PROFIT, true, TransactionSorter.Filter.ALL));
+        assertArrayEquals(expected(Comparator.comparingDouble(store::getDiscountedPrice)),
+                sort(TransactionSorter.Column.DISCOUNTED_PRICE, true, TransactionSorter.Filter.ALL));
+        assertArrayEquals(expected(Comparator.comparing(store::getItemCode)),
+                sort(TransactionSorter.Column.ITEM_CODE, true, TransactionSorter.Filter.ALL));
+        assertArrayEquals(expected(Comparator.comparing(store::getChecksum)),
+                sort(TransactionSorter.Column.CHECKSUM, true, TransactionSorter.Filter.ALL));
+    }
+
+    @Test
+    public void testDescendingSortKeepsTiesInStoreOrder() {
+        Comparator<Integer> bySalePrice = Comparator.comparingDouble(store::getSalePrice);
+
+        int[] sorted = sort(TransactionSorter.Column.SALE_PRICE, false, TransactionSorter.Filter.ALL);
+
+        assertArrayEquals(expected(bySalePrice.reversed()), sorted);
+        assertArrayEquals(new int[] {4, 0, 1, 5, 2, 3}, sorted, "Equal prices should stay in store order");
+    }
+
+    @Test
+    public void testFilterKeepsOnlyMatchingRows() {
+        int[] valid = sort(null, true, TransactionSorter.Filter.VALID);
+        int[] invalid = sort(TransactionSorter.Column.COST, true, TransactionSorter.Filter.INVALID);
+
+        for (int row : valid) {
+            assertTrue(store.isValid(row));
+        }
+        for (int row : invalid) {
+            assertFalse(store.isValid(row));
+        }
+        assertEquals(store.size(), valid.length + invalid.length);
+        assertTrue(TransactionSorter.matches(store, valid[0], TransactionSorter.Filter.VALID));
+    }
+
+    @Test
+    public void testWideKeyRangeFallsBackToRanks() {
+        store.add("ITEM400", 50_000_000.00, 60_000_000.00, 0.0, "1");
+        store.add("ITEM500", 0.01, 1.00, 0.0, "2");
+
+        assertArrayEquals(expected(Comparator.comparingDouble(store::getCost)),
+                sort(TransactionSorter.Column.COST, true, TransactionSorter.Filter.ALL));
+        assertArrayEquals(expected(Comparator.comparingDouble(store::getCost).reversed()),
+                sort(TransactionSorter.Column.COST, false, TransactionSorter.Filter.ALL));
+    }
+
+    private int[] sort(TransactionSorter.Column column, boolean ascending, TransactionSorter.Filter filter) {
+        return TransactionSorter.capture(store, column, ascending, filter).sort();
+    }
+
+    private int[] expected(Comparator<Integer> comparator) {
+        return IntStream.range(0, store.size()).boxed().sorted(comparator).mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.tax.models;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionStoreListTest {
+
+    private static TransactionStoreList listOf(String... itemCodes) {
+        TransactionStore store = new TransactionStore();
+        for (String itemCode : itemCodes) {
+            store.add(itemCode, 100.00, 150.00, 0.0, "1");
+        }
+        return new TransactionStoreList(store);
+    }
+
+    @Test
+    public void testTrackedRowFollowsRemovals() {
+        TransactionStoreList list = listOf("A", "B", "C", "D", "E");
+        list.setSource(0, 2, 7);
+        TransactionStoreList.TrackedRow tracked = list.trackRow(3);
+
+        list.remove(4);
+        assertEquals(3, tracked.getRow(), "Removing a later row does not move it");
+        list.remove(1);
+        assertEquals(2, tracked.getRow());
+        list.removeSource(7);
+        assertEquals(1, tracked.getRow());
+        assertEquals("D", list.getStore().getItemCode(tracked.getRow()));
+
+        list.removeRows(row -> list.getStore().getItemCode(row).equals("D"));
+        assertTrue(tracked.isRemoved());
+    }
+
+    @Test
+    public void testCommitRowWritesToTheEditedRowAfterReordering() {
+        TransactionStoreList list = listOf("A", "B", "C");
+        Transaction edited = list.get(1);
+        TransactionStoreList.TrackedRow tracked = list.trackRow(list.rowAt(1));
+
+        // Reordered and appended to while the edit dialog is open
+        list.setOrder(new int[]{0, 2, 1}, null);
+        TransactionStore page = new TransactionStore();
+        page.add("D", 100.00, 150.00, 0.0, "1");
+        list.appendAll(page);
+        edited.setItemCode("B_2");
+        edited.setSalePrice(200.00);
+        list.commitRow(tracked.getRow(), edited);
+        list.untrack(tracked);
+
+        assertEquals("B_2", list.getStore().getItemCode(1));
+        assertEquals("C", list.getStore().getItemCode(2));
+        assertEquals("C", list.get(1).getItemCode(), "The index the edit started at now shows another row");
+        assertSame(edited, list.get(2));
+        assertEquals(100.00, edited.getProfit(), 0.0);
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.tax.models;
+
+import com.example.tax.utils.ChecksumUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionStoreTest {
+
+    private TransactionStore store;
+
+    @BeforeEach
+    public void setUp() {
+        // Start small so the test also exercises growing the columns
+        store = new TransactionStore(1);
+        for (int i = 0; i < 40; i++) {
+            store.add("ITEM123", 100.00, 150.00, 10.0, "52");
+            store.add("ITEM@123", 100.00, 150.00, 10.0, "42");
+        }
+    }
+
+    @Test
+    public void testRowsMatchTransactionModel() {
+        Transaction expected = new Transaction("ITEM123", 100.00, 150.00, 10.0, "52");
+
+        assertEquals(80, store.size());
+        assertEquals(expected.getDiscountedPrice(), store.getDiscountedPrice(0), 0.0);
+        assertEquals(expected.getProfit(), store.getProfit(0), 0.0);
+        assertEquals(expected.isValidChecksum(), store.isValid(0));
+        assertFalse(store.isValid(1), "Item code with special characters should be invalid");
+    }
+
+    @Test
+    public void testRecordsWrittenByThePosAreValid() {
+        double[][] records = {{0.30, 25.0}, {216.25, 57.2}, {565.00, 74.1}, {198.75, 66.0}, {150.00, 10.0}};
+        TransactionStore batch = new TransactionStore();
+        for (double[] record : records) {
+            // The discounted price and checksum as the POS and the original validator calculate them
+            double discountedPrice = record[0] - record[0] * (record[1] / 100);
+            String line = ChecksumUtil.formatTransactionLine("Cake_1", 100.00, record[0], record[1], discountedPrice);
+            batch.add("Cake_1", 100.00, record[0], record[1], String.valueOf(ChecksumUtil.calculateChecksum(line)));
+            assertTrue(TransactionValidator.isValid("Cake_1", 100.00, record[0], record[1], discountedPrice,
+                    String.valueOf(ChecksumUtil.calculateChecksum(line))), line);
+        }
+
+        assertEquals(records.length, batch.getAggregates().getValidCount());
+        assertEquals(0.22, batch.getDiscountedPrice(0), 0.0);
+    }
+
+    @Test
+    public void testItemCodesAreDeduplicated() {
+        assertEquals(2, store.getItemCodes().size(), "Each distinct item code should be stored once");
+        assertEquals(store.getItemCodeId(0), store.getItemCodeId(2));
+    }
+
+    @Test
+    public void testSetClearsCachedValidity() {
+        assertTrue(store.isValid(0));
+
+        store.set(0, "ITEM123", -1.0, 150.00, 10.0, "52");
+
+        assertFalse(store.isValid(0), "Updating a row should re-validate it");
+    }
+
+    @Test
+    public void testRemoveShiftsRows() {
+        store.remove(0);
+
+        assertEquals(79, store.size());
+        assertEquals("ITEM@123", store.getItemCode(0));
+        assertFalse(store.isValid(0));
+    }
+
+    @Test
+    public void testRemoveMarkedRowsCompactsInPlace() {
+        store.add("Cake_1", 10.00, 10.00, 0.0, "99"); // Row 80, zero profit
+
+        TransactionStore removed = store.removeRows(store.markRows(row -> !store.isValid(row)));
+
+        assertEquals(41, removed.size());
+        assertEquals(40, store.size());
+        for (int row = 0; row < store.size(); row++) {
+            assertEquals("ITEM123", store.getItemCode(row));
+            assertTrue(store.isValid(row));
+        }
+        assertEquals("ITEM@123", removed.getItemCode(0));
+        assertEquals("Cake_1", removed.getItemCode(40));
+        assertEquals(40, store.getAggregates().getTotalCount());
+        assertEquals(40, store.getAggregates().getValidCount());
+        assertEquals(40 * 3500, store.getAggregates().getTotalProfitCents());
+    }
+
+    @Test
+    public void testAddAllTranslatesStringIds() {
+        TransactionStore page = new TransactionStore();
+        page.add("Cake_1", 10.00, 12.00, 0.0, "52");     // Checksum already known to the store
+        page.add("ITEM@123", 100.00, 150.00, 10.0, "42");
+
+        store.addAll(page);
+
+        assertEquals(82, store.size());
+        assertEquals("Cake_1", store.getItemCode(80));
+        assertEquals("52", store.getChecksum(80));
+        assertEquals(store.getItemCodeId(1), store.getItemCodeId(81));
+        assertEquals(3, store.getItemCodes().size());
+        assertEquals(82, store.getAggregates().getTotalCount());
+    }
+
+    @Test
+    public void testItemCodeIndexFollowsEditsAndRemovals() {
+        store.add("Cake_122", 1200.00, 1400.00, 0.0, "50");
+        assertEquals(80, store.findItemCode("Cake_122"));
+        assertEquals(-1, store.findItemCode("Missing"));
+        assertEquals(40, store.countItemCode("ITEM123"));
+        assertEquals(2, store.getDuplicateItemCodeCount());
+
+        // Edit the only Cake_122 row into another ITEM@123 row
+        store.set(80, "ITEM@123", 100.00, 150.00, 10.0, "42");
+        assertEquals(0, store.countItemCode("Cake_122"));
+        assertEquals(41, store.countItemCode("ITEM@123"));
+
+        // Edit a row out of the middle of a list and back in
+        store.set(10, "Cake_122", 1200.00, 1400.00, 0.0, "50");
+        assertArrayEquals(new int[] {10}, store.rowsWithItemCode("Cake_122"));
+        store.set(10, "ITEM123", 100.00, 150.00, 10.0, "52");
+
+        store.remove(0);
+        assertEquals(0, store.findItemCode("ITEM@123"));
+        assertEquals(1, store.findItemCode("ITEM123"));
+
+        store.removeRows(store.markRows(row -> store.getItemCode(row).equals("ITEM@123")));
+        assertEquals(0, store.findItemCode("ITEM123"));
+        assertEquals(1, store.getDuplicateItemCodeCount(), "Only ITEM123 is left duplicated");
+        int[] rows = store.rowsWithItemCode("ITEM123");
+        assertEquals(store.size(), rows.length);
+        for (int i = 0; i < rows.length; i++) {
+            assertEquals(i, rows[i]);
+        }
+        assertTrue(store.hasDuplicateItemCode(0));
+        assertEquals(List.of("ITEM123"), store.getDuplicateItemCodes());
+    }
+
+    @Test
+    public void testValidateAllMatchesSingleRowRules() {
+        TransactionStore batch = new TransactionStore();
+        String[][] rows = {
+                {"ITEM123", "52"},  // Valid
+                {"ITEM123", "052"}, // Same number, not written as calculated
+                {"Lémon_3", "60"},  // Non-ASCII item code
+                {"ITEM@123", "42"}, // Special character
+        };
+        for (String[] row : rows) {
+            batch.add(row[0], 100.00, 150.00, 10.0, row[1]);
+        }
+        batch.add("ITEM123", -100.00, 150.00, 10.0, "52");
+
+        batch.validateAll();
+
+        for (int row = 0; row < batch.size(); row++) {
+            boolean expected = TransactionValidator.isValid(batch.getItemCode(row), batch.getCost(row),
+                    batch.getSalePrice(row), batch.getDiscount(row), batch.getDiscountedPrice(row),
+                    batch.getChecksum(row));
+            assertEquals(expected, batch.isValid(row), "Row " + row);
+        }
+        assertEquals(1, batch.getAggregates().getValidCount());
+    }
+
+    @Test
+    public void testAggregatesFollowAddSetAndRemove() {
+        TransactionAggregates aggregates = store.getAggregates();
+        assertEquals(80, aggregates.getTotalCount());
+        assertEquals(40, aggregates.getValidCount());
+        assertEquals(40, aggregates.getInvalidCount());
+        assertEquals(80 * 35.0, aggregates.getTotalProfit(), 1e-9);
+
+        store.set(0, "ITEM123", 100.00, 150.00, 10.0, "53"); // Now invalid, same profit
+        store.remove(1);                                     // Remove an invalid row
+
+        assertEquals(79, aggregates.getTotalCount());
+        assertEquals(39, aggregates.getValidCount());
+        assertEquals(40, aggregates.getInvalidCount());
+        assertEquals(79 * 35.0, aggregates.getTotalProfit(), 1e-9);
+    }
+
+    @Test
+    public void testDiscountedPriceFollowsRowsThatMoveOrChange() {
+        store.add("Cake_1", 10.00, 33.33, 12.5, "99");   // Row 80
+        store.set(2, "ITEM123", 100.00, 99.99, 33.3, "52");
+
+        store.removeRows(store.markRows(row -> row % 2 == 1));
+        TransactionStore copy = new TransactionStore(1);
+        copy.addAll(store);
+
+        for (TransactionStore rows : List.of(store, copy)) {
+            assertEquals(41, rows.size());
+            assertEquals(13500, rows.getDiscountedPriceCents(0));
+            assertEquals(6669, rows.getDiscountedPriceCents(1));
+            assertEquals(-3331, rows.getProfitCents(1));
+            assertEquals(2916, rows.getDiscountedPriceCents(40));
+            assertEquals(1916, rows.getProfitCents(40));
+        }
+    }
+
+    @Test
+    public void testProfitInCentsDoesNotDrift() {
+        TransactionAggregates aggregates = new TransactionAggregates();
+        aggregates.add(1_000_000_000_000_000L, true);
+        for (int i = 0; i < 1000; i++) {
+            aggregates.add(1, true);
+        }
+        aggregates.remove(1_000_000_000_000_000L, true);
+
+        assertEquals(1000, aggregates.getTotalProfitCents());
+        assertEquals(10.0, aggregates.getTotalProfit(), 0.0);
+    }
+}
@@ -82,4 +82,23 @@ public class TransactionTest {
         assertFalse(invalidTransaction.isValidChecksum(),
                 "Transaction with negative cost should return false");
     }
+
+    @Test
+    public void testValidityIsRecomputedWhenInputsChange() {
+        Transaction transaction = new Transaction("ITEM123", 100.00, 150.00, 10.0, "52");
+        assertTrue(transaction.isValidChecksum(), "Transaction should start out valid");
+
+        transaction.setCost(-1.0);
+        assertFalse(transaction.isValidChecksum(), "Changing the cost should clear the cached result");
+
+        transaction.setCost(100.00);
+        assertTrue(transaction.isValidChecksum(), "Restoring the cost should make it valid again");
+
+        transaction.setChecksum("53");
+        assertFalse(transaction.isValidChecksum(), "Changing the checksum should clear the cached result");
+
+        transaction.setChecksum("52");
+        transaction.setItemCode("ITEM@123");
+        assertFalse(transaction.isValidChecksum(), "Changing the item code should clear the cached result");
+    }
 }
@@ -0,0 +1,49 @@
+package com.example.tax.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchChecksumTest {
+
+    @Test
+    public void testBatchMatchesStringChecksum() {
+        String[] lines = new String[2000];
+        Random random = new Random(42);
+        String[] itemCodes = {"Cake_122", "ITEM123", "LemonTea", "Lémon_3", "x_Y_z", ""};
+        for (int i = 0; i < lines.length; i++) {
+            // Lengths from a few bytes to several vectors, so masked tails are covered
+            lines[i] = ChecksumUtil.formatTransactionLine(itemCodes[random.nextInt(itemCodes.length)]
+                            + "Ab9_.".repeat(random.nextInt(30)),
+                    random.nextInt(1_000_000) / 100.0, random.nextInt(1_000_000) / 100.0,
+                    random.nextInt(1000) / 10.0, -random.nextInt(1_000_000) / 100.0);
+        }
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        int[] starts = new int[lines.length];
+        int[] ends = new int[lines.length];
+        for (int i = 0; i < lines.length; i++) {
+            starts[i] = buffer.size();
+            buffer.writeBytes(lines[i].getBytes(StandardCharsets.UTF_8));
+            ends[i] = buffer.size();
+            buffer.write('\n');
+        }
+        byte[] data = buffer.toByteArray();
+
+        int[] batch = new int[lines.length];
+        int[] scalar = new int[lines.length];
+        BatchChecksum.calculateChecksums(data, starts, ends, lines.length, batch);
+        BatchChecksum.calculateChecksumsScalar(data, starts, ends, lines.length, scalar);
+
+        for (int i = 0; i < lines.length; i++) {
+            int expected = ChecksumUtil.calculateChecksum(lines[i]);
+            assertEquals(expected, scalar[i], "Scalar kernel differs for " + lines[i]);
+            assertEquals(expected, batch[i], "Batch kernel (vectorized=" + BatchChecksum.isVectorized()
+                    + ") differs for " + lines[i]);
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.example.tax.utils;
 
 import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class ChecksumUtilTest {
@@ -26,6 +29,68 @@ public class ChecksumUtilTest {
     }
 
 
+    @Test
+    public void testFieldChecksumMatchesFormattedLine() {
+        String[] itemCodes = {"ITEM123", "Cake_122", "Lemon_3", "!Brownie"};
+        double[][] values = {
+                {100.00, 150.00, 10.0, 135.00},
+                {1200.00, 1400.00, 0.0, 1400.00},
+                {0.125, 1.005, 12.25, 2.675},       // Half-way cases for %.2f / %.1f
+                {-3.5, 0.004, 99.95, -0.001},
+                {1e13, 123456789.995, 0.05, Double.NaN}
+        };
+
+        for (String itemCode : itemCodes) {
+            for (double[] v : values) {
+                int expected = ChecksumUtil.calculateChecksum(
+                        ChecksumUtil.formatTransactionLine(itemCode, v[0], v[1], v[2], v[3]));
+                assertEquals(expected, ChecksumUtil.calculateChecksum(itemCode, v[0], v[1], v[2], v[3]),
+                        "Field checksum should match the formatted line for " + itemCode);
+            }
+        }
+    }
+
+    @Test
+    public void testCentsChecksumMatchesFormattedLine() {
+        assertEquals(ChecksumUtil.calculateChecksum("ITEM123,100.00,150.00,10.0,135.00"),
+                ChecksumUtil.calculateChecksumCents("ITEM123", 10000, 15000, 100000, 13500));
+        // 12.25% prints as 12.3 with %.1f
+        assertEquals(ChecksumUtil.calculateChecksum("Cake_1,0.05,1234.56,12.3,1083.33"),
+                ChecksumUtil.calculateChecksumCents("Cake_1", 5, 123456, 122500, 108333));
+    }
+
+    @Test
+    public void testCentsChecksumRoundsTheDiscountLikeFormatter() {
+        for (double discount : new double[]{12.34996, 12.35, 12.35004, 0.04999, 99.94996}) {
+            long salePriceCents = 123456;
+            long discountUnits = MoneyUtil.toDiscountUnits(discount);
+            long discountedPriceCents = MoneyUtil.discountedCents(salePriceCents, discountUnits);
+            int expected = ChecksumUtil.calculateChecksum(ChecksumUtil.formatTransactionLine(
+                    "Cake_1", 0.05, 1234.56, discount, MoneyUtil.toDouble(discountedPriceCents)));
+            assertEquals(expected, ChecksumUtil.calculateChecksumCents("Cake_1", 5, salePriceCents,
+                    discountUnits, discountedPriceCents), "Discount " + discount);
+        }
+    }
+
+    @Test
+    public void testChecksumDoesNotDependOnTheDefaultLocale() {
+        Locale defaultLocale = Locale.getDefault();
+        try {
+            // German uses a decimal comma, and Arabic prints Eastern Arabic digits
+            for (Locale locale : new Locale[]{Locale.GERMANY, Locale.forLanguageTag("ar-EG")}) {
+                Locale.setDefault(locale);
+                String line = ChecksumUtil.formatTransactionLine("ITEM123", 100.0, 1e13, 10.0, Double.NaN);
+                assertEquals("ITEM123,100.00,10000000000000.00,10.0,NaN", line);
+                assertEquals(ChecksumUtil.calculateChecksum(line),
+                        ChecksumUtil.calculateChecksum("ITEM123", 100.0, 1e13, 10.0, Double.NaN));
+                assertEquals(ChecksumUtil.calculateChecksum("ITEM123,100.00,150.00,10.0,135.00"),
+                        ChecksumUtil.calculateChecksum("ITEM123", 100.0, 150.0, 10.0, 135.0));
+            }
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
     @Test
     public void testFormatTransactionLine() {
         String formattedLine = ChecksumUtil.formatTransactionLine(
@@ -0,0 +1,123 @@
+package com.example.tax.utils;
+
+import com.example.tax.models.RowDeduplicator;
+import com.example.tax.models.TransactionStore;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DirectoryImporterTest {
+
+    private static final String HEADER = "ItemCode,Cost,SalePrice,Discount,DiscountedPrice,Checksum";
+
+    @Test
+    public void testImportDirectoryReportsEachFile() throws Exception {
+        Path directory = Files.createTempDirectory("tax-files");
+        Files.write(directory.resolve("ttf_1001.csv"), Arrays.asList(
+                HEADER,
+                "Cake_122,1200.00,1400.00,0.0,1400.00,50",
+                "Lemon_3,1500.00,1600.00,20.0,1280.00,61"));
+        Files.write(directory.resolve("ttf_1002.csv"), Arrays.asList(
+                HEADER,
+                "LemonTea,300.00,330.00,0.0,330.00,44",
+                "Broken,abc,330.00,0.0,330.00,44"));
+        // Not a tax file, must be ignored
+        Files.write(directory.resolve("bills.csv"), Arrays.asList(HEADER, "X,1,1,1,1,1"));
+
+        List<FileImportResult> results = DirectoryImporter.importDirectory(directory, 2);
+
+        assertEquals(2, results.size(), "Only ttf_*.csv files should be imported");
+        assertEquals("ttf_1001.csv", results.get(0).getFile().getFileName().toString());
+        assertEquals(2, results.get(0).getRowCount());
+        assertFalse(results.get(0).hasErrors());
+        assertEquals(1, results.get(1).getRowCount(), "Bad lines should be skipped, not abort the file");
+        assertEquals(1, results.get(1).getErrors().size());
+
+        assertEquals(3, DirectoryImporter.merge(results).size());
+    }
+
+    @Test
+    public void testRemoveDuplicatesCountsEachSaleOnce() throws Exception {
+        Path directory = Files.createTempDirectory("tax-files");
+        Files.write(directory.resolve("ttf_1001.csv"), Arrays.asList(
+                HEADER,
+                "Cake_122,1200.00,1400.00,0.0,1400.00,50",
+                "Cake_122,1200.00,1400.00,0.0,1400.00,50"));
+        Files.write(directory.resolve("ttf_all_bills.csv"), Arrays.asList(
+                HEADER,
+                "Cake_122,1200.00,1400.00,0.0,1400.00,50",
+                "LemonTea,300.00,330.00,0.0,330.00,44",
+                "Cake_122,1200.00,1400.00,0.0,1400.00,50"));
+        List<FileImportResult> results = DirectoryImporter.importDirectory(directory, 2);
+        long profitBefore = DirectoryImporter.merge(results).getAggregates().getTotalProfitCents();
+
+        assertEquals(2, DirectoryImporter.removeDuplicates(results));
+
+        assertEquals(0, results.get(0).getDuplicatesRemoved());
+        assertEquals(2, results.get(0).getRowCount(), "Repeats within one file should be kept");
+        assertEquals(2, results.get(1).getDuplicatesRemoved());
+        assertEquals("LemonTea", results.get(1).getStore().getItemCode(0));
+        assertTrue(results.get(1).getSummary().endsWith(", 2 duplicates removed"));
+        assertEquals(profitBefore - 2 * 200_00,
+                DirectoryImporter.merge(results).getAggregates().getTotalProfitCents());
+    }
+
+    @Test
+    public void testFilesReadLaterAreCheckedAgainstTheRowsKept() throws Exception {
+        Path directory = Files.createTempDirectory("tax-files");
+        Path bill = directory.resolve("ttf_1001.csv");
+        Path allBills = directory.resolve("ttf_all_bills.csv");
+        Files.write(bill, Arrays.asList(
+                HEADER,
+                "Cake_122,1200.00,1400.00,0.0,1400.00,50",
+                "Lemon_3,1500.00,1600.00,20.0,1280.00,61"));
+        Files.write(allBills, Arrays.asList(
+                HEADER,
+                "Cake_122,1200.00,1400.00,0.0,1400.00,50",
+                "Lemon_3,1500.00,1600.00,20.0,1280.00,61"));
+        List<FileImportResult> results = DirectoryImporter.importDirectory(directory, 2);
+        RowDeduplicator deduplicator = new RowDeduplicator(4);
+        assertEquals(2, DirectoryImporter.removeDuplicates(results, deduplicator));
+
+        // A new bill is written to its own file and appended to ttf_all_bills.csv
+        Files.write(directory.resolve("ttf_1002.csv"), Arrays.asList(
+                HEADER,
+                "LemonTea,300.00,330.00,0.0,330.00,44"));
+        Files.write(allBills, Arrays.asList(
+                "LemonTea,300.00,330.00,0.0,330.00,44",
+                "Cake_122,1200.00,1400.00,0.0,1400.00,50"), StandardOpenOption.APPEND);
+        FileImportResult newBill = DirectoryImporter.importFile(directory.resolve("ttf_1002.csv"));
+        FileImportResult appended = results.get(1).getTail().refresh();
+
+        assertTrue(DirectoryImporter.removeDuplicates(newBill, 2, deduplicator).isEmpty());
+        assertTrue(DirectoryImporter.removeDuplicates(appended, 1, deduplicator).isEmpty());
+
+        assertEquals(1, newBill.getRowCount());
+        assertTrue(appended.isAppend());
+        assertEquals(1, appended.getDuplicatesRemoved());
+        assertEquals(1, appended.getRowCount(), "A second Cake_122 sale is a new sale");
+        assertEquals("Cake_122", appended.getStore().getItemCode(0));
+
+        // The bill's file is rewritten with other rows, so ttf_all_bills.csv's copies are needed again
+        Files.write(bill, Arrays.asList(
+                HEADER,
+                "Bread,100.00,150.00,0.0,150.00,7"));
+        FileImportResult rewritten = results.get(0).getTail().refresh();
+        Map<Integer, TransactionStore> missing = DirectoryImporter.removeDuplicates(rewritten, 0, deduplicator);
+
+        assertFalse(rewritten.isAppend());
+        assertEquals(1, rewritten.getRowCount());
+        assertEquals(1, missing.size());
+        TransactionStore allBillsRows = missing.get(1);
+        assertEquals(2, allBillsRows.size());
+        assertEquals(1, allBillsRows.countItemCode("Cake_122"), "The appended Cake_122 is already in the table");
+        assertEquals(1, allBillsRows.countItemCode("Lemon_3"));
+    }
+}
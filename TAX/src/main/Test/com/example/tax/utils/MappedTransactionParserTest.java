@@ -0,0 +1,77 @@
+package com.example.tax.utils;
+
+import com.example.tax.models.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedTransactionParserTest {
+
+    @Test
+    public void testParseMatchesLineReader() throws Exception {
+        Path tempFile = Files.createTempFile("test-transactions", ".csv");
+        Files.write(tempFile, Arrays.asList(
+                "ItemCode,Cost,SalePrice,Discount,DiscountedPrice,Checksum",
+                "ITEM123,100.00,150.00,10.0,135.00,52\r",
+                "   ",
+                " Cake_122 , 1200.00,1400.00,0.0,1400.00, 50",
+                "Lemon_3,1e3,0.1,.5,1280.00,0061"
+        ));
+
+        List<Transaction> expected = new ArrayList<>();
+        TransactionFileReader.read(tempFile, expected::add);
+
+        List<Transaction> actual = new ArrayList<>();
+        int count = MappedTransactionParser.parse(tempFile, (itemCode, cost, salePrice, discount, checksum) ->
+                actual.add(new Transaction(itemCode, cost, salePrice, discount, checksum)));
+
+        assertEquals(expected.size(), count);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getItemCode(), actual.get(i).getItemCode());
+            assertEquals(expected.get(i).getCost(), actual.get(i).getCost());
+            assertEquals(expected.get(i).getSalePrice(), actual.get(i).getSalePrice());
+            assertEquals(expected.get(i).getDiscount(), actual.get(i).getDiscount());
+            assertEquals(expected.get(i).getChecksum(), actual.get(i).getChecksum());
+        }
+
+        Files.deleteIfExists(tempFile);
+    }
+
+    @Test
+    public void testParseReportsLineNumberOfBadRow() throws Exception {
+        Path tempFile = Files.createTempFile("test-transactions", ".csv");
+        Files.write(tempFile, Arrays.asList(
+                "ItemCode,Cost,SalePrice,Discount,DiscountedPrice,Checksum",
+                "ITEM123,100.00,150.00,10.0,135.00,52",
+                "ITEM124,oops,150.00,10.0,135.00,52"
+        ));
+
+        TransactionFormatException e = assertThrows(TransactionFormatException.class,
+                () -> MappedTransactionParser.parse(tempFile, (itemCode, cost, salePrice, discount, checksum) -> { }));
+        assertEquals(3, e.getLineNumber());
+
+        Files.deleteIfExists(tempFile);
+    }
+
+    @Test
+    public void testParseRejectsNumbersThatCannotBeStored() throws Exception {
+        Path tempFile = Files.createTempFile("test-transactions", ".csv");
+        Files.write(tempFile, Arrays.asList(
+                "ItemCode,Cost,SalePrice,Discount,DiscountedPrice,Checksum",
+                "ITEM123,100.00,150.00,10.0,135.00,52",
+                "ITEM124,999999999999999,150.00,10.0,135.00,52"
+        ));
+
+        TransactionFormatException e = assertThrows(TransactionFormatException.class,
+                () -> MappedTransactionParser.parse(tempFile, (itemCode, cost, salePrice, discount, checksum) -> { }));
+        assertEquals(3, e.getLineNumber());
+
+        Files.deleteIfExists(tempFile);
+    }
+}
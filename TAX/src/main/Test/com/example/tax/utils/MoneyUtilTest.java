@@ -0,0 +1,62 @@
+package com.example.tax.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoneyUtilTest {
+
+    @Test
+    public void testToCentsRoundsLikeFormatter() {
+        assertEquals(140000, MoneyUtil.toCents(1400.00));
+        assertEquals(29, MoneyUtil.toCents(0.29));
+        assertEquals(101, MoneyUtil.toCents(1.005), "1.005 prints as 1.01 with %.2f");
+        assertEquals(-101, MoneyUtil.toCents(-1.005));
+        assertEquals(125000, MoneyUtil.toDiscountUnits(12.5));
+    }
+
+    @Test
+    public void testDiscountUnitsKeepTheTenthTheDiscountPrints() {
+        assertEquals(123499, MoneyUtil.toDiscountUnits(12.34996), "12.34996 prints as 12.3 with %.1f");
+        assertEquals(-123499, MoneyUtil.toDiscountUnits(-12.34996));
+        assertEquals(123500, MoneyUtil.toDiscountUnits(12.35));
+        assertEquals(123500, MoneyUtil.toDiscountUnits(12.35004));
+        assertEquals(123450, MoneyUtil.toDiscountUnits(12.34496));
+    }
+
+    @Test
+    public void testDiscountedCents() {
+        assertEquals(45000, MoneyUtil.discountedCents(50000, MoneyUtil.toDiscountUnits(10.0)));
+        assertEquals(128000, MoneyUtil.discountedCents(160000, MoneyUtil.toDiscountUnits(20.0)));
+        // 1.25 - 0.125 = 1.125 exactly, rounded half-up to 1.13
+        assertEquals(113, MoneyUtil.discountedCents(125, MoneyUtil.toDiscountUnits(10.0)));
+    }
+
+    @Test
+    public void testDiscountedCentsRoundsLikeThePos() {
+        // The double result sits just below the half, so the POS writes the lower cent
+        assertEquals(22, MoneyUtil.discountedCents(30, MoneyUtil.toDiscountUnits(25.0)));
+        assertEquals(9255, MoneyUtil.discountedCents(21625, MoneyUtil.toDiscountUnits(57.2)));
+        assertEquals(14633, MoneyUtil.discountedCents(56500, MoneyUtil.toDiscountUnits(74.1)));
+        assertEquals(6757, MoneyUtil.discountedCents(19875, MoneyUtil.toDiscountUnits(66.0)));
+        for (int cents = 0; cents < 20_000; cents += 7) {
+            for (int tenths = 0; tenths <= 1000; tenths += 13) {
+                double salePrice = cents / 100.0;
+                double discount = tenths / 10.0;
+                String written = String.format("%.2f", salePrice - salePrice * (discount / 100));
+                assertEquals(written, MoneyUtil.format(MoneyUtil.discountedCents(cents, tenths * 1000L)),
+                        salePrice + " at " + discount + "%");
+            }
+        }
+    }
+
+    @Test
+    public void testPercentOfAndFormat() {
+        assertEquals(-200, MoneyUtil.percentOf(-2000, 10.0));
+        assertEquals("-2.00", MoneyUtil.format(-200));
+        assertEquals("0.05", MoneyUtil.format(5));
+        assertEquals("1234.50", MoneyUtil.format(123450));
+        assertEquals(3, MoneyUtil.roundHalfUp(5, 2));
+        assertEquals(-3, MoneyUtil.roundHalfUp(-5, 2));
+    }
+}
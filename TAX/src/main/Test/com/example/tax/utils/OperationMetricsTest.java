@@ -0,0 +1,71 @@
+package com.example.tax.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OperationMetricsTest {
+
+    @Test
+    public void testAddSumsStagesAndCounters() {
+        OperationMetrics total = new OperationMetrics("Import folder TaxFiles");
+        for (int i = 0; i < 2; i++) {
+            OperationMetrics file = new OperationMetrics("Read ttf_100" + i + ".csv");
+            file.addStageNanos(OperationMetrics.Stage.PARSE, 3_000_000);
+            file.addStageNanos(OperationMetrics.Stage.VALIDATE, 1_000_000);
+            file.addRows(10);
+            file.addBytes(400);
+            total.add(file.finish());
+        }
+
+        assertEquals(6_000_000, total.getStageNanos(OperationMetrics.Stage.PARSE));
+        assertEquals(2_000_000, total.getStageNanos(OperationMetrics.Stage.VALIDATE));
+        assertEquals(0, total.getStageNanos(OperationMetrics.Stage.READ));
+        assertEquals(20, total.getRows());
+        assertEquals(800, total.getBytes());
+
+        String json = total.finish().toJson();
+        assertTrue(json.startsWith("{\"operation\":\"Import folder TaxFiles\""), json);
+        assertTrue(json.contains("\"rows\":20,\"bytes\":800"), json);
+        assertTrue(json.endsWith("\"stages\":{\"parse\":6.0,\"validate\":2.0}}"), json);
+        assertTrue(total.getSummary().contains("parse"), total.getSummary());
+    }
+
+    @Test
+    public void testFinishFreezesTotalTime() throws Exception {
+        OperationMetrics metrics = new OperationMetrics("Sort");
+        long total = metrics.finish().getTotalNanos();
+        Thread.sleep(5);
+
+        assertEquals(total, metrics.finish().getTotalNanos());
+    }
+
+    @Test
+    public void testImportedFileRecordsReadParseAndValidate() throws Exception {
+        Path file = Files.createTempFile("ttf_", ".csv");
+        Files.write(file, Arrays.asList(TransactionExporter.HEADER.trim(), "Cake_122,1200.00,1400.00,0.0,1400.00,50"));
+
+        OperationMetrics metrics = DirectoryImporter.importFile(file).getMetrics();
+
+        assertEquals(1, metrics.getRows());
+        assertEquals(Files.size(file), metrics.getBytes());
+        assertTrue(metrics.getStageNanos(OperationMetrics.Stage.PARSE) > 0);
+        assertTrue(metrics.getStageNanos(OperationMetrics.Stage.VALIDATE) > 0);
+    }
+
+    @Test
+    public void testLogKeepsTheMostRecentOperations() {
+        MetricsLog log = new MetricsLog(2);
+        log.record(new OperationMetrics("first"));
+        log.record(new OperationMetrics("second"));
+        log.record(new OperationMetrics("third \"quoted\""));
+
+        assertEquals(2, log.getEntries().size());
+        assertEquals("second", log.getEntries().get(0).getName());
+        assertTrue(log.toJson().contains("\"operation\":\"third \\\"quoted\\\"\""), log.toJson());
+    }
+}
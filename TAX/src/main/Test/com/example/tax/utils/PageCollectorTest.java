@@ -0,0 +1,107 @@
+package com.example.tax.utils;
+
+import com.example.tax.models.TransactionStore;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PageCollectorTest {
+
+    private final List<TransactionStore> pages = new ArrayList<>();
+    private final OperationMetrics metrics = new OperationMetrics("Import file ttf_1001.csv");
+
+    private static void addRows(PageCollector collector, int from, int to) {
+        for (int i = from; i < to; i++) {
+            collector.onRow("Cake_" + i, 10.00, 12.00, 0.0, "52");
+        }
+    }
+
+    @Test
+    public void testPagesAreHandedOnAsTheyFill() {
+        PageCollector collector = new PageCollector(2, 3, () -> false, metrics, pages::add);
+
+        addRows(collector, 0, 9);
+
+        assertEquals(3, pages.size(), "A page of 2 and two pages of 3 should be full");
+        assertEquals(2, pages.get(0).size());
+        assertEquals(3, pages.get(1).size());
+        assertEquals(3, pages.get(2).size());
+        assertEquals(8, collector.rowsDelivered());
+
+        collector.deliver();
+        collector.deliver();
+
+        assertEquals(4, pages.size(), "The last partial page should be handed on once");
+        assertEquals(1, pages.get(3).size());
+        assertEquals(9, collector.rowsDelivered());
+        int row = 0;
+        for (TransactionStore page : pages) {
+            // Validated before they are handed on
+            assertEquals(page.size(), page.getAggregates().getTotalCount());
+            for (int i = 0; i < page.size(); i++) {
+                assertEquals("Cake_" + row++, page.getItemCode(i));
+            }
+        }
+    }
+
+    @Test
+    public void testCancellationStopsAfterTheCurrentRow() {
+        int[] rows = {0};
+        PageCollector collector = new PageCollector(2, 3, () -> ++rows[0] > 3, metrics, pages::add);
+
+        addRows(collector, 0, 3);
+        assertThrows(CancellationException.class, () -> collector.onRow("Cake_3", 10.00, 12.00, 0.0, "52"));
+
+        assertEquals(1, pages.size());
+        collector.deliver();
+        assertEquals(2, pages.size());
+        assertEquals(4, collector.rowsDelivered(), "Rows parsed before the cancellation are kept");
+    }
+
+    @Test
+    public void testResetDiscardsRowsOnlyBeforeAPageIsHandedOn() {
+        PageCollector collector = new PageCollector(2, 3, () -> false, metrics, pages::add);
+
+        collector.onRow("Cake_0", 10.00, 12.00, 0.0, "52");
+        assertTrue(collector.reset());
+        collector.deliver();
+        assertTrue(pages.isEmpty(), "Discarded rows should not be handed on");
+
+        addRows(collector, 0, 2);
+        assertFalse(collector.reset(), "Rows already shown cannot be discarded");
+        assertEquals(2, collector.rowsDelivered());
+    }
+
+    @Test
+    public void testRowsBeforeABadLineAreHandedOn() throws Exception {
+        Path tempFile = Files.createTempFile("test-transactions", ".csv");
+        Files.write(tempFile, Arrays.asList(
+                "ItemCode,Cost,SalePrice,Discount,DiscountedPrice,Checksum",
+                "ITEM123,100.00,150.00,10.0,135.00,52",
+                "ITEM@123,100.00,150.00,10.0,135.00,42",
+                "ITEM123,100.00,150.00,10.0,135.00,52",
+                "ITEM124,oops,150.00,10.0,135.00,52",
+                "ITEM125,100.00,150.00,10.0,135.00,52"
+        ));
+        PageCollector collector = new PageCollector(2, 3, () -> false, metrics, pages::add);
+
+        TransactionFormatException e = assertThrows(TransactionFormatException.class,
+                () -> MappedTransactionParser.parse(tempFile, collector));
+        collector.deliver();
+
+        assertEquals(5, e.getLineNumber());
+        assertEquals(2, pages.size());
+        assertEquals(3, collector.rowsDelivered());
+        assertEquals(1, pages.get(0).getAggregates().getValidCount());
+        assertEquals(1, pages.get(1).getAggregates().getValidCount());
+
+        Files.deleteIfExists(tempFile);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.tax.utils;
+
+import com.example.tax.models.TransactionStore;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnapshotCacheTest {
+
+    private static final String HEADER = "ItemCode,Cost,SalePrice,Discount,DiscountedPrice,Checksum";
+
+    @Test
+    public void testSnapshotRestoresColumnsValidityAndTotals() throws Exception {
+        Path directory = Files.createTempDirectory("tax-snapshot");
+        Path source = directory.resolve("ttf_1001.csv");
+        Files.write(source, Arrays.asList(
+                HEADER,
+                "Cake_122,1200.00,1400.00,0.0,1400.00,50",
+                "Lémon_3,1500.00,1600.00,20.0,1280.00,61",
+                "Cake_122,1200.00,1400.00,0.0,1400.00,51"));
+        SnapshotCache cache = new SnapshotCache(directory.resolve("snapshots"));
+        assertNull(cache.load(source), "Nothing has been saved yet");
+
+        FileImportResult imported = DirectoryImporter.importFile(source);
+        TransactionStore original = imported.getStore();
+        cache.save(SnapshotCache.keyOf(source), original);
+        TransactionStore restored = cache.load(source);
+
+        assertNotNull(restored);
+        assertEquals(original.size(), restored.size());
+        for (int row = 0; row < original.size(); row++) {
+            assertEquals(original.getItemCode(row), restored.getItemCode(row));
+            assertEquals(original.getCostCents(row), restored.getCostCents(row));
+            assertEquals(original.getSalePriceCents(row), restored.getSalePriceCents(row));
+            assertEquals(original.getDiscountUnits(row), restored.getDiscountUnits(row));
+            assertEquals(original.getChecksum(row), restored.getChecksum(row));
+            assertEquals(original.isValid(row), restored.isValid(row));
+        }
+        assertEquals(original.getAggregates().getValidCount(), restored.getAggregates().getValidCount());
+        assertEquals(original.getAggregates().getTotalProfitCents(), restored.getAggregates().getTotalProfitCents());
+
+        // The restored store keeps working like an imported one
+        restored.add("LemonTea", 300.00, 330.00, 0.0, "44");
+        assertEquals(original.getAggregates().getValidCount() + 1, restored.getAggregates().getValidCount());
+    }
+
+    @Test
+    public void testChangedSourceIsNotLoadedFromSnapshot() throws Exception {
+        Path directory = Files.createTempDirectory("tax-snapshot");
+        Path source = directory.resolve("ttf_1002.csv");
+        Files.write(source, Arrays.asList(HEADER, "LemonTea,300.00,330.00,0.0,330.00,44"));
+        SnapshotCache cache = new SnapshotCache(directory.resolve("snapshots"));
+        cache.save(SnapshotCache.keyOf(source), DirectoryImporter.importFile(source).getStore());
+
+        Files.write(source, Arrays.asList("Cake_122,1200.00,1400.00,0.0,1400.00,50"), StandardOpenOption.APPEND);
+
+        assertNull(cache.load(source), "A snapshot of an older version of the file must not be used");
+    }
+
+    @Test
+    public void testDamagedSnapshotIsTreatedAsMissing() throws Exception {
+        Path directory = Files.createTempDirectory("tax-snapshot");
+        Path source = directory.resolve("ttf_1003.csv");
+        Files.write(source, Arrays.asList(HEADER, "LemonTea,300.00,330.00,0.0,330.00,44"));
+        Path snapshots = directory.resolve("snapshots");
+        SnapshotCache cache = new SnapshotCache(snapshots);
+        cache.save(SnapshotCache.keyOf(source), DirectoryImporter.importFile(source).getStore());
+
+        try (Stream<Path> files = Files.list(snapshots)) {
+            Path snapshot = files.findFirst().orElseThrow();
+            byte[] bytes = Files.readAllBytes(snapshot);
+            Files.write(snapshot, Arrays.copyOf(bytes, bytes.length - 5));
+        }
+
+        assertNull(cache.load(source));
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.tax.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TailFileReaderTest {
+
+    private static final String HEADER = "ItemCode,Cost,SalePrice,Discount,DiscountedPrice,Checksum\n";
+
+    @Test
+    public void testRefreshReadsOnlyAppendedLines() throws Exception {
+        Path file = Files.createTempFile("ttf_", ".csv");
+        Files.writeString(file, HEADER + "Cake_122,1200.00,1400.00,0.0,1400.00,50\r\n\n");
+        TailFileReader reader = new TailFileReader(file);
+
+        FileImportResult first = reader.refresh();
+        assertFalse(first.isAppend());
+        assertEquals(1, first.getRowCount());
+        assertEquals(Files.size(file), reader.getOffset());
+
+        Files.writeString(file, "Lemon_3,1500.00,1600.00,20.0,1280.00,61\nBroken,abc,1,1,1,1\n", StandardOpenOption.APPEND);
+        FileImportResult appended = reader.refresh();
+
+        assertTrue(appended.isAppend(), "Lines added to the end should be read on their own");
+        assertEquals(1, appended.getRowCount());
+        assertEquals("Lemon_3", appended.getStore().getItemCode(0));
+        assertEquals(1, appended.getErrors().size());
+        assertTrue(appended.getErrors().get(0).contains("line 5"), "Line numbers should continue from the first read");
+
+        FileImportResult unchanged = reader.refresh();
+        assertTrue(unchanged.isAppend());
+        assertEquals(0, unchanged.getRowCount());
+    }
+
+    @Test
+    public void testRewrittenPrefixIsReadAgainInFull() throws Exception {
+        Path file = Files.createTempFile("ttf_", ".csv");
+        StringBuilder content = new StringBuilder(HEADER);
+        for (int i = 0; i < 500; i++) {
+            content.append("Cake_").append(i).append(",1200.00,1400.00,0.0,1400.00,50\n");
+        }
+        Files.writeString(file, content);
+        TailFileReader reader = new TailFileReader(file);
+        assertEquals(500, reader.refresh().getRowCount());
+
+        // Same length, different first row
+        Files.writeString(file, content.toString().replaceFirst("Cake_0,", "Cake_X,"));
+        FileImportResult rewritten = reader.refresh();
+        assertFalse(rewritten.isAppend(), "A changed prefix should be detected");
+        assertEquals(500, rewritten.getRowCount());
+        assertEquals("Cake_X", rewritten.getStore().getItemCode(0));
+
+        Files.writeString(file, HEADER + "Lemon_3,1500.00,1600.00,20.0,1280.00,61\n");
+        FileImportResult truncated = reader.refresh();
+        assertFalse(truncated.isAppend(), "A shorter file should be read again");
+        assertEquals(1, truncated.getRowCount());
+    }
+
+    @Test
+    public void testUnterminatedLastLineIsReadAgainOnceComplete() throws Exception {
+        Path file = Files.createTempFile("ttf_", ".csv");
+        Files.write(file, (HEADER + "Cake_122,1200.00,1400.00,0.0,1400.00,50\nLemon_3,1500.00,1600.00,20.0,1280.00,6")
+                .getBytes(StandardCharsets.UTF_8));
+        TailFileReader reader = new TailFileReader(file);
+        assertEquals(2, reader.refresh().getRowCount(), "A last line without a newline should still be read");
+
+        Files.writeString(file, "1\n", StandardOpenOption.APPEND);
+        FileImportResult completed = reader.refresh();
+
+        assertFalse(completed.isAppend(), "The extended line must replace the one read before");
+        assertEquals(2, completed.getRowCount());
+        assertEquals("61", completed.getStore().getChecksum(1));
+    }
+}
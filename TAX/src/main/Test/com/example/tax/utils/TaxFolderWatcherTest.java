@@ -0,0 +1,56 @@
+package com.example.tax.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaxFolderWatcherTest {
+
+    private static final String HEADER = "ItemCode,Cost,SalePrice,Discount,DiscountedPrice,Checksum";
+
+    @Test
+    public void testNewAndChangedFilesAreImported() throws Exception {
+        Path directory = Files.createTempDirectory("tax-watch");
+        Files.write(directory.resolve("ttf_1001.csv"), Arrays.asList(
+                HEADER,
+                "Cake_122,1200.00,1400.00,0.0,1400.00,50"));
+        List<FileImportResult> loaded = DirectoryImporter.importDirectory(directory, 1);
+
+        BlockingQueue<List<FileImportResult>> batches = new LinkedBlockingQueue<>();
+        try (TaxFolderWatcher watcher = new TaxFolderWatcher(directory, loaded, batches::add, Runnable::run)) {
+            watcher.start();
+
+            Files.write(directory.resolve("ttf_1002.csv"), Arrays.asList(
+                    HEADER,
+                    "LemonTea,300.00,330.00,0.0,330.00,44",
+                    "Lemon_3,1500.00,1600.00,20.0,1280.00,61"));
+            List<FileImportResult> added = batches.poll(5, TimeUnit.SECONDS);
+            assertNotNull(added, "A new tax file should be imported");
+            assertEquals(1, added.size(), "Files that did not change should not be read again");
+            assertEquals("ttf_1002.csv", added.get(0).getFile().getFileName().toString());
+            assertEquals(2, added.get(0).getRowCount());
+
+            Files.write(directory.resolve("ttf_1001.csv"), Arrays.asList(
+                    HEADER,
+                    "Cake_122,1200.00,1400.00,0.0,1400.00,50",
+                    "Cake_123,1200.00,1500.00,0.0,1500.00,51"));
+            List<FileImportResult> changed = batches.poll(5, TimeUnit.SECONDS);
+            assertNotNull(changed, "A changed tax file should be read again");
+            assertEquals("ttf_1001.csv", changed.get(0).getFile().getFileName().toString());
+            assertTrue(changed.get(0).isAppend(), "Only the added line should be read");
+            assertEquals(1, changed.get(0).getRowCount());
+
+            // Not a tax file, must be ignored
+            Files.write(directory.resolve("bills.csv"), Arrays.asList(HEADER, "X,1,1,1,1,1"));
+            assertNull(batches.poll(TaxFolderWatcher.MAX_DELAY_MILLIS * 2, TimeUnit.MILLISECONDS));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.tax.utils;
+
+import com.example.tax.models.TransactionStore;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionExporterTest {
+
+    @Test
+    public void testExportedRowsImportBackUnchanged() throws Exception {
+        TransactionStore store = new TransactionStore();
+        store.add("Cake_122", 1200.00, 1400.00, 0.0, "50");
+        store.add("Lemon_3", 1500.00, 1600.00, 12.375, "1");
+        store.add("Refund_1", -20.05, 0.99, 5.5, "1");
+        Path file = Files.createTempDirectory("tax-export").resolve("ttf_cleaned.csv");
+
+        assertEquals(3, TransactionExporter.export(store, file));
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(TransactionExporter.HEADER.trim(), lines.get(0));
+        String line = ChecksumUtil.formatTransactionLine("Cake_122", 1200.00, 1400.00, 0.0, 1400.00);
+        assertEquals(line + "," + ChecksumUtil.calculateChecksum(line), lines.get(1));
+        assertTrue(lines.get(2).startsWith("Lemon_3,1500.00,1600.00,12.375,"), "The discount should keep its decimals");
+        assertTrue(lines.get(3).startsWith("Refund_1,-20.05,0.99,5.5,"));
+
+        FileImportResult imported = DirectoryImporter.importFile(file);
+        assertFalse(imported.hasErrors());
+        TransactionStore read = imported.getStore();
+        for (int row = 0; row < store.size(); row++) {
+            assertEquals(store.getItemCode(row), read.getItemCode(row));
+            assertEquals(store.getCostCents(row), read.getCostCents(row));
+            assertEquals(store.getSalePriceCents(row), read.getSalePriceCents(row));
+            assertEquals(store.getDiscountUnits(row), read.getDiscountUnits(row));
+        }
+        assertTrue(read.isValid(1), "A wrong checksum should be regenerated");
+        assertFalse(read.isValid(2), "Other rules still apply to a negative cost");
+    }
+
+    @Test
+    public void testExportWritesRowsInTheGivenOrder() throws Exception {
+        TransactionStore store = new TransactionStore();
+        store.add("ITEM1", 1.00, 2.00, 0.0, "0");
+        store.add("ITEM2", 1.00, 2.00, 0.0, "0");
+        store.add("ITEM3", 1.00, 2.00, 0.0, "0");
+        Path file = Files.createTempDirectory("tax-export").resolve("ttf_cleaned.csv");
+        Files.writeString(file, "old contents");
+
+        assertEquals(2, TransactionExporter.export(store, new int[] {2, 0}, file));
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(3, lines.size(), "An existing file should be replaced");
+        assertTrue(lines.get(1).startsWith("ITEM3,"));
+        assertTrue(lines.get(2).startsWith("ITEM1,"));
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.tax.utils;
+
+import com.example.tax.models.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionFileReaderTest {
+
+    @Test
+    public void testReadStreamsEveryRow() throws Exception {
+        Path tempFile = Files.createTempFile("test-transactions", ".csv");
+        Files.write(tempFile, Arrays.asList(
+                "ItemCode,Cost,SalePrice,Discount,DiscountedPrice,Checksum",
+                "ITEM123,100.00,150.00,10.0,135.00,52",
+                "",
+                "Cake_122,1200.00,1400.00,0.0,1400.00,50"
+        ));
+
+        List<Transaction> transactions = new ArrayList<>();
+        // Use a tiny chunk size so lines straddle buffer boundaries
+        int count = TransactionFileReader.read(tempFile, 8, transactions::add);
+
+        assertEquals(2, count, "Blank lines and the header should be skipped");
+        assertEquals("ITEM123", transactions.get(0).getItemCode());
+        assertEquals(150.00, transactions.get(0).getSalePrice(), 0.001);
+        assertEquals("50", transactions.get(1).getChecksum());
+
+        Files.deleteIfExists(tempFile);
+    }
+
+    @Test
+    public void testParseLineRejectsMissingColumns() {
+        TransactionFormatException e = assertThrows(TransactionFormatException.class,
+                () -> TransactionFileReader.parseLine("ITEM123,100.00,150.00,10.0,135.00,", 3));
+
+        assertEquals(3, e.getLineNumber());
+        assertTrue(e.getMessage().contains("found 5"), "Trailing empty columns should not be counted");
+    }
+
+    @Test
+    public void testParseLineRejectsBadNumbers() {
+        assertThrows(TransactionFormatException.class,
+                () -> TransactionFileReader.parseLine("ITEM123,abc,150.00,10.0,135.00,52", 2));
+    }
+
+    @Test
+    public void testParseLineRejectsNumbersThatCannotBeStored() throws Exception {
+        for (String line : new String[]{
+                "ITEM123,NaN,150.00,10.0,135.00,52",
+                "ITEM123,100.00,Infinity,10.0,135.00,52",
+                "ITEM123,1e20,150.00,10.0,135.00,52",
+                "ITEM123,100.00,150.00,-1e5,135.00,52"}) {
+            TransactionFormatException e = assertThrows(TransactionFormatException.class,
+                    () -> TransactionFileReader.parseLine(line, 4));
+            assertEquals(4, e.getLineNumber());
+        }
+
+        Path tempFile = Files.createTempFile("test-transactions", ".csv");
+        Files.write(tempFile, Arrays.asList(
+                "ItemCode,Cost,SalePrice,Discount,DiscountedPrice,Checksum",
+                "ITEM123,100.00,150.00,10.0,135.00,52",
+                "ITEM124,NaN,150.00,10.0,135.00,52",
+                "Cake_122,1200.00,1400.00,0.0,1400.00,50"));
+        List<TransactionFormatException> errors = new ArrayList<>();
+        List<Transaction> transactions = new ArrayList<>();
+
+        TransactionFileReader.read(tempFile, 8, transactions::add, errors);
+
+        assertEquals(2, transactions.size(), "The row is skipped like any other bad line");
+        assertEquals(1, errors.size());
+        assertEquals(3, errors.get(0).getLineNumber());
+        Files.deleteIfExists(tempFile);
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.tax;
+
+import com.example.tax.models.TaxEngine;
+import com.example.tax.models.TaxSchedule;
+import com.example.tax.models.TransactionAggregates;
+import com.example.tax.utils.DirectoryImporter;
+import com.example.tax.utils.FileImportResult;
+import com.example.tax.utils.JsonUtil;
+import com.example.tax.utils.MetricsLog;
+import com.example.tax.utils.MoneyUtil;
+import com.example.tax.utils.OperationMetrics;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Headless entry point for batch validation of Tax Transaction Files.
+ * Imports and validates one or more files or folders, computes the total profit and tax,
+ * prints a JSON summary to standard output and exits. Only the models and utils packages
+ * are used, so the JavaFX toolkit and FXML are never loaded.
+ *
+ * <pre>
+ * java -cp TAX.jar com.example.tax.BatchMain [--tax-rate PERCENT] [--tax-schedule SCHEDULES] [--threads N] [--skip-duplicates] [--metrics FILE] FILE_OR_FOLDER...
+ * </pre>
+ *
+ * With --tax-schedule, the tax of each schedule (see TaxSchedule, several separated by semicolons)
+ * is calculated from the profit of all files together and listed under taxSchedules.
+ *
+ * With --skip-duplicates, rows that an earlier file already had are dropped before anything is counted,
+ * so a sale that is both in its bill's file and in ttf_all_bills.csv is counted once.
+ * With --metrics, the stage timings, bytes, throughput and allocations of each file and of the whole
+ * run are written to the given file as JSON; see MetricsLog.
+ *
+ * Exit codes: 0 if every record is valid, 1 if any record is invalid or any line is malformed,
+ * 2 for bad arguments or unreadable inputs.
+ */
+public class BatchMain {
+    public static final int EXIT_OK = 0;
+    public static final int EXIT_INVALID_RECORDS = 1;
+    public static final int EXIT_USAGE = 2;
+
+    private static final String USAGE =
+            "Usage: BatchMain [--tax-rate PERCENT] [--tax-schedule SCHEDULES] [--threads N] [--skip-duplicates] [--metrics FILE] FILE_OR_FOLDER...";
+
+    /**
+     * Runs the batch validation and exits with its status code.
+     *
+     * @param args Command line arguments
+     */
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * Runs the batch validation.
+     *
+     * @param args Command line arguments
+     * @param out Receives the JSON summary
+     * @param err Receives usage and per-line error messages
+     * @return The exit code
+     */
+    public static int run(String[] args, PrintStream out, PrintStream err) {
+        Double taxRate = null;
+        List<TaxSchedule> schedules = new ArrayList<>();
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean skipDuplicates = false;
+        Path metricsFile = null;
+        List<Path> inputs = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--tax-rate" -> taxRate = Double.parseDouble(requireValue(args, ++i));
+                    case "--tax-schedule" -> schedules.addAll(TaxSchedule.parseAll(requireValue(args, ++i)));
+                    case "--threads" -> threads = Integer.parseInt(requireValue(args, ++i));
+                    case "--skip-duplicates" -> skipDuplicates = true;
+                    case "--metrics" -> metricsFile = Paths.get(requireValue(args, ++i));
+                    case "-h", "--help" -> {
+                        out.println(USAGE);
+                        return EXIT_OK;
+                    }
+                    default -> inputs.add(Paths.get(args[i]));
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            err.println("Invalid argument: " + e.getMessage());
+            err.println(USAGE);
+            return EXIT_USAGE;
+        }
+        if (inputs.isEmpty()) {
+            err.println(USAGE);
+            return EXIT_USAGE;
+        }
+
+        OperationMetrics metrics = new OperationMetrics("Batch validation");
+        List<FileImportResult> results;
+        try {
+            results = DirectoryImporter.importFiles(collectFiles(inputs), threads, null);
+            for (FileImportResult result : results) {
+                metrics.add(result.getMetrics());
+            }
+            if (skipDuplicates) {
+                long start = System.nanoTime();
+                metrics.addRows(-DirectoryImporter.removeDuplicates(results));
+                metrics.addStageNanos(OperationMetrics.Stage.DEDUPLICATE, System.nanoTime() - start);
+            }
+        } catch (IOException e) {
+            err.println("Error reading input: " + e.getMessage());
+            return EXIT_USAGE;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            err.println("Interrupted");
+            return EXIT_USAGE;
+        }
+
+        boolean clean = true;
+        for (FileImportResult result : results) {
+            for (String error : result.getErrors()) {
+                err.println(result.getFile().getFileName() + ": " + error);
+            }
+            if (result.hasErrors() || result.getStore().getAggregates().getInvalidCount() > 0) {
+                clean = false;
+            }
+        }
+
+        out.println(toJson(results, taxRate, schedules));
+        if (metricsFile != null) {
+            MetricsLog log = new MetricsLog(results.size() + 1);
+            for (FileImportResult result : results) {
+                log.record(result.getMetrics());
+            }
+            log.record(metrics);
+            try {
+                log.writeJson(metricsFile);
+            } catch (IOException e) {
+                err.println("Error writing metrics: " + e.getMessage());
+                return EXIT_USAGE;
+            }
+        }
+        return clean ? EXIT_OK : EXIT_INVALID_RECORDS;
+    }
+
+    /**
+     * Expands folders into their tax files and checks that plain files exist.
+     */
+    private static List<Path> collectFiles(List<Path> inputs) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (Path input : inputs) {
+            if (Files.isDirectory(input)) {
+                files.addAll(DirectoryImporter.listTaxFiles(input));
+            } else if (Files.isRegularFile(input)) {
+                files.add(input);
+            } else {
+                throw new IOException("No such file or folder: " + input);
+            }
+        }
+        return files;
+    }
+
+    private static String requireValue(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException(args[index - 1] + " requires a value");
+        }
+        return args[index];
+    }
+
+    /**
+     * Builds the summary: one entry per file, then the totals over all files.
+     * The tax fields are only present when a tax rate or schedules were given.
+     * duplicatesRemoved counts the rows dropped by --skip-duplicates and is 0 without it.
+     */
+    static String toJson(List<FileImportResult> results, Double taxRate, List<TaxSchedule> schedules) {
+        StringBuilder json = new StringBuilder("{\"files\":[");
+        int totalRecords = 0;
+        int totalValid = 0;
+        int totalErrors = 0;
+        int totalDuplicates = 0;
+        long totalProfitCents = 0;
+        for (int i = 0; i < results.size(); i++) {
+            FileImportResult result = results.get(i);
+            TransactionAggregates aggregates = result.getStore().getAggregates();
+            if (i > 0) json.append(',');
+            json.append("{\"file\":").append(JsonUtil.quote(result.getFile().toString()))
+                    .append(",\"records\":").append(aggregates.getTotalCount())
+                    .append(",\"valid\":").append(aggregates.getValidCount())
+                    .append(",\"invalid\":").append(aggregates.getInvalidCount())
+                    .append(",\"errors\":").append(result.getErrors().size())
+                    .append(",\"totalProfit\":").append(MoneyUtil.format(aggregates.getTotalProfitCents()))
+                    .append(",\"elapsedMillis\":").append(result.getElapsedNanos() / 1_000_000)
+                    .append(",\"duplicatesRemoved\":").append(result.getDuplicatesRemoved())
+                    .append('}');
+            totalRecords += aggregates.getTotalCount();
+            totalProfitCents += aggregates.getTotalProfitCents();
+            totalValid += aggregates.getValidCount();
+            totalErrors += result.getErrors().size();
+            totalDuplicates += result.getDuplicatesRemoved();
+        }
+
+        json.append("],\"records\":").append(totalRecords)
+                .append(",\"valid\":").append(totalValid)
+                .append(",\"invalid\":").append(totalRecords - totalValid)
+                .append(",\"errors\":").append(totalErrors)
+                .append(",\"totalProfit\":").append(MoneyUtil.format(totalProfitCents))
+                .append(",\"duplicatesRemoved\":").append(totalDuplicates);
+        if (taxRate != null) {
+            json.append(",\"taxRate\":").append(taxRate)
+                    .append(",\"tax\":").append(MoneyUtil.format(MoneyUtil.percentOf(totalProfitCents, taxRate)));
+        }
+        if (!schedules.isEmpty()) {
+            TaxEngine engine = new TaxEngine();
+            for (FileImportResult result : results) {
+                engine.add(result.getStore());
+            }
+            json.append(",\"taxSchedules\":[");
+            List<TaxEngine.Result> taxes = engine.sweep(schedules);
+            for (int i = 0; i < taxes.size(); i++) {
+                if (i > 0) json.append(',');
+                json.append("{\"schedule\":").append(JsonUtil.quote(taxes.get(i).getSchedule().getName()))
+                        .append(",\"tax\":").append(MoneyUtil.format(taxes.get(i).getTaxCents()))
+                        .append(",\"effectiveRate\":").append(String.format(Locale.ROOT, "%.2f", taxes.get(i).getEffectiveRate()))
+                        .append('}');
+            }
+            json.append(']');
+        }
+        return json.append('}').toString();
+    }
+}
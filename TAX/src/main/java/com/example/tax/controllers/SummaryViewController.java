@@ -0,0 +1,164 @@
+package com.example.tax.controllers;
+
+import com.example.tax.models.GroupAggregator;
+import com.example.tax.models.GroupTotals;
+import com.example.tax.utils.AlertUtils;
+import com.example.tax.utils.MetricsLog;
+import com.example.tax.utils.MoneyUtil;
+import com.example.tax.utils.OperationMetrics;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.beans.property.SimpleLongProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.concurrent.Task;
+import javafx.fxml.FXML;
+import javafx.scene.control.Button;
+import javafx.scene.control.ChoiceBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.stage.Stage;
+
+import java.util.List;
+
+/**
+ * Controller for the summary view.
+ * Shows the record count, revenue, cost, profit and average discount of each item code or
+ * item family, computed by GroupAggregator on a background thread so the view stays responsive
+ * while millions of records are totalled.
+ */
+public class SummaryViewController {
+    @FXML
+    private ChoiceBox<String> groupByChoice;
+    @FXML
+    private TableView<GroupTotals> groupTable;
+    @FXML
+    private TableColumn<GroupTotals, String> groupColumn;
+    @FXML
+    private TableColumn<GroupTotals, Number> countColumn;
+    @FXML
+    private TableColumn<GroupTotals, Number> invalidColumn;
+    @FXML
+    private TableColumn<GroupTotals, Number> revenueColumn;
+    @FXML
+    private TableColumn<GroupTotals, Number> costColumn;
+    @FXML
+    private TableColumn<GroupTotals, Number> profitColumn;
+    @FXML
+    private TableColumn<GroupTotals, Number> discountColumn;
+    @FXML
+    private Label summaryStatusLabel;
+    @FXML
+    private Button closeButton;
+
+    private Task<GroupAggregator.Result> aggregateTask;
+    private GroupAggregator.Result result;
+
+    /**
+     * Initializes the controller.
+     * Sets up the group choice and the table columns.
+     */
+    @FXML
+    private void initialize() {
+        // Entries in the order showGroups() expects
+        groupByChoice.getItems().setAll("By Item Code", "By Family");
+        groupByChoice.getSelectionModel().selectFirst();
+        groupByChoice.getSelectionModel().selectedIndexProperty().addListener((observable, oldValue, newValue) -> showGroups());
+
+        groupColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getKey()));
+        countColumn.setCellValueFactory(cellData -> new SimpleLongProperty(cellData.getValue().getCount()));
+        invalidColumn.setCellValueFactory(cellData -> new SimpleLongProperty(cellData.getValue().getInvalidCount()));
+        revenueColumn.setCellValueFactory(cellData -> new SimpleDoubleProperty(cellData.getValue().getRevenue()));
+        costColumn.setCellValueFactory(cellData -> new SimpleDoubleProperty(cellData.getValue().getCost()));
+        profitColumn.setCellValueFactory(cellData -> new SimpleDoubleProperty(cellData.getValue().getProfit()));
+
+        // Show the average discount as a percentage
+        discountColumn.setCellValueFactory(cellData -> new SimpleDoubleProperty(cellData.getValue().getAverageDiscount()));
+        discountColumn.setCellFactory(column -> new TableCell<GroupTotals, Number>() {
+            @Override
+            protected void updateItem(Number value, boolean empty) {
+                super.updateItem(value, empty);
+                if (empty || value == null) {
+                    setText(null);
+                } else {
+                    setText(String.format("%.2f%%", value.doubleValue()));
+                }
+            }
+        });
+    }
+
+    /**
+     * Totals the captured records on a background thread and shows the groups when done.
+     *
+     * @param aggregator The records to total, captured from the transaction store
+     */
+    public void summarize(GroupAggregator aggregator) {
+        OperationMetrics metrics = new OperationMetrics("Summarize by item code and family");
+        Task<GroupAggregator.Result> task = new Task<>() {
+            @Override
+            protected GroupAggregator.Result call() {
+                long allocatedBefore = OperationMetrics.threadAllocatedBytes();
+                long start = System.nanoTime();
+                GroupAggregator.Result groups = aggregator.aggregate();
+                metrics.addStageNanos(OperationMetrics.Stage.AGGREGATE, System.nanoTime() - start);
+                metrics.addAllocatedBytes(OperationMetrics.threadAllocatedBytes() - allocatedBefore);
+                metrics.addRows(groups.getRows());
+                return groups;
+            }
+        };
+        task.setOnSucceeded(event -> {
+            aggregateTask = null;
+            result = task.getValue();
+            long start = System.nanoTime();
+            showGroups();
+            metrics.addStageNanos(OperationMetrics.Stage.TABLE, System.nanoTime() - start);
+            MetricsLog.shared().record(metrics);
+        });
+        task.setOnFailed(event -> {
+            aggregateTask = null;
+            summaryStatusLabel.setText("Summary failed");
+            AlertUtils.showError("Summary Error", "Failed to summarize transactions", task.getException().getMessage());
+            task.getException().printStackTrace();
+        });
+        aggregateTask = task;
+        summaryStatusLabel.setText(String.format("Summarizing %,d records...", aggregator.size()));
+
+        Thread thread = new Thread(task, "transaction-summary");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Shows the groups chosen in the group choice.
+     */
+    private void showGroups() {
+        if (result == null) {
+            return;
+        }
+        boolean byFamily = groupByChoice.getSelectionModel().getSelectedIndex() == 1;
+        List<GroupTotals> groups = byFamily ? result.getByFamily() : result.getByItemCode();
+        groupColumn.setText(byFamily ? "Family" : "Item Code");
+        groupTable.getSortOrder().clear();
+        groupTable.getItems().setAll(groups);
+
+        long profitCents = 0;
+        for (GroupTotals group : groups) {
+            profitCents += group.getProfitCents();
+        }
+        summaryStatusLabel.setText(String.format("%,d %s over %,d records, total profit LKR %s", groups.size(),
+                byFamily ? "families" : "item codes", result.getRows(), MoneyUtil.format(profitCents)));
+    }
+
+    /**
+     * Closes the summary window, stopping a summary that is still running.
+     */
+    @FXML
+    private void closeOnClick() {
+        if (aggregateTask != null) {
+            aggregateTask.cancel();
+            aggregateTask = null;
+        }
+        Stage stage = (Stage) closeButton.getScene().getWindow();
+        stage.close();
+    }
+}
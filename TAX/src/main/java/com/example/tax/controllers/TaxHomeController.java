@@ -1,35 +1,69 @@
 package com.example.tax.controllers;
 
-import com.example.tax.models.Transaction;
+import com.example.tax.models.TransactionStore;
 import com.example.tax.utils.AlertUtils;
+import com.example.tax.utils.FileImportResult;
+import com.example.tax.utils.MetricsLog;
+import com.example.tax.utils.OperationMetrics;
+import com.example.tax.utils.SnapshotCache;
+import com.example.tax.utils.TransactionImportTask;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.control.TextArea;
 import javafx.scene.image.ImageView;
+import javafx.stage.DirectoryChooser;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * Controller for the home view of the Tax Department System.
- * Handles importing transaction files and navigating to the transaction view.
+ * Handles importing transaction files or whole folders and navigating to the transaction view.
+ * An imported folder can also be watched, so files the POS writes later are added as they appear.
+ * The metrics panel lists the stage timings of the recent imports and bulk operations.
  */
 public class TaxHomeController {
     @FXML
     private Button importButton;
     @FXML
+    private Button importFolderButton;
+    @FXML
     private ImageView lavenderImageView;
+    @FXML
+    private Button cancelImportButton;
+    @FXML
+    private ProgressBar importProgressBar;
+    @FXML
+    private Label importStatusLabel;
+    @FXML
+    private CheckBox watchFolderCheckBox;
+    @FXML
+    private CheckBox skipDuplicatesCheckBox;
+    @FXML
+    private TextArea metricsArea;
 
-    private List<Transaction> transactions = new ArrayList<>();
+    private TransactionStore store = new TransactionStore();
+    private TransactionImportTask importTask;
+    private TransactionViewController transactionView;
+    private Path watchDirectory;
+    private final SnapshotCache snapshots = SnapshotCache.inUserHome();
 
     /**
      * Handles the import button click.
-     * Opens a file chooser dialog and imports the selected file.
+     * Opens a file chooser dialog and imports the selected file in the background.
+     * The transaction view opens as soon as the first page of rows is parsed,
+     * and the remaining pages are appended while the rest of the file loads.
+     * A file that has not changed since it was last imported is reopened from its snapshot instead.
      */
     @FXML
     private void handleImportFiles() {
@@ -43,85 +77,241 @@ public class TaxHomeController {
         File selectedFile = fileChooser.showOpenDialog(importButton.getScene().getWindow());
 
         if (selectedFile != null) {
-            importTransactionFile(selectedFile);
-            if (!transactions.isEmpty()) {
-                showTransactionView();
+            Path file = selectedFile.toPath();
+            watchDirectory = null;
+            OperationMetrics metrics = new OperationMetrics("Open snapshot of " + file.getFileName());
+            long start = System.nanoTime();
+            TransactionStore snapshot = snapshots.load(file);
+            if (snapshot != null) {
+                // Already parsed and validated, so the rows can be shown straight away
+                metrics.addStageNanos(OperationMetrics.Stage.READ, System.nanoTime() - start);
+                metrics.addRows(snapshot.size());
+                store = snapshot;
+                showTransactionView(metrics);
+                MetricsLog.shared().record(metrics);
+                return;
             }
+            TransactionImportTask task = TransactionImportTask.forFile(file);
+            task.setOnPageLoaded(this::handlePageLoaded);
+            task.setSnapshotCache(snapshots);
+            startImport(task, "file");
+        }
+    }
+
+    /**
+     * Handles the import folder button click.
+     * Opens a directory chooser and imports every tax file in the selected folder in parallel.
+     * With "Watch folder" ticked, the transaction view keeps adding the files that appear in the folder afterwards.
+     * With "Skip duplicates" ticked, rows that an earlier file already had, such as a bill's sales repeated
+     * in ttf_all_bills.csv, are imported once, including rows that watched files add later.
+     */
+    @FXML
+    private void handleImportFolder() {
+        DirectoryChooser directoryChooser = new DirectoryChooser();
+        directoryChooser.setTitle("Select Tax Files Folder");
+
+        File selectedDirectory = directoryChooser.showDialog(importFolderButton.getScene().getWindow());
+
+        if (selectedDirectory != null) {
+            watchDirectory = watchFolderCheckBox.isSelected() ? selectedDirectory.toPath() : null;
+            TransactionImportTask task = TransactionImportTask.forDirectory(selectedDirectory.toPath());
+            task.setRemoveDuplicates(skipDuplicatesCheckBox.isSelected());
+            startImport(task, "folder");
         }
     }
 
     /**
-     * Imports transactions from a CSV file.
-     * Parses each line and creates Transaction objects.
+     * Handles the cancel button click by cancelling the running import.
+     */
+    @FXML
+    private void handleCancelImport() {
+        if (importTask != null) {
+            importTask.cancel(true);
+        }
+    }
+
+    /**
+     * Runs an import task on a background thread, binding its progress to the home view.
+     * Unless the task delivers pages, the transaction view is only shown once the task has completed.
      *
-     * @param file The CSV file to import
+     * @param task The import task to run
+     * @param sourceKind "file" or "folder", used in error messages
      */
-    private void importTransactionFile(File file) {
-        try {
-            List<String> lines = Files.readAllLines(file.toPath());
-            transactions.clear();
-
-            // Skip header
-            for (int i = 1; i < lines.size(); i++) {
-                String line = lines.get(i).trim();
-                if (line.isEmpty()) continue;
-
-                String[] data = line.split(",");
-
-                // Make sure we have enough columns (ItemCode,Cost,SalePrice,Discount,DiscountedPrice,Checksum)
-                if (data.length >= 6) {
-                    try {
-                        Transaction transaction = new Transaction(
-                                data[0].trim(), // itemCode
-                                Double.parseDouble(data[1].trim()), // cost
-                                Double.parseDouble(data[2].trim()), // salePrice
-                                Double.parseDouble(data[3].trim()), // discount
-                                data[5].trim() // checksum at index 5
-                        );
-                        transactions.add(transaction);
-                    } catch (NumberFormatException e) {
-                        AlertUtils.showError("Import Error", "Failed to process file", "Invalid number format in line " + (i + 1) + ": " + e.getMessage());
-                        e.printStackTrace();
-                        return;
-                    } catch (Exception e) {
-                        AlertUtils.showError("Import Error", "Failed to process file", "Error processing line " + (i + 1) + ": " + e.getMessage());
-                        e.printStackTrace();
-                        return;
-                    }
-                } else {
-                    AlertUtils.showError("Import Error", "Failed to process file", "Invalid data format in line " + (i + 1) + ". Expected at least 6 columns, but found " + data.length);
-                    return;
+    private void startImport(TransactionImportTask task, String sourceKind) {
+        importTask = task;
+        setImportRunning(true);
+        importProgressBar.progressProperty().bind(task.progressProperty());
+        importStatusLabel.textProperty().bind(task.messageProperty());
+
+        task.setOnSucceeded(event -> {
+            finishImport();
+            handleImportResult(task, sourceKind);
+            MetricsLog.shared().record(task.getMetrics());
+        });
+        task.setOnFailed(event -> {
+            finishImport();
+            finishLoading();
+            Throwable e = task.getException();
+            String message = e instanceof IOException
+                    ? "Error reading " + sourceKind + ": " + e.getMessage()
+                    : "Unexpected error: " + e.getMessage();
+            AlertUtils.showError("Import Error", "Failed to process " + sourceKind, message);
+            e.printStackTrace();
+        });
+        task.setOnCancelled(event -> {
+            finishImport();
+            finishLoading();
+            importStatusLabel.setText("Import cancelled");
+        });
+
+        Thread thread = new Thread(task, "transaction-import");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Reports problems found by a completed import and opens the transaction view if any rows were read.
+     * A malformed line stops a single-file import; the rows before it are still shown.
+     * A folder import skips bad lines and lists the affected files in a warning.
+     */
+    private void handleImportResult(TransactionImportTask task, String sourceKind) {
+        if (task.getFormatError() != null) {
+            AlertUtils.showError("Import Error", "Failed to process file", task.getFormatError().getMessage());
+        }
+        if (transactionView != null) {
+            // The rows have already been shown page by page; the table holds the only copy of them
+            task.saveSnapshot(transactionView.getLoadedStore());
+            finishLoading();
+            return;
+        }
+        store = task.getValue();
+
+        List<FileImportResult> results = task.getFileResults();
+        StringBuilder report = new StringBuilder();
+        for (FileImportResult result : results) {
+            if (result.hasErrors()) {
+                report.append(result.getSummary()).append('\n');
+                for (String error : result.getErrors()) {
+                    report.append("  ").append(error).append('\n');
                 }
             }
+        }
+        if (!report.isEmpty()) {
+            AlertUtils.showWarning("Import Warning", "Some files had errors", report.toString());
+        }
+        StringBuilder duplicates = new StringBuilder();
+        for (FileImportResult result : results) {
+            if (result.getDuplicatesRemoved() > 0) {
+                duplicates.append(result.getSummary()).append('\n');
+            }
+        }
+        if (!duplicates.isEmpty()) {
+            AlertUtils.showInformation("Import", "Duplicate rows were skipped", duplicates.toString());
+        }
 
-            if (transactions.isEmpty()) {
-                AlertUtils.showError("Import Error", "Failed to process file", "No valid transactions found in the file");
+        if (store.size() == 0 && watchDirectory == null) {
+            String detail = sourceKind.equals("folder") && results.isEmpty()
+                    ? "No tax transaction files found in the folder"
+                    : "No valid transactions found in the " + sourceKind;
+            AlertUtils.showError("Import Error", "Failed to process " + sourceKind, detail);
+            return;
+        }
+        TransactionViewController controller = showTransactionView(task.getMetrics());
+        if (controller != null && watchDirectory != null) {
+            controller.watchFolder(watchDirectory, results, task.getDeduplicator());
+        }
+    }
+
+    /**
+     * Shows a page of rows from a file that is still loading, opening the transaction view for the first page.
+     */
+    private void handlePageLoaded(TransactionStore page) {
+        if (importTask == null || importTask.isCancelled()) {
+            return;
+        }
+        OperationMetrics metrics = importTask.getMetrics();
+        if (transactionView == null) {
+            store = new TransactionStore(page.size());
+            transactionView = showTransactionView(metrics);
+            if (transactionView == null) {
+                handleCancelImport();
                 return;
             }
+            transactionView.setLoadingTask(importTask);
+        }
+        long start = System.nanoTime();
+        transactionView.appendRows(page);
+        metrics.addStageNanos(OperationMetrics.Stage.TABLE, System.nanoTime() - start);
+    }
 
-        } catch (IOException e) {
-            AlertUtils.showError("Import Error", "Failed to process file", "Error reading file: " + e.getMessage());
-            e.printStackTrace();
+    /**
+     * Shows or hides the metrics panel, listing the most recent operations first.
+     */
+    @FXML
+    private void handleShowMetrics() {
+        if (metricsArea.isVisible()) {
+            metricsArea.setVisible(false);
+            lavenderImageView.setVisible(true);
+            return;
         }
+        List<OperationMetrics> entries = new ArrayList<>(MetricsLog.shared().getEntries());
+        Collections.reverse(entries);
+        StringBuilder text = new StringBuilder();
+        for (OperationMetrics metrics : entries) {
+            text.append(metrics.getSummary()).append("\n\n");
+        }
+        metricsArea.setText(entries.isEmpty() ? "Nothing imported yet." : text.toString().trim());
+        metricsArea.setVisible(true);
+        lavenderImageView.setVisible(false);
+    }
+
+    private void finishLoading() {
+        if (transactionView != null) {
+            transactionView.finishLoading();
+            transactionView = null;
+        }
+    }
+
+    private void finishImport() {
+        importProgressBar.progressProperty().unbind();
+        importStatusLabel.textProperty().unbind();
+        importTask = null;
+        setImportRunning(false);
+    }
+
+    private void setImportRunning(boolean running) {
+        importButton.setDisable(running);
+        importFolderButton.setDisable(running);
+        watchFolderCheckBox.setDisable(running);
+        skipDuplicatesCheckBox.setDisable(running);
+        cancelImportButton.setVisible(running);
+        importProgressBar.setVisible(running);
+        importStatusLabel.setVisible(true);
     }
 
     /**
      * Shows the transaction view with the imported transactions.
      * Navigates to the transaction-view.fxml scene.
+     *
+     * @param metrics Receives the time taken to put the rows into the table
+     * @return The controller of the transaction view, or null if it could not be shown
      */
-    private void showTransactionView() {
+    private TransactionViewController showTransactionView(OperationMetrics metrics) {
         try {
             FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("/com/example/tax/fxml/transaction-view.fxml"));
             Scene scene = new Scene(fxmlLoader.load());
 
             TransactionViewController controller = fxmlLoader.getController();
             if (controller != null) {
-                controller.setTransactions(transactions);
+                long start = System.nanoTime();
+                controller.setStore(store);
                 controller.initializeColumns();
+                metrics.addStageNanos(OperationMetrics.Stage.TABLE, System.nanoTime() - start);
 
                 Stage stage = (Stage) importButton.getScene().getWindow();
                 stage.setScene(scene);
                 stage.show();
+                return controller;
             } else {
                 AlertUtils.showError("Import Error", "Failed to process file", "Failed to initialize transaction view controller");
             }
@@ -133,6 +323,7 @@ public class TaxHomeController {
             AlertUtils.showError("Import Error", "Failed to process file", "Unexpected error: " + e.getMessage());
             e.printStackTrace();
         }
+        return null;
     }
 
 }
@@ -1,25 +1,56 @@
 package com.example.tax.controllers;
 
+import com.example.tax.events.BulkDeleteEvent;
+import com.example.tax.events.TaxCalculationEvent;
+import com.example.tax.models.GroupAggregator;
+import com.example.tax.models.RowDeduplicator;
+import com.example.tax.models.TaxEngine;
+import com.example.tax.models.TaxSchedule;
 import com.example.tax.models.Transaction;
+import com.example.tax.models.TransactionAggregates;
+import com.example.tax.models.TransactionSorter;
+import com.example.tax.models.TransactionStore;
+import com.example.tax.models.TransactionStoreList;
 import com.example.tax.utils.AlertUtils;
-import javafx.collections.FXCollections;
+import com.example.tax.utils.DirectoryImporter;
+import com.example.tax.utils.FileImportResult;
+import com.example.tax.utils.MetricsLog;
+import com.example.tax.utils.MoneyUtil;
+import com.example.tax.utils.OperationMetrics;
+import com.example.tax.utils.TaxFolderWatcher;
+import com.example.tax.utils.TransactionExporter;
+import javafx.application.Platform;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.SimpleDoubleProperty;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import javafx.scene.paint.Color;
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
 
 /**
  * Controller for the transaction view.
  * Displays transactions in a table and provides functionality for editing, deleting,
  * and calculating tax based on transaction profits.
+ * Sorts, bulk deletes, exports and watched-folder merges are timed and recorded in the shared MetricsLog.
  */
 public class TransactionViewController {
+    private static final int MAX_REPORTED_DUPLICATES = 50;
+    private static final String NATURAL_ORDER = orderKey(null, true, TransactionSorter.Filter.ALL);
+
     @FXML
     private TableView<Transaction> transactionTable;
     @FXML
@@ -41,6 +72,10 @@ public class TransactionViewController {
     @FXML
     private Button backButton;
     @FXML
+    private Button exportBtn;
+    @FXML
+    private Button summaryBtn;
+    @FXML
     private Label fillAllRecords;
     @FXML
     private Label fillValidRecords;
@@ -54,6 +89,28 @@ public class TransactionViewController {
     private Label finalTaxLabel;
     @FXML
     private Label ProfitLabel;
+    @FXML
+    private TextField itemCodeSearchField;
+    @FXML
+    private ChoiceBox<String> recordFilter;
+    @FXML
+    private Label watchStatusLabel;
+
+    private TransactionStoreList transactions;
+    private Task<?> loadingTask;
+    // Mod count after the last page was appended, or -1 once the rows were changed in another way
+    private int loadedModCount = -1;
+
+    private final Map<TableColumn<Transaction, ?>, TransactionSorter.Column> sortColumns = new HashMap<>();
+    private Task<int[]> sortTask;
+    // Column, direction and filter of the order the table shows or is computing
+    private String shownOrder = NATURAL_ORDER;
+
+    private TaxFolderWatcher folderWatcher;
+    // Source number of each watched file, by file name
+    private final Map<Path, Integer> fileSources = new HashMap<>();
+    // Rows kept so far when the import removed duplicates, with the same source numbers
+    private RowDeduplicator deduplicator;
 
     /**
      * Initializes the controller.
@@ -63,31 +120,195 @@ public class TransactionViewController {
     private void initialize() {
         // Initialize the profit label with zero
         ProfitLabel.setText("Total Profit: LKR 0.00");
+
+        // Entries in the order of TransactionSorter.Filter
+        recordFilter.getItems().setAll("All Records", "Valid Records", "Invalid Records");
+        recordFilter.getSelectionModel().selectFirst();
+        recordFilter.getSelectionModel().selectedIndexProperty().addListener((observable, oldValue, newValue) -> startSort());
     }
 
     /**
      * Sets the transactions to display in the table.
+     * The transactions are copied into a columnar store.
      *
      * @param transactions List of transactions to display
      */
     public void setTransactions(List<Transaction> transactions) {
+        TransactionStore store = new TransactionStore(transactions.size());
+        for (Transaction transaction : transactions) {
+            store.add(transaction.getItemCode(), transaction.getCost(), transaction.getSalePrice(),
+                    transaction.getDiscount(), transaction.getChecksum());
+        }
+        setStore(store);
+    }
+
+    /**
+     * Displays the rows of a transaction store in the table.
+     * Transaction views are only created for the rows the table actually shows.
+     *
+     * @param store The store holding the imported transactions
+     */
+    public void setStore(TransactionStore store) {
         if (transactionTable != null) {
-            transactionTable.setItems(FXCollections.observableArrayList(transactions));
+            transactions = new TransactionStoreList(store);
+            loadedModCount = transactions.getModCount();
+            shownOrder = NATURAL_ORDER;
+            transactionTable.setItems(transactions);
+            updateRecordCounts();
+            startSort();
+        }
+    }
+
+    /**
+     * Appends a page of rows from a file that is still loading and refreshes the totals.
+     *
+     * @param page The rows to append
+     */
+    public void appendRows(TransactionStore page) {
+        if (transactions != null) {
+            boolean onlyPages = transactions.getModCount() == loadedModCount;
+            transactions.appendAll(page);
+            loadedModCount = onlyPages ? transactions.getModCount() : -1;
+            updateRecordCounts();
+        }
+    }
+
+    /**
+     * Returns the store holding the rows as they were loaded, e.g. to save a snapshot of a file once its
+     * last page is shown. Sorting only changes the order the rows are shown in, so it does not count as a change.
+     *
+     * @return The store, or null if rows were edited or deleted since the view was given them
+     */
+    public TransactionStore getLoadedStore() {
+        return transactions != null && transactions.getModCount() == loadedModCount ? transactions.getStore() : null;
+    }
+
+    /**
+     * Marks the table as still loading. Going back to the home view cancels the task.
+     *
+     * @param task The import task delivering rows to this view
+     */
+    public void setLoadingTask(Task<?> task) {
+        loadingTask = task;
+        if (transactions != null) {
             updateRecordCounts();
         }
     }
 
+    /**
+     * Marks the table as fully loaded.
+     */
+    public void finishLoading() {
+        loadingTask = null;
+        if (transactions != null) {
+            updateRecordCounts();
+            // Pages appended while sorted were added at the end; sort them into place
+            resort();
+        }
+    }
+
+    /**
+     * Keeps the table up to date with the folder it was imported from: ttf_*.csv files created in the folder
+     * are added, lines appended to a file are added after its rows, and the rows of a rewritten file are
+     * replaced by its new contents, once the POS has finished writing them. Rows deleted from a file that is
+     * rewritten come back with it. If the import removed duplicate rows, so do the merges. Going back stops watching.
+     *
+     * @param directory The imported folder
+     * @param loaded The per-file results of the import, in the order their rows were added to the table
+     * @param deduplicator The rows the import kept, or null if it kept every row;
+     *                     see DirectoryImporter.removeDuplicates(List, RowDeduplicator)
+     */
+    public void watchFolder(Path directory, List<FileImportResult> loaded, RowDeduplicator deduplicator) {
+        if (transactions == null) {
+            return;
+        }
+        int row = 0;
+        for (FileImportResult result : loaded) {
+            transactions.setSource(row, row + result.getRowCount(), sourceOf(result.getFile()));
+            row += result.getRowCount();
+        }
+        // The import numbered the files by their index in the results, as above
+        this.deduplicator = deduplicator;
+
+        folderWatcher = new TaxFolderWatcher(directory, loaded, this::applyFileResults, Platform::runLater);
+        try {
+            folderWatcher.start();
+            watchStatusLabel.setText("Watching " + directory.getFileName() + " for new tax files");
+            watchStatusLabel.setVisible(true);
+        } catch (IOException e) {
+            folderWatcher = null;
+            AlertUtils.showError("Watch Error", "Failed to watch folder", e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Merges files that were created or changed in the watched folder into the table and its totals.
+     */
+    private void applyFileResults(List<FileImportResult> results) {
+        if (folderWatcher == null) {
+            return;
+        }
+        OperationMetrics metrics = new OperationMetrics("Merge changed files");
+        long allocatedBefore = OperationMetrics.threadAllocatedBytes();
+        long start = System.nanoTime();
+        int rows = 0;
+        int errors = 0;
+        int duplicates = 0;
+        long dedupNanos = 0;
+        for (FileImportResult result : results) {
+            int source = sourceOf(result.getFile());
+            Map<Integer, TransactionStore> restored = Map.of();
+            if (deduplicator != null) {
+                long dedupStart = System.nanoTime();
+                restored = DirectoryImporter.removeDuplicates(result, source, deduplicator);
+                dedupNanos += System.nanoTime() - dedupStart;
+                duplicates += result.getDuplicatesRemoved();
+            }
+            if (!result.isAppend()) {
+                transactions.removeSource(source);
+            }
+            transactions.appendAll(result.getStore(), source);
+            // Rows of other files that the rewritten file no longer repeats
+            for (Map.Entry<Integer, TransactionStore> entry : restored.entrySet()) {
+                transactions.appendAll(entry.getValue(), entry.getKey());
+                rows += entry.getValue().size();
+            }
+            rows += result.getRowCount();
+            errors += result.getErrors().size();
+            metrics.add(result.getMetrics());
+        }
+        updateRecordCounts();
+        metrics.addStageNanos(OperationMetrics.Stage.DEDUPLICATE, dedupNanos);
+        metrics.addStageNanos(OperationMetrics.Stage.TABLE, System.nanoTime() - start - dedupNanos);
+        metrics.addAllocatedBytes(OperationMetrics.threadAllocatedBytes() - allocatedBefore);
+        MetricsLog.shared().record(metrics);
+        resort();
+
+        String status = String.format("%s  Read %d changed file(s), %,d rows", LocalTime.now().truncatedTo(ChronoUnit.SECONDS),
+                results.size(), rows);
+        if (duplicates > 0) {
+            status += ", " + duplicates + " duplicates skipped";
+        }
+        watchStatusLabel.setText(errors > 0 ? status + ", " + errors + " bad lines skipped" : status);
+    }
+
+    private int sourceOf(Path file) {
+        return fileSources.computeIfAbsent(file.getFileName(), name -> fileSources.size());
+    }
+
     /**
      * Updates the record count labels and total profit display.
-     * Called whenever the transaction table changes.
+     * Called whenever the transaction table changes. Reads the store's running totals,
+     * so no rows are rescanned.
      */
     private void updateRecordCounts() {
-        int totalRecords = transactionTable.getItems().size();
-        long validRecords = transactionTable.getItems().stream()
-                .filter(Transaction::isValidChecksum).count();
-        long invalidRecords = totalRecords - validRecords;
+        TransactionAggregates aggregates = transactions.getStore().getAggregates();
+        int totalRecords = aggregates.getTotalCount();
+        int validRecords = aggregates.getValidCount();
+        int invalidRecords = aggregates.getInvalidCount();
 
-        fillAllRecords.setText(String.valueOf(totalRecords));
+        fillAllRecords.setText(loadingTask != null ? totalRecords + " (loading...)" : String.valueOf(totalRecords));
         fillValidRecords.setText(String.valueOf(validRecords));
         fillInvalidRecords.setText(String.valueOf(invalidRecords));
         updateTotalProfit();
@@ -98,11 +319,8 @@ public class TransactionViewController {
      * Called whenever the transaction table changes.
      */
     public void updateTotalProfit() {
-        double totalProfit = 0.0;
-        for (Transaction transaction : transactionTable.getItems()) {
-            totalProfit += transaction.getProfit();
-        }
-        ProfitLabel.setText(String.format("Total Profit: LKR %.2f", totalProfit));
+        long totalProfitCents = transactions.getStore().getAggregates().getTotalProfitCents();
+        ProfitLabel.setText("Total Profit: LKR " + MoneyUtil.format(totalProfitCents));
     }
 
     /**
@@ -163,6 +381,20 @@ public class TransactionViewController {
 
             profit.setCellValueFactory(cellData -> new SimpleDoubleProperty(cellData.getValue().getProfit()));
 
+            // Sort on the store's primitive columns in the background instead of comparing boxed cell values
+            sortColumns.put(itemCode, TransactionSorter.Column.ITEM_CODE);
+            sortColumns.put(cost, TransactionSorter.Column.COST);
+            sortColumns.put(salePrice, TransactionSorter.Column.SALE_PRICE);
+            sortColumns.put(discount, TransactionSorter.Column.DISCOUNT);
+            sortColumns.put(discountedPrice, TransactionSorter.Column.DISCOUNTED_PRICE);
+            sortColumns.put(checksum, TransactionSorter.Column.CHECKSUM);
+            sortColumns.put(validity, TransactionSorter.Column.VALIDITY);
+            sortColumns.put(profit, TransactionSorter.Column.PROFIT);
+            transactionTable.setSortPolicy(table -> {
+                startSort();
+                return true;
+            });
+
             // Force the table to refresh
             transactionTable.refresh();
             updateTotalProfit();
@@ -172,6 +404,96 @@ public class TransactionViewController {
         }
     }
 
+    /**
+     * Sorts and filters the rows for the table's sort order and the record filter on a background thread,
+     * then swaps the result into the table as a single change. Does nothing if that order is already shown
+     * or being computed. If the rows change while the sort runs, the result is discarded and the sort restarts.
+     */
+    private void startSort() {
+        if (transactions == null) {
+            return;
+        }
+        TableColumn<Transaction, ?> sortColumn = transactionTable.getSortOrder().isEmpty()
+                ? null : transactionTable.getSortOrder().get(0);
+        TransactionSorter.Column column = sortColumn == null ? null : sortColumns.get(sortColumn);
+        boolean ascending = sortColumn == null || sortColumn.getSortType() == TableColumn.SortType.ASCENDING;
+        int filterIndex = Math.max(0, recordFilter.getSelectionModel().getSelectedIndex());
+        TransactionSorter.Filter filter = TransactionSorter.Filter.values()[filterIndex];
+
+        String key = orderKey(column, ascending, filter);
+        if (key.equals(shownOrder)) {
+            return;
+        }
+        shownOrder = key;
+        if (sortTask != null) {
+            sortTask.cancel();
+            sortTask = null;
+        }
+        if (key.equals(NATURAL_ORDER)) {
+            transactions.setOrder(null, null);
+            return;
+        }
+
+        TransactionStore store = transactions.getStore();
+        OperationMetrics metrics = new OperationMetrics("Sort " + (column == null ? "unsorted" : column) + ", " + filter);
+        TransactionSorter sorter = TransactionSorter.capture(store, column, ascending, filter);
+        int modCount = transactions.getModCount();
+        Task<int[]> task = new Task<>() {
+            @Override
+            protected int[] call() {
+                long allocatedBefore = OperationMetrics.threadAllocatedBytes();
+                long start = System.nanoTime();
+                int[] order = sorter.sort();
+                metrics.addStageNanos(OperationMetrics.Stage.SORT, System.nanoTime() - start);
+                metrics.addAllocatedBytes(OperationMetrics.threadAllocatedBytes() - allocatedBefore);
+                metrics.addRows(order.length);
+                return order;
+            }
+        };
+        task.setOnSucceeded(event -> {
+            if (sortTask != task) {
+                return;
+            }
+            sortTask = null;
+            if (transactions.getModCount() != modCount) {
+                resort();
+                return;
+            }
+            long start = System.nanoTime();
+            transactions.setOrder(task.getValue(), filter == TransactionSorter.Filter.ALL
+                    ? null : row -> TransactionSorter.matches(store, row, filter));
+            metrics.addStageNanos(OperationMetrics.Stage.TABLE, System.nanoTime() - start);
+            MetricsLog.shared().record(metrics);
+        });
+        task.setOnFailed(event -> {
+            if (sortTask == task) {
+                sortTask = null;
+                shownOrder = null;
+            }
+            AlertUtils.showError("Sort Error", "Failed to sort transactions", task.getException().getMessage());
+            task.getException().printStackTrace();
+        });
+        sortTask = task;
+
+        Thread thread = new Thread(task, "transaction-sort");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Sorts and filters again, e.g. after an edit changed the value a row is sorted by.
+     */
+    private void resort() {
+        if (!NATURAL_ORDER.equals(shownOrder)) {
+            shownOrder = null;
+            startSort();
+        }
+    }
+
+    private static String orderKey(TransactionSorter.Column column, boolean ascending, TransactionSorter.Filter filter) {
+        return column + "/" + (ascending ? "ascending" : "descending") + "/" + filter;
+    }
+
     /**
      * Handles the edit button click.
      * Opens a new window for editing the selected transaction.
@@ -179,12 +501,15 @@ public class TransactionViewController {
     @FXML
     private void handleEditButtonClick() {
         // Get the selected transaction
+        int selectedIndex = transactionTable.getSelectionModel().getSelectedIndex();
         Transaction selectedTransaction = transactionTable.getSelectionModel().getSelectedItem();
         if (selectedTransaction == null) {
             AlertUtils.showError("Selection Error", "No Transaction Selected", "Please select a transaction to edit.");
             return;
         }
 
+        // Follow the store row, so the edit lands on it even if rows are sorted, merged or removed meanwhile
+        TransactionStoreList.TrackedRow editedRow = transactions.trackRow(transactions.rowAt(selectedIndex));
         try {
             // Load the update-view.fxml
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/example/tax/fxml/update-view.fxml"));
@@ -193,6 +518,7 @@ public class TransactionViewController {
             // Get the controller and pass the selected transaction
             UpdateViewController controller = loader.getController();
             controller.setTransaction(selectedTransaction);
+            controller.setStore(transactions.getStore());
 
             // Create a new stage for the update view
             Stage updateStage = new Stage();
@@ -205,12 +531,24 @@ public class TransactionViewController {
             // Show the update view
             updateStage.showAndWait();
 
-            // After the update window is closed, refresh the table
+            // After the update window is closed, write a saved edit back to the store and refresh the table
+            if (!controller.isSaved()) {
+                return;
+            }
+            if (editedRow.isRemoved()) {
+                AlertUtils.showError("Update Error", "Record No Longer Exists",
+                        "The record was removed while it was being edited, so the changes were not saved.");
+                return;
+            }
+            transactions.commitRow(editedRow.getRow(), selectedTransaction);
             transactionTable.refresh();
-            updateTotalProfit();
+            updateRecordCounts();
+            resort();
         } catch (IOException e) {
             AlertUtils.showError("Update Error", "Failed to open update window", e.getMessage());
             e.printStackTrace();
+        } finally {
+            transactions.untrack(editedRow);
         }
     }
 
@@ -221,6 +559,7 @@ public class TransactionViewController {
     @FXML
     private void deleteRecordOnClick() {
         // Get the selected transaction
+        int selectedIndex = transactionTable.getSelectionModel().getSelectedIndex();
         Transaction selectedTransaction = transactionTable.getSelectionModel().getSelectedItem();
 
         // Check if a transaction is selected
@@ -236,7 +575,7 @@ public class TransactionViewController {
         }
 
         // Remove the selected transaction from the table
-        transactionTable.getItems().remove(selectedTransaction);
+        transactions.remove(selectedIndex);
         updateRecordCounts();
     }
 
@@ -245,14 +584,9 @@ public class TransactionViewController {
      */
     @FXML
     private void deleteAllInvalidRecords() {
-        // Create a list to store the invalid transactions
-        List<Transaction> invalidTransactions = transactionTable.getItems().stream()
-                .filter(transaction -> !transaction.isValidChecksum())
-                .toList();
-
         // Remove all invalid transactions from the table
-        transactionTable.getItems().removeAll(invalidTransactions);
-        updateRecordCounts();
+        TransactionStore store = transactions.getStore();
+        removeRows("Delete invalid records", row -> !store.isValid(row));
     }
 
     /**
@@ -260,38 +594,214 @@ public class TransactionViewController {
      */
     @FXML
     private void deleteAllZeroProfitRecords() {
-        // Create a list to store the zero profit transactions
-        List<Transaction> zeroProfitTransactions = transactionTable.getItems().stream()
-                .filter(transaction -> transaction.getProfit() == 0)
-                .toList();
-
         // Remove all zero profit transactions from the table
-        transactionTable.getItems().removeAll(zeroProfitTransactions);
+        TransactionStore store = transactions.getStore();
+        removeRows("Delete zero profit records", row -> store.getProfit(row) == 0);
+    }
+
+    /**
+     * Removes the matching rows, refreshes the totals and records how long it took.
+     */
+    private void removeRows(String operation, IntPredicate filter) {
+        OperationMetrics metrics = new OperationMetrics(operation);
+        BulkDeleteEvent event = new BulkDeleteEvent();
+        event.begin();
+        long allocatedBefore = OperationMetrics.threadAllocatedBytes();
+        long start = System.nanoTime();
+        int removedRows = transactions.removeRows(filter);
+        metrics.addRows(removedRows);
+        long removed = System.nanoTime();
         updateRecordCounts();
+        metrics.addStageNanos(OperationMetrics.Stage.DELETE, removed - start);
+        metrics.addStageNanos(OperationMetrics.Stage.TABLE, System.nanoTime() - removed);
+        metrics.addAllocatedBytes(OperationMetrics.threadAllocatedBytes() - allocatedBefore);
+        MetricsLog.shared().record(metrics);
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.removed = removedRows;
+            event.remaining = transactions.getStore().size();
+            event.commit();
+        }
     }
 
     /**
-     * Calculates the final tax based on the total profit and tax rate.
-     * Displays the result in the finalTaxLabel.
+     * Exports the records the table shows, in the order it shows them, to a tax transaction file
+     * with freshly calculated checksums. The rows are copied here and written on a background thread,
+     * so the table can be used while a large export runs.
      */
     @FXML
-    private void calculateFinalTaxOnClick() {
+    private void exportOnClick() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Export Transactions");
+        fileChooser.setInitialFileName("ttf_cleaned.csv");
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV Files", "*.csv"));
+        File selectedFile = fileChooser.showSaveDialog(exportBtn.getScene().getWindow());
+        if (selectedFile == null) {
+            return;
+        }
+
+        OperationMetrics metrics = new OperationMetrics("Export " + selectedFile.getName());
+        TransactionStore copy = new TransactionStore(transactions.getStore().size());
+        copy.addAll(transactions.getStore());
+        int[] rows = transactions.getOrder();
+        Task<Integer> task = new Task<>() {
+            @Override
+            protected Integer call() throws IOException {
+                long allocatedBefore = OperationMetrics.threadAllocatedBytes();
+                long start = System.nanoTime();
+                int written = TransactionExporter.export(copy, rows, selectedFile.toPath());
+                metrics.addStageNanos(OperationMetrics.Stage.WRITE, System.nanoTime() - start);
+                metrics.addAllocatedBytes(OperationMetrics.threadAllocatedBytes() - allocatedBefore);
+                metrics.addRows(written);
+                metrics.addBytes(selectedFile.length());
+                return written;
+            }
+        };
+        task.setOnSucceeded(event -> {
+            exportBtn.setDisable(false);
+            MetricsLog.shared().record(metrics);
+            AlertUtils.showInformation("Export", "Export Complete",
+                    String.format("Exported %,d records to %s.", task.getValue(), selectedFile.getName()));
+        });
+        task.setOnFailed(event -> {
+            exportBtn.setDisable(false);
+            AlertUtils.showError("Export Error", "Failed to export transactions", task.getException().getMessage());
+            task.getException().printStackTrace();
+        });
+        exportBtn.setDisable(true);
+
+        Thread thread = new Thread(task, "transaction-export");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Opens the summary view with the count, revenue, cost, profit and average discount of every item
+     * code and item family. The columns are copied here and totalled on a background thread by the view.
+     */
+    @FXML
+    private void showSummaryOnClick() {
+        GroupAggregator aggregator = GroupAggregator.capture(transactions.getStore());
+        // Capturing validates rows not checked yet, which can change the valid and invalid counts
+        updateRecordCounts();
         try {
-            // Get the tax rate from the text field
-            double taxRate = Double.parseDouble(taxRateField.getText()) / 100.0;
+            FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/example/tax/fxml/summary-view.fxml"));
+            Scene summaryScene = new Scene(loader.load());
 
-            // Get the current total profit value
-            String profitText = ProfitLabel.getText().replace("Total Profit: LKR ", "");
-            double totalProfit = Double.parseDouble(profitText);
+            Stage summaryStage = new Stage();
+            summaryStage.setTitle("Transaction Summary");
+            summaryStage.setScene(summaryScene);
+            summaryStage.initOwner(summaryBtn.getScene().getWindow());
+            summaryStage.show();
 
-            // Calculate the final tax
-            double finalTax = totalProfit * taxRate;
+            SummaryViewController controller = loader.getController();
+            controller.summarize(aggregator);
+        } catch (IOException e) {
+            AlertUtils.showError("Summary Error", "Failed to open summary window", e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Selects the next row holding the item code typed in the search field, starting again from the
+     * first match after the last one. The rows are found through the store's item code index.
+     */
+    @FXML
+    private void findItemCodeOnClick() {
+        String itemCode = itemCodeSearchField.getText().trim();
+        if (itemCode.isEmpty()) {
+            return;
+        }
+        // Translate the matching store rows to the table's current order, dropping rows the filter hides
+        int[] rows = transactions.getStore().rowsWithItemCode(itemCode);
+        int[] indexes = new int[rows.length];
+        int shown = 0;
+        for (int row : rows) {
+            int index = transactions.indexOfRow(row);
+            if (index >= 0) {
+                indexes[shown++] = index;
+            }
+        }
+        if (shown == 0) {
+            AlertUtils.showWarning("Search", "Item Code Not Found", "No record shown has the item code " + itemCode + ".");
+            return;
+        }
+        Arrays.sort(indexes, 0, shown);
+
+        // Continue after the selected row if it is one of the matches
+        int selected = transactionTable.getSelectionModel().getSelectedIndex();
+        int next = Arrays.binarySearch(indexes, 0, shown, selected);
+        next = next >= 0 ? (next + 1) % shown : 0;
+        transactionTable.getSelectionModel().clearAndSelect(indexes[next]);
+        transactionTable.scrollTo(indexes[next]);
+    }
 
-            // Display the final tax
-            finalTaxLabel.setText(String.format("Final Tax: LKR %.2f", finalTax));
-        } catch (NumberFormatException e) {
+    /**
+     * Lists the item codes that appear on more than one record.
+     */
+    @FXML
+    private void showDuplicateItemCodes() {
+        TransactionStore store = transactions.getStore();
+        List<String> duplicates = store.getDuplicateItemCodes();
+        if (duplicates.isEmpty()) {
+            AlertUtils.showInformation("Duplicate Codes", "No Duplicate Item Codes", "Every item code appears on one record only.");
+            return;
+        }
+
+        StringBuilder report = new StringBuilder();
+        int shown = Math.min(duplicates.size(), MAX_REPORTED_DUPLICATES);
+        for (int i = 0; i < shown; i++) {
+            String itemCode = duplicates.get(i);
+            report.append(itemCode).append(": ").append(store.countItemCode(itemCode)).append(" records\n");
+        }
+        if (duplicates.size() > shown) {
+            report.append("... and ").append(duplicates.size() - shown).append(" more");
+        }
+        AlertUtils.showInformation("Duplicate Codes",
+                duplicates.size() + " item codes appear on more than one record", report.toString());
+    }
+
+    /**
+     * Calculates the final tax based on the total profit and the tax rate, or a tiered schedule with
+     * per-family rates (see TaxSchedule). Displays the result in the finalTaxLabel; when several
+     * schedules are entered, separated by semicolons, their taxes are listed side by side.
+     */
+    @FXML
+    private void calculateFinalTaxOnClick() {
+        TaxCalculationEvent event = new TaxCalculationEvent();
+        event.begin();
+        try {
+            // Get the rate schedules from the text field, e.g. "10" or "8; 5, 100000:15, Cake=8"
+            List<TaxSchedule> schedules = TaxSchedule.parseAll(taxRateField.getText());
+
+            // Calculate the tax of every schedule from the running profit totals
+            List<TaxEngine.Result> results = new TaxEngine().add(transactions.getStore()).sweep(schedules);
+
+            // Display the final tax, and compare the schedules when more than one was entered
+            TaxEngine.Result first = results.get(0);
+            finalTaxLabel.setText("Final Tax: LKR " + MoneyUtil.format(first.getTaxCents())
+                    + (results.size() > 1 ? " (1 of " + results.size() + ")" : ""));
+            if (results.size() > 1) {
+                StringBuilder comparison = new StringBuilder();
+                for (TaxEngine.Result result : results) {
+                    comparison.append(String.format("%s: LKR %s (%.2f%% of profit)%n", result.getSchedule().getName(),
+                            MoneyUtil.format(result.getTaxCents()), result.getEffectiveRate()));
+                }
+                AlertUtils.showInformation("Tax Schedules", String.format("Tax on a total profit of LKR %s",
+                        MoneyUtil.format(first.getProfitCents())), comparison.toString().trim());
+            }
+
+            if (event.shouldCommit()) {
+                event.records = transactions.getStore().size();
+                event.schedules = taxRateField.getText().trim();
+                event.scheduleCount = results.size();
+                event.totalProfit = MoneyUtil.toDouble(first.getProfitCents());
+                event.tax = first.getTax();
+                event.commit();
+            }
+        } catch (IllegalArgumentException e) {
             // Handle invalid input in the tax rate field
-            finalTaxLabel.setText("Invalid tax rate. Please enter a valid number.");
+            finalTaxLabel.setText("Invalid tax rate. " + e.getMessage());
         } catch (Exception e) {
             // Handle other exceptions
             finalTaxLabel.setText("Error calculating tax: " + e.getMessage());
@@ -304,6 +814,19 @@ public class TransactionViewController {
      */
     @FXML
     private void goBack() {
+        if (loadingTask != null) {
+            loadingTask.cancel(true);
+            loadingTask = null;
+        }
+        if (sortTask != null) {
+            sortTask.cancel();
+            sortTask = null;
+        }
+        if (folderWatcher != null) {
+            folderWatcher.close();
+            folderWatcher = null;
+            deduplicator = null;
+        }
         try {
             FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("/com/example/tax/fxml/tax-home-view.fxml"));
             Scene scene = new Scene(fxmlLoader.load());
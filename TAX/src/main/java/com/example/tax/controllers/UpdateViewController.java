@@ -1,8 +1,12 @@
 package com.example.tax.controllers;
 
+import com.example.tax.events.RecordEditEvent;
 import com.example.tax.models.Transaction;
+import com.example.tax.models.TransactionStore;
+import com.example.tax.models.TransactionValidator;
 import com.example.tax.utils.AlertUtils;
 import com.example.tax.utils.ChecksumUtil;
+import com.example.tax.utils.MoneyUtil;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
@@ -14,6 +18,9 @@ import javafx.stage.Stage;
  * Handles editing transaction details and recalculating checksums.
  */
 public class UpdateViewController {
+    private static final String AMOUNT_RANGE_MESSAGE = String.format(
+            "Cost and sale price must be numbers no larger than %,.0f", MoneyUtil.MAX_AMOUNT);
+
     @FXML
     private TextField itemCodeField;
     @FXML
@@ -32,7 +39,9 @@ public class UpdateViewController {
     private Button cancelBtn;
 
     private Transaction transaction;
+    private TransactionStore store;
     private boolean hasChanges = false;
+    private boolean saved = false;
 
     /**
      * Sets the transaction to be edited and populates the form fields.
@@ -67,6 +76,22 @@ public class UpdateViewController {
         });
     }
 
+    /**
+     * @return true if the dialog was closed by saving, false if it was cancelled or closed
+     */
+    public boolean isSaved() {
+        return saved;
+    }
+
+    /**
+     * Sets the store holding the other records, so a new item code can be checked for duplicates.
+     *
+     * @param store The store the edited transaction belongs to
+     */
+    public void setStore(TransactionStore store) {
+        this.store = store;
+    }
+
     /**
      * Initializes the controller.
      * Sets up listeners for fields that affect the discounted price.
@@ -92,8 +117,12 @@ public class UpdateViewController {
         try {
             double salePrice = Double.parseDouble(salePriceField.getText());
             double discount = Double.parseDouble(discountField.getText());
+            if (!MoneyUtil.isStorableAmount(salePrice) || !MoneyUtil.isStorableDiscount(discount)) {
+                discPriceLabel.setText("");
+                return;
+            }
             // Calculate the discounted price
-            double discountedPrice = salePrice - (salePrice * discount / 100);
+            double discountedPrice = TransactionValidator.calculateDiscountedPrice(salePrice, discount);
             // Format and set the calculated value to the label
             discPriceLabel.setText(String.format("%.1f", discountedPrice));
         } catch (NumberFormatException e) {
@@ -109,7 +138,7 @@ public class UpdateViewController {
      * @return true if valid, false if it contains special characters
      */
     private boolean isValidItemCode(String itemCode) {
-        return !itemCode.matches(".*[!@#$%^&*()+=\\[\\]{}|;:'\",.<>/?`~-].*");
+        return TransactionValidator.isValidItemCode(itemCode);
     }
 
     /**
@@ -131,7 +160,11 @@ public class UpdateViewController {
             double salePrice = Double.parseDouble(salePriceField.getText());
             double discount = Double.parseDouble(discountField.getText());
 
-            // Validate numeric values
+            // Validate numeric values; NaN would pass the comparisons below
+            if (!MoneyUtil.isStorableAmount(cost) || !MoneyUtil.isStorableAmount(salePrice)) {
+                AlertUtils.showError("Validation Error", "Invalid Input", AMOUNT_RANGE_MESSAGE);
+                return;
+            }
             if (cost < 0) {
                 AlertUtils.showError("Validation Error", "Invalid Input", "Cost cannot be negative");
                 return;
@@ -142,20 +175,18 @@ public class UpdateViewController {
                 return;
             }
 
-            if (discount < 0 || discount > 100) {
+            if (!(discount >= 0 && discount <= 100)) {
                 AlertUtils.showError("Validation Error", "Invalid Input", "Discount must be between 0 and 100");
                 return;
             }
 
-            // Calculate discounted price
-            double discountedPrice = salePrice - (salePrice * discount / 100);
+            // Calculate discounted price, rounded as the POS and the validator round it
+            double discountedPrice = TransactionValidator.calculateDiscountedPrice(salePrice, discount);
 
-            // Use the utility class to format transaction line and calculate checksum
-            String transactionLine = ChecksumUtil.formatTransactionLine(
+            // Use the utility class to calculate the checksum from the fields
+            int calculatedChecksum = ChecksumUtil.calculateChecksum(
                     itemCode, cost, salePrice, discount, discountedPrice);
 
-            int calculatedChecksum = ChecksumUtil.calculateChecksum(transactionLine);
-
             // Update the checksum label
             checksumLabel.setText(String.valueOf(calculatedChecksum));
         } catch (NumberFormatException e) {
@@ -182,11 +213,32 @@ public class UpdateViewController {
                 return;
             }
 
+            // Warn if another record already has the new item code, looked up in the store's index
+            if (store != null && !itemCode.equals(transaction.getItemCode())) {
+                int existing = store.countItemCode(itemCode);
+                if (existing > 0) {
+                    boolean proceed = AlertUtils.showWarningWithOptions(
+                            "Warning",
+                            "Duplicate Item Code",
+                            "The item code " + itemCode + " is already used by " + existing + " other record(s)."
+                    );
+                    if (!proceed) {
+                        return;
+                    }
+                }
+            }
+
             // Validate numeric fields
             double cost = Double.parseDouble(costField.getText());
             double salePrice = Double.parseDouble(salePriceField.getText());
             double discount = Double.parseDouble(discountField.getText());
 
+            // Check for NaN, infinities and amounts too large to store, which pass the comparisons below
+            if (!MoneyUtil.isStorableAmount(cost) || !MoneyUtil.isStorableAmount(salePrice)) {
+                AlertUtils.showError("Validation Error", "Invalid Input", AMOUNT_RANGE_MESSAGE);
+                return;
+            }
+
             // Check for negative values
             if (cost < 0) {
                 AlertUtils.showError("Validation Error", "Invalid Input", "Cost cannot be negative");
@@ -198,7 +250,7 @@ public class UpdateViewController {
             }
 
             // Check discount range
-            if (discount < 0 || discount > 100) {
+            if (!(discount >= 0 && discount <= 100)) {
                 AlertUtils.showError("Validation Error", "Invalid Input", "Discount must be between 0 and 100");
                 return;
             }
@@ -216,6 +268,11 @@ public class UpdateViewController {
             }
 
 
+            // Timed from here, so the event leaves out the time spent answering the dialogs above
+            RecordEditEvent event = new RecordEditEvent();
+            event.begin();
+            String previousItemCode = transaction.getItemCode();
+
             // Auto-generate checksum if needed
             if (checksumLabel.getText().isEmpty() || hasChanges) {
                 generateChecksum();
@@ -226,11 +283,21 @@ public class UpdateViewController {
             transaction.setCost(cost);
             transaction.setSalePrice(salePrice);
             transaction.setDiscount(discount);
-            transaction.setDiscountedPrice(Double.parseDouble(discPriceLabel.getText()));
+            // Derived from the fields as the store derives them, not parsed back from the rounded label
+            double discountedPrice = TransactionValidator.calculateDiscountedPrice(salePrice, discount);
+            transaction.setDiscountedPrice(discountedPrice);
             transaction.setChecksum(checksumLabel.getText());
-            transaction.setProfit(transaction.getDiscountedPrice() - transaction.getCost());
+            transaction.setProfit(MoneyUtil.toDouble(MoneyUtil.toCents(discountedPrice) - MoneyUtil.toCents(cost)));
+            if (event.shouldCommit()) {
+                event.itemCode = itemCode;
+                event.previousItemCode = previousItemCode;
+                event.profit = transaction.getProfit();
+                event.valid = transaction.isValidChecksum();
+                event.commit();
+            }
 
             // Close the window
+            saved = true;
             closeWindow();
         } catch (NumberFormatException e) {
             AlertUtils.showError("Validation Error", "Invalid Input", "Please enter valid numeric values for all fields");
@@ -0,0 +1,26 @@
+package com.example.tax.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for checking the checksums of the rows a store has not validated yet,
+ * e.g. after an import or a page of a large file.
+ */
+@Name("com.example.tax.BatchValidation")
+@Label("Batch Validation")
+@Category({"Tax", "Validation"})
+@Description("The pending rows of a transaction store were validated")
+public class BatchValidationEvent extends Event {
+    @Label("Rows")
+    public int rows;
+
+    @Label("Valid")
+    public int valid;
+
+    @Label("Invalid")
+    public int invalid;
+}
@@ -0,0 +1,25 @@
+package com.example.tax.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for deleting every record that matches a rule, such as all invalid records.
+ */
+@Name("com.example.tax.BulkDelete")
+@Label("Bulk Delete")
+@Category({"Tax", "Records"})
+@Description("Records matching a rule were deleted from the transaction table")
+public class BulkDeleteEvent extends Event {
+    @Label("Operation")
+    public String operation;
+
+    @Label("Rows Removed")
+    public int removed;
+
+    @Label("Rows Left")
+    public int remaining;
+}
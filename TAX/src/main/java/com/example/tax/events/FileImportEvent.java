@@ -0,0 +1,35 @@
+package com.example.tax.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for reading a Tax Transaction File, from opening it until its rows are validated.
+ * A folder import emits one event per file, on the worker thread that read it.
+ */
+@Name("com.example.tax.FileImport")
+@Label("File Import")
+@Category({"Tax", "Import"})
+@Description("A Tax Transaction File was read into a transaction store")
+public class FileImportEvent extends Event {
+    @Label("Path")
+    public String path;
+
+    @Label("Bytes Read")
+    @DataAmount(DataAmount.BYTES)
+    public long bytes;
+
+    @Label("Rows")
+    public int rows;
+
+    @Label("Malformed Lines")
+    public int errors;
+
+    @Label("Append")
+    @Description("Only the lines added since the file was last read were read")
+    public boolean append;
+}
@@ -0,0 +1,29 @@
+package com.example.tax.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for saving an edited record in the update view. Covers writing the new
+ * values and checksum, not the time the user spends in the dialog.
+ */
+@Name("com.example.tax.RecordEdit")
+@Label("Record Edit")
+@Category({"Tax", "Records"})
+@Description("A record was edited and saved")
+public class RecordEditEvent extends Event {
+    @Label("Item Code")
+    public String itemCode;
+
+    @Label("Previous Item Code")
+    public String previousItemCode;
+
+    @Label("Profit")
+    public double profit;
+
+    @Label("Valid")
+    public boolean valid;
+}
@@ -0,0 +1,33 @@
+package com.example.tax.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for calculating the final tax of the records in the transaction view.
+ */
+@Name("com.example.tax.TaxCalculation")
+@Label("Tax Calculation")
+@Category({"Tax", "Calculation"})
+@Description("The final tax of one or more rate schedules was calculated from the profit totals")
+public class TaxCalculationEvent extends Event {
+    @Label("Records")
+    public int records;
+
+    @Label("Tax Schedules")
+    @Description("The schedules as entered, separated by semicolons")
+    public String schedules;
+
+    @Label("Schedules Compared")
+    public int scheduleCount;
+
+    @Label("Total Profit")
+    public double totalProfit;
+
+    @Label("Tax")
+    @Description("The tax of the first schedule")
+    public double tax;
+}
@@ -0,0 +1,130 @@
+package com.example.tax.models;
+
+import com.example.tax.utils.BatchChecksum;
+import com.example.tax.utils.MoneyUtil;
+
+/**
+ * A batch of store rows written out as the canonical transaction lines their checksums are
+ * computed from ("%s,%.2f,%.2f,%.1f,%.2f"), so the checksums of the whole batch can be
+ * calculated in one BatchChecksum call. Numbers are written with integer math from the
+ * fixed-point columns; item codes are copied from their cached ASCII bytes.
+ */
+class ChecksumBatch {
+    /** Longest fixed-point number as text: sign, 19 digits and a decimal point. */
+    private static final int MAX_NUMBER_LENGTH = 21;
+
+    private final int capacity;
+    private byte[] data;
+    private final int[] lineStarts;
+    private final int[] lineEnds;
+    private final int[] rows;
+    private final int[] checksums;
+    private int count;
+    private int length;
+
+    ChecksumBatch(int capacity) {
+        this.capacity = capacity;
+        this.data = new byte[capacity * 64];
+        this.lineStarts = new int[capacity];
+        this.lineEnds = new int[capacity];
+        this.rows = new int[capacity];
+        this.checksums = new int[capacity];
+    }
+
+    /**
+     * Adds the line of a row to the batch.
+     *
+     * @return false if the batch is full and must be calculated and reset first
+     */
+    boolean add(int row, byte[] itemCode, long costCents, long salePriceCents, long discountUnits,
+                long discountedPriceCents) {
+        int maxLength = itemCode.length + 4 * (MAX_NUMBER_LENGTH + 1);
+        if (count == capacity || length + maxLength > data.length) {
+            if (count > 0) {
+                return false;
+            }
+            data = new byte[Math.max(data.length, maxLength)];
+        }
+
+        int start = length;
+        System.arraycopy(itemCode, 0, data, length, itemCode.length);
+        length += itemCode.length;
+        data[length++] = ',';
+        writeFixed(costCents, 2);
+        data[length++] = ',';
+        writeFixed(salePriceCents, 2);
+        data[length++] = ',';
+        writeFixed(MoneyUtil.roundHalfUp(discountUnits, MoneyUtil.DISCOUNT_SCALE / 10), 1);
+        data[length++] = ',';
+        writeFixed(discountedPriceCents, 2);
+
+        lineStarts[count] = start;
+        lineEnds[count] = length;
+        rows[count] = row;
+        count++;
+        return true;
+    }
+
+    /**
+     * Calculates the checksum of every line in the batch.
+     */
+    void calculate() {
+        BatchChecksum.calculateChecksums(data, lineStarts, lineEnds, count, checksums);
+    }
+
+    int size() { return count; }
+
+    int row(int index) { return rows[index]; }
+
+    int checksum(int index) { return checksums[index]; }
+
+    void reset() {
+        count = 0;
+        length = 0;
+    }
+
+    /**
+     * Writes a count of 10^-precision units as a decimal with that many places, as %.nf would print it.
+     * Values that fit in an int, i.e. all realistic prices, are written with int arithmetic.
+     */
+    private void writeFixed(long units, int precision) {
+        if (units < 0) {
+            data[length++] = '-';
+            units = -units;
+        }
+        int digits = Math.max(digitCount(units), precision + 1);
+        int position = length + digits + 1;
+        length = position;
+        int pointAt = position - precision - 1;
+        if (units <= Integer.MAX_VALUE) {
+            int value = (int) units;
+            while (position > length - digits - 1) {
+                if (--position == pointAt) {
+                    data[position] = '.';
+                    continue;
+                }
+                int next = value / 10;
+                data[position] = (byte) ('0' + (value - next * 10));
+                value = next;
+            }
+        } else {
+            long value = units;
+            while (position > length - digits - 1) {
+                if (--position == pointAt) {
+                    data[position] = '.';
+                    continue;
+                }
+                data[position] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+        }
+    }
+
+    private static int digitCount(long value) {
+        int digits = 1;
+        for (long bound = 10; digits < 19 && value >= bound; bound *= 10) {
+            digits++;
+        }
+        return digits;
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.tax.models;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Group-by engine that totals the records per item code and per item family, the name part of a
+ * Name_Number item code (Cake_122 and Cake_7 are both in the family Cake).
+ * capture() copies the columns it needs from the store, which is cheap and must happen on the thread
+ * that owns the store; aggregate() then runs on any thread, e.g. a background task.
+ * The rows are split into partitions that are aggregated in parallel, each into its own table, and the
+ * tables are merged pairwise. The store interns item codes, so a row's group is its dense item code id
+ * and each partition's hash table is a flat array indexed by that id, with no hashing or boxing per row.
+ * Families are then totalled from the item code groups, without another pass over the rows.
+ */
+public class GroupAggregator {
+    /** Rows a partition aggregates at least, so small stores are not split. */
+    static final int MIN_PARTITION_ROWS = 64 * 1024;
+
+    // Fields of a group in a partition table: count, valid count, revenue, cost and discount
+    private static final int COUNT = 0;
+    private static final int VALID = 1;
+    private static final int REVENUE = 2;
+    private static final int COST = 3;
+    private static final int DISCOUNT = 4;
+    private static final int FIELDS = 5;
+
+    private final int size;
+    private final int[] itemCodeIds;
+    private final long[] costCents;
+    private final long[] discountedPriceCents;
+    private final long[] discountUnits;
+    private final boolean[] valid;
+    private final String[] itemCodes;
+
+    private GroupAggregator(int size, String[] itemCodes) {
+        this.size = size;
+        this.itemCodes = itemCodes;
+        this.itemCodeIds = new int[size];
+        this.costCents = new long[size];
+        this.discountedPriceCents = new long[size];
+        this.discountUnits = new long[size];
+        this.valid = new boolean[size];
+    }
+
+    /**
+     * Copies the columns needed to aggregate the rows of a store.
+     * Validates any rows whose validity is not known yet.
+     *
+     * @param store The store to aggregate
+     * @return An aggregator that no longer reads the store
+     */
+    public static GroupAggregator capture(TransactionStore store) {
+        store.validateAll();
+        StringTable table = store.getItemCodes();
+        String[] itemCodes = new String[table.size()];
+        for (int id = 0; id < itemCodes.length; id++) {
+            itemCodes[id] = table.get(id);
+        }
+        GroupAggregator aggregator = new GroupAggregator(store.size(), itemCodes);
+        for (int row = 0; row < aggregator.size; row++) {
+            aggregator.itemCodeIds[row] = store.getItemCodeId(row);
+            aggregator.costCents[row] = store.getCostCents(row);
+            aggregator.discountedPriceCents[row] = store.getDiscountedPriceCents(row);
+            aggregator.discountUnits[row] = store.getDiscountUnits(row);
+            aggregator.valid[row] = store.isValid(row);
+        }
+        return aggregator;
+    }
+
+    /**
+     * @return The number of captured rows
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the family of an item code: the part before the last underscore if a number follows it,
+     * e.g. Cake for Cake_122, and otherwise the whole item code.
+     *
+     * @param itemCode The item code
+     * @return The family name
+     */
+    public static String familyOf(String itemCode) {
+        int underscore = itemCode.lastIndexOf('_');
+        if (underscore <= 0 || underscore == itemCode.length() - 1) {
+            return itemCode;
+        }
+        for (int i = underscore + 1; i < itemCode.length(); i++) {
+            if (!Character.isDigit(itemCode.charAt(i))) {
+                return itemCode;
+            }
+        }
+        return itemCode.substring(0, underscore);
+    }
+
+    /**
+     * Totals the captured rows per item code and per family.
+     *
+     * @return The groups, each list ordered by profit, highest first
+     */
+    public Result aggregate() {
+        int groups = itemCodes.length;
+        int partitions = partitions(groups);
+        long[] table = IntStream.range(0, partitions).parallel()
+                .mapToObj(partition -> aggregatePartition(partition, partitions, groups))
+                .reduce(GroupAggregator::merge)
+                .orElseGet(() -> new long[groups * FIELDS]);
+
+        List<GroupTotals> byItemCode = new ArrayList<>();
+        Map<String, long[]> families = new HashMap<>();
+        for (int id = 0; id < groups; id++) {
+            int base = id * FIELDS;
+            // Item codes of deleted rows stay in the store's table with no rows
+            if (table[base + COUNT] == 0) {
+                continue;
+            }
+            byItemCode.add(totals(itemCodes[id], table, base));
+            long[] family = families.computeIfAbsent(familyOf(itemCodes[id]), name -> new long[FIELDS]);
+            for (int field = 0; field < FIELDS; field++) {
+                family[field] += table[base + field];
+            }
+        }
+        List<GroupTotals> byFamily = new ArrayList<>(families.size());
+        for (Map.Entry<String, long[]> family : families.entrySet()) {
+            byFamily.add(totals(family.getKey(), family.getValue(), 0));
+        }
+        Comparator<GroupTotals> byProfit = Comparator.comparingLong(GroupTotals::getProfitCents).reversed()
+                .thenComparing(GroupTotals::getKey);
+        byItemCode.sort(byProfit);
+        byFamily.sort(byProfit);
+        return new Result(size, byItemCode, byFamily);
+    }
+
+    /**
+     * Chooses the number of partitions: enough to use every core on a large store, but few enough that
+     * the partition tables together take no more memory than the captured rows, however many item codes there are.
+     */
+    private int partitions(int groups) {
+        int byRows = Math.max(1, size / MIN_PARTITION_ROWS);
+        int byCores = Runtime.getRuntime().availableProcessors() * 4;
+        int byMemory = Math.max(1, Math.max(size, MIN_PARTITION_ROWS) / Math.max(1, groups));
+        return Math.min(byRows, Math.min(byCores, byMemory));
+    }
+
+    private long[] aggregatePartition(int partition, int partitions, int groups) {
+        long[] table = new long[groups * FIELDS];
+        int from = (int) ((long) size * partition / partitions);
+        int to = (int) ((long) size * (partition + 1) / partitions);
+        for (int row = from; row < to; row++) {
+            int base = itemCodeIds[row] * FIELDS;
+            table[base + COUNT]++;
+            if (valid[row]) {
+                table[base + VALID]++;
+            }
+            table[base + REVENUE] += discountedPriceCents[row];
+            table[base + COST] += costCents[row];
+            table[base + DISCOUNT] += discountUnits[row];
+        }
+        return table;
+    }
+
+    private static long[] merge(long[] into, long[] from) {
+        for (int i = 0; i < into.length; i++) {
+            into[i] += from[i];
+        }
+        return into;
+    }
+
+    private static GroupTotals totals(String key, long[] table, int base) {
+        return new GroupTotals(key, table[base + COUNT], table[base + VALID], table[base + REVENUE],
+                table[base + COST], table[base + DISCOUNT]);
+    }
+
+    /**
+     * The groups found by aggregate().
+     */
+    public static class Result {
+        private final int rows;
+        private final List<GroupTotals> byItemCode;
+        private final List<GroupTotals> byFamily;
+
+        Result(int rows, List<GroupTotals> byItemCode, List<GroupTotals> byFamily) {
+            this.rows = rows;
+            this.byItemCode = byItemCode;
+            this.byFamily = byFamily;
+        }
+
+        /**
+         * @return The number of rows aggregated
+         */
+        public int getRows() { return rows; }
+
+        /**
+         * @return One group per item code, highest profit first
+         */
+        public List<GroupTotals> getByItemCode() { return byItemCode; }
+
+        /**
+         * @return One group per family, highest profit first
+         */
+        public List<GroupTotals> getByFamily() { return byFamily; }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.tax.models;
+
+import com.example.tax.utils.MoneyUtil;
+
+/**
+ * Totals over the records of one group, e.g. one item code or one item family.
+ * Amounts are summed in fixed point (see MoneyUtil), so the totals are exact.
+ * Revenue is the sum of the discounted prices, the amount customers actually paid.
+ */
+public class GroupTotals {
+    private final String key;
+    private final long count;
+    private final long validCount;
+    private final long revenueCents;
+    private final long costCents;
+    private final long discountUnits;
+
+    GroupTotals(String key, long count, long validCount, long revenueCents, long costCents, long discountUnits) {
+        this.key = key;
+        this.count = count;
+        this.validCount = validCount;
+        this.revenueCents = revenueCents;
+        this.costCents = costCents;
+        this.discountUnits = discountUnits;
+    }
+
+    public String getKey() { return key; }
+
+    public long getCount() { return count; }
+
+    public long getValidCount() { return validCount; }
+
+    public long getInvalidCount() { return count - validCount; }
+
+    public long getRevenueCents() { return revenueCents; }
+
+    public long getCostCents() { return costCents; }
+
+    public long getProfitCents() { return revenueCents - costCents; }
+
+    public double getRevenue() { return MoneyUtil.toDouble(revenueCents); }
+
+    public double getCost() { return MoneyUtil.toDouble(costCents); }
+
+    public double getProfit() { return MoneyUtil.toDouble(getProfitCents()); }
+
+    /**
+     * @return The mean discount percentage of the group's records, or 0 for an empty group
+     */
+    public double getAverageDiscount() {
+        return count == 0 ? 0 : (double) discountUnits / count / MoneyUtil.DISCOUNT_SCALE;
+    }
+}
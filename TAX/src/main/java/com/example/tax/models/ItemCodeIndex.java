@@ -0,0 +1,191 @@
+package com.example.tax.models;
+
+import java.util.Arrays;
+
+/**
+ * Index from item code id to the rows holding that item code, maintained by TransactionStore.
+ * Item codes are already hashed to dense ids by the store's StringTable, so a lookup is one hash
+ * lookup plus an array access. Every id keeps its first row inline; only item codes that appear
+ * on more than one row get an ascending row list, so a file of unique codes costs two ints per code.
+ * Removing rows shifts the rows after them, so removals remap the lists in one pass, the same
+ * O(n) as the column compaction they go with.
+ */
+class ItemCodeIndex {
+    private int[] counts = new int[16];
+    private int[] firstRows = new int[16];
+    private int[][] lists = new int[16][];
+    private int duplicateCodes;
+
+    /**
+     * Adds a row to the rows of an item code.
+     */
+    void add(int id, int row) {
+        ensureId(id);
+        int count = counts[id];
+        if (count == 0) {
+            firstRows[id] = row;
+            counts[id] = 1;
+            return;
+        }
+        int[] list = lists[id];
+        if (list == null) {
+            list = new int[4];
+            list[0] = firstRows[id];
+            lists[id] = list;
+            duplicateCodes++;
+        } else if (count == list.length) {
+            list = Arrays.copyOf(list, count * 2);
+            lists[id] = list;
+        }
+        int pos = count;
+        if (list[count - 1] > row) {
+            // Only edits insert before the end; imports always append
+            pos = -Arrays.binarySearch(list, 0, count, row) - 1;
+            System.arraycopy(list, pos, list, pos + 1, count - pos);
+        }
+        list[pos] = row;
+        counts[id] = count + 1;
+        firstRows[id] = list[0];
+    }
+
+    /**
+     * Moves a row whose item code was edited to the rows of its new item code.
+     */
+    void change(int row, int oldId, int newId) {
+        if (oldId != newId) {
+            delete(oldId, row);
+            add(newId, row);
+        }
+    }
+
+    /**
+     * Removes a row and shifts the rows after it down by one.
+     */
+    void remove(int id, int row) {
+        delete(id, row);
+        for (int code = 0; code < counts.length; code++) {
+            int count = counts[code];
+            if (count == 1) {
+                if (firstRows[code] > row) {
+                    firstRows[code]--;
+                }
+            } else if (count > 1) {
+                int[] list = lists[code];
+                int pos = -Arrays.binarySearch(list, 0, count, row) - 1;
+                for (int i = pos; i < count; i++) {
+                    list[i]--;
+                }
+                firstRows[code] = list[0];
+            }
+        }
+    }
+
+    /**
+     * Removes every marked row and renumbers the kept rows as the compacted store does.
+     */
+    void removeRows(RowRanks marked) {
+        for (int code = 0; code < counts.length; code++) {
+            int count = counts[code];
+            if (count == 1) {
+                int row = firstRows[code];
+                if (marked.isMarked(row)) {
+                    counts[code] = 0;
+                } else {
+                    firstRows[code] = row - marked.markedBefore(row);
+                }
+            } else if (count > 1) {
+                int[] list = lists[code];
+                int kept = 0;
+                for (int i = 0; i < count; i++) {
+                    int row = list[i];
+                    if (!marked.isMarked(row)) {
+                        list[kept++] = row - marked.markedBefore(row);
+                    }
+                }
+                counts[code] = kept;
+                if (kept > 0) {
+                    firstRows[code] = list[0];
+                }
+                if (kept < 2) {
+                    lists[code] = null;
+                    duplicateCodes--;
+                }
+            }
+        }
+    }
+
+    /**
+     * Forgets every row.
+     */
+    void clear() {
+        Arrays.fill(counts, 0);
+        Arrays.fill(lists, null);
+        duplicateCodes = 0;
+    }
+
+    /**
+     * @return The number of rows holding the item code
+     */
+    int count(int id) {
+        return id >= 0 && id < counts.length ? counts[id] : 0;
+    }
+
+    /**
+     * @return The first row holding the item code, or -1 if there is none
+     */
+    int first(int id) {
+        return count(id) > 0 ? firstRows[id] : -1;
+    }
+
+    /**
+     * @return The rows holding the item code in ascending order
+     */
+    int[] rows(int id) {
+        int count = count(id);
+        if (count == 0) {
+            return new int[0];
+        }
+        return count == 1 ? new int[] {firstRows[id]} : Arrays.copyOf(lists[id], count);
+    }
+
+    /**
+     * @return The number of item codes held by more than one row
+     */
+    int duplicateCodeCount() {
+        return duplicateCodes;
+    }
+
+    /**
+     * @return The largest id the index has room for, plus one
+     */
+    int idLimit() {
+        return counts.length;
+    }
+
+    private void delete(int id, int row) {
+        int count = counts[id];
+        if (count == 1) {
+            counts[id] = 0;
+            return;
+        }
+        int[] list = lists[id];
+        int pos = Arrays.binarySearch(list, 0, count, row);
+        System.arraycopy(list, pos + 1, list, pos, count - pos - 1);
+        count--;
+        counts[id] = count;
+        firstRows[id] = list[0];
+        if (count == 1) {
+            lists[id] = null;
+            duplicateCodes--;
+        }
+    }
+
+    private void ensureId(int id) {
+        if (id >= counts.length) {
+            int length = Math.max(id + 1, counts.length * 2);
+            counts = Arrays.copyOf(counts, length);
+            firstRows = Arrays.copyOf(firstRows, length);
+            lists = Arrays.copyOf(lists, length);
+        }
+    }
+}
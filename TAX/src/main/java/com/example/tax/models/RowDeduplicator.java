@@ -0,0 +1,288 @@
+package com.example.tax.models;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Finds rows that repeat rows of other sources, e.g. the sales of a bill that appear both in its
+ * ttf_&lt;id&gt;.csv and in ttf_all_bills.csv. Two rows are the same if their item code, cost, sale price,
+ * discount and checksum are equal. A row repeated within one source is kept, since a bill can sell the same
+ * item twice: the rows kept hold as many copies of a row as the source with the most copies of it, and a
+ * source's n-th copy of a row is only a duplicate if n copies are kept already.
+ * Sources are numbered by the caller, e.g. one per file, and can be added to at any time, so the rows a
+ * watched folder appends are checked against everything kept so far. A source that is read again from the
+ * top is removed first; see removeSource().
+ * The distinct rows are kept in an open-addressing hash table with linear probing. Each entry holds the
+ * row's values, sharing the item code and checksum strings of the store it came from, so the stores may
+ * change after they are added. A second table counts the copies each source has and has kept.
+ */
+public class RowDeduplicator {
+    private static final int EMPTY = 0;
+    private static final long NO_PAIR = -1;
+
+    // Row hash, or EMPTY for a free slot; hashes are never EMPTY
+    private int[] hashes;
+    private int[] ids;
+    // Values and copies kept over all sources of each distinct row, by id
+    private String[] itemCodes;
+    private long[] costCents;
+    private long[] salePriceCents;
+    private long[] discountUnits;
+    private String[] checksums;
+    private int[] kept;
+    private int distinct;
+
+    // (id << 32) | source, or NO_PAIR for a free slot, and the copies the source has and has kept
+    private long[] pairs;
+    private int[] pairSeen;
+    private int[] pairKept;
+    private int pairsUsed;
+    // Ids whose copies were forgotten by removeSource() and may be missing
+    private final BitSet removed = new BitSet();
+
+    /**
+     * Creates a deduplicator sized for the given number of distinct rows. It grows as needed.
+     *
+     * @param expectedRows The expected number of distinct rows over all sources
+     */
+    public RowDeduplicator(int expectedRows) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedRows) * 2 - 1) * 2;
+        allocateRows(capacity);
+        allocatePairs(capacity);
+    }
+
+    /**
+     * Adds rows of a source and marks those that are already kept.
+     *
+     * @param store The rows, e.g. a file or the lines appended to it
+     * @param source The source the rows belong to
+     * @return The duplicate rows of the store
+     */
+    public BitSet add(TransactionStore store, int source) {
+        int[] itemCodeHashes = stringHashes(store.getItemCodes());
+        int[] checksumHashes = stringHashes(store.getChecksums());
+
+        BitSet duplicates = new BitSet();
+        for (int row = 0; row < store.size(); row++) {
+            int hash = hash(itemCodeHashes[store.getItemCodeId(row)], store.getCostCents(row),
+                    store.getSalePriceCents(row), store.getDiscountUnits(row), checksumHashes[store.getChecksumId(row)]);
+            int id = findOrInsert(hash, store, row);
+            int pair = findOrInsertPair((long) id << 32 | (source & 0xFFFFFFFFL));
+            if (++pairSeen[pair] <= kept[id]) {
+                duplicates.set(row);
+            } else {
+                pairKept[pair]++;
+                kept[id]++;
+            }
+        }
+        return duplicates;
+    }
+
+    /**
+     * Forgets the rows of a source, e.g. a file that was rewritten and whose rows were removed, so it can be
+     * added again from the top. Other sources may have copies of its rows that were dropped as duplicates;
+     * once the source is added again, takeMissingRows() returns those it no longer has.
+     *
+     * @param source The source to forget
+     */
+    public void removeSource(int source) {
+        for (int pair = 0; pair < pairs.length; pair++) {
+            if (pairs[pair] != NO_PAIR && (int) pairs[pair] == source) {
+                int id = (int) (pairs[pair] >>> 32);
+                kept[id] -= pairKept[pair];
+                removed.set(id);
+                // The entry stays, so the probe sequences through it are not broken
+                pairSeen[pair] = 0;
+                pairKept[pair] = 0;
+            }
+        }
+    }
+
+    /**
+     * Returns the copies of rows that sources have but that are no longer kept since removeSource(),
+     * and counts them as kept by the source they came from.
+     *
+     * @return The rows to add back, by source
+     */
+    public Map<Integer, TransactionStore> takeMissingRows() {
+        Map<Integer, TransactionStore> missingRows = new TreeMap<>();
+        if (removed.isEmpty()) {
+            return missingRows;
+        }
+        for (int pair = 0; pair < pairs.length; pair++) {
+            if (pairs[pair] == NO_PAIR) {
+                continue;
+            }
+            int id = (int) (pairs[pair] >>> 32);
+            int missing = pairSeen[pair] - kept[id];
+            if (missing > 0 && removed.get(id)) {
+                TransactionStore rows = missingRows.computeIfAbsent((int) pairs[pair], source -> new TransactionStore());
+                for (int i = 0; i < missing; i++) {
+                    rows.addCents(itemCodes[id], costCents[id], salePriceCents[id], discountUnits[id], checksums[id]);
+                }
+                pairKept[pair] += missing;
+                kept[id] += missing;
+            }
+        }
+        removed.clear();
+        return missingRows;
+    }
+
+    /**
+     * @return The number of distinct rows seen so far
+     */
+    public int distinctRows() {
+        return distinct;
+    }
+
+    private int findOrInsert(int hash, TransactionStore store, int row) {
+        int mask = hashes.length - 1;
+        int slot = hash & mask;
+        while (hashes[slot] != EMPTY) {
+            if (hashes[slot] == hash && sameRow(ids[slot], store, row)) {
+                return ids[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        int id = distinct++;
+        hashes[slot] = hash;
+        ids[slot] = id;
+        if (id == kept.length) {
+            growRows();
+        }
+        itemCodes[id] = store.getItemCode(row);
+        costCents[id] = store.getCostCents(row);
+        salePriceCents[id] = store.getSalePriceCents(row);
+        discountUnits[id] = store.getDiscountUnits(row);
+        checksums[id] = store.getChecksum(row);
+        if (distinct * 2 > hashes.length) {
+            rehashRows();
+        }
+        return id;
+    }
+
+    private boolean sameRow(int id, TransactionStore store, int row) {
+        return costCents[id] == store.getCostCents(row)
+                && salePriceCents[id] == store.getSalePriceCents(row)
+                && discountUnits[id] == store.getDiscountUnits(row)
+                && itemCodes[id].equals(store.getItemCode(row))
+                && checksums[id].equals(store.getChecksum(row));
+    }
+
+    private int findOrInsertPair(long key) {
+        int mask = pairs.length - 1;
+        int slot = mix(key) & mask;
+        while (pairs[slot] != NO_PAIR) {
+            if (pairs[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        pairs[slot] = key;
+        if (++pairsUsed * 2 > pairs.length) {
+            growPairs();
+            return findOrInsertPair(key);
+        }
+        return slot;
+    }
+
+    private void growRows() {
+        int capacity = kept.length * 2;
+        itemCodes = Arrays.copyOf(itemCodes, capacity);
+        costCents = Arrays.copyOf(costCents, capacity);
+        salePriceCents = Arrays.copyOf(salePriceCents, capacity);
+        discountUnits = Arrays.copyOf(discountUnits, capacity);
+        checksums = Arrays.copyOf(checksums, capacity);
+        kept = Arrays.copyOf(kept, capacity);
+    }
+
+    private void rehashRows() {
+        int[] oldHashes = hashes;
+        int[] oldIds = ids;
+        hashes = new int[oldHashes.length * 2];
+        ids = new int[oldHashes.length * 2];
+        int mask = hashes.length - 1;
+        for (int i = 0; i < oldHashes.length; i++) {
+            if (oldHashes[i] == EMPTY) {
+                continue;
+            }
+            int slot = oldHashes[i] & mask;
+            while (hashes[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            hashes[slot] = oldHashes[i];
+            ids[slot] = oldIds[i];
+        }
+    }
+
+    private void growPairs() {
+        long[] oldPairs = pairs;
+        int[] oldSeen = pairSeen;
+        int[] oldKept = pairKept;
+        allocatePairs(oldPairs.length * 2);
+        int mask = pairs.length - 1;
+        for (int i = 0; i < oldPairs.length; i++) {
+            if (oldPairs[i] == NO_PAIR) {
+                continue;
+            }
+            int slot = mix(oldPairs[i]) & mask;
+            while (pairs[slot] != NO_PAIR) {
+                slot = (slot + 1) & mask;
+            }
+            pairs[slot] = oldPairs[i];
+            pairSeen[slot] = oldSeen[i];
+            pairKept[slot] = oldKept[i];
+        }
+    }
+
+    private void allocateRows(int capacity) {
+        hashes = new int[capacity];
+        ids = new int[capacity];
+        itemCodes = new String[capacity / 2];
+        costCents = new long[capacity / 2];
+        salePriceCents = new long[capacity / 2];
+        discountUnits = new long[capacity / 2];
+        checksums = new String[capacity / 2];
+        kept = new int[capacity / 2];
+    }
+
+    private void allocatePairs(int capacity) {
+        pairs = new long[capacity];
+        Arrays.fill(pairs, NO_PAIR);
+        pairSeen = new int[capacity];
+        pairKept = new int[capacity];
+    }
+
+    private static int[] stringHashes(StringTable table) {
+        int[] hashes = new int[table.size()];
+        for (int id = 0; id < hashes.length; id++) {
+            hashes[id] = table.get(id).hashCode();
+        }
+        return hashes;
+    }
+
+    /**
+     * Mixes the fields with the 64-bit finalizer of MurmurHash3, so rows that differ in one field
+     * spread over the whole table. Never returns EMPTY.
+     */
+    private static int hash(int itemCodeHash, long cost, long salePrice, long discount, int checksumHash) {
+        long h = itemCodeHash * 0x9E3779B97F4A7C15L;
+        h = (h ^ cost) * 0xC2B2AE3D27D4EB4FL;
+        h = (h ^ salePrice) * 0x165667B19E3779F9L;
+        h = (h ^ discount) * 0x9E3779B97F4A7C15L;
+        h ^= checksumHash;
+        int hash = mix(h);
+        return hash == EMPTY ? 1 : hash;
+    }
+
+    private static int mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+}
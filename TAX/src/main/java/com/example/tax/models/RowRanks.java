@@ -0,0 +1,37 @@
+package com.example.tax.models;
+
+import java.util.BitSet;
+
+/**
+ * Rank lookups over a set of marked rows: how many marked rows come before a row,
+ * i.e. how far a kept row moves down when the marked rows are removed.
+ * Answers in O(1) from per-word prefix counts of the bitset.
+ */
+final class RowRanks {
+    private final long[] words;
+    private final int[] markedBeforeWord;
+
+    RowRanks(BitSet marked) {
+        words = marked.toLongArray();
+        markedBeforeWord = new int[words.length + 1];
+        for (int i = 0; i < words.length; i++) {
+            markedBeforeWord[i + 1] = markedBeforeWord[i] + Long.bitCount(words[i]);
+        }
+    }
+
+    boolean isMarked(int row) {
+        int word = row >>> 6;
+        return word < words.length && (words[word] & (1L << row)) != 0;
+    }
+
+    /**
+     * @return The number of marked rows before the row
+     */
+    int markedBefore(int row) {
+        int word = row >>> 6;
+        if (word >= words.length) {
+            return markedBeforeWord[words.length];
+        }
+        return markedBeforeWord[word] + Long.bitCount(words[word] & ((1L << row) - 1));
+    }
+}
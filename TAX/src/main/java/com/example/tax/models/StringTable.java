@@ -0,0 +1,61 @@
+package com.example.tax.models;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Deduplicating table of strings.
+ * Each distinct value is stored once and identified by a dense int id,
+ * so columns of repeated strings (item codes, checksums) can be held as int[].
+ */
+public class StringTable {
+    private final Map<String, Integer> ids = new HashMap<>();
+    private String[] values = new String[16];
+    private int size;
+
+    /**
+     * Returns the id of a value, adding it to the table if it is new.
+     *
+     * @param value The string to intern
+     * @return The id of the value
+     */
+    public int intern(String value) {
+        Integer id = ids.get(value);
+        if (id != null) {
+            return id;
+        }
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size] = value;
+        ids.put(value, size);
+        return size++;
+    }
+
+    /**
+     * Looks up the id of a value without adding it.
+     *
+     * @param value The string to look up
+     * @return The id, or -1 if the value is not in the table
+     */
+    public int find(String value) {
+        Integer id = ids.get(value);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @param id An id returned by intern()
+     * @return The string with that id
+     */
+    public String get(int id) {
+        return values[id];
+    }
+
+    /**
+     * @return The number of distinct strings in the table
+     */
+    public int size() {
+        return size;
+    }
+}
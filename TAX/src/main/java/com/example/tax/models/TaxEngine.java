@@ -0,0 +1,143 @@
+package com.example.tax.models;
+
+import com.example.tax.utils.MoneyUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Calculates the tax of one or more rate schedules from the running profit totals of transaction
+ * stores, without reading any rows. Adding a store reads its total profit and the profit of each
+ * of its item codes from TransactionAggregates and folds the item codes into families, so it costs
+ * one step per distinct item code however many records the store holds.
+ * sweep() evaluates many schedules in one pass over the families, so comparing scenarios costs
+ * little more than calculating one.
+ */
+public class TaxEngine {
+    private long totalProfitCents;
+    private final Map<String, Integer> familyIndexes = new HashMap<>();
+    private String[] families = new String[16];
+    private long[] familyProfitCents = new long[16];
+
+    /**
+     * Adds the profit of a store. Validates any rows whose validity is not known yet.
+     *
+     * @param store The store whose profit is taxed
+     * @return This engine
+     */
+    public TaxEngine add(TransactionStore store) {
+        TransactionAggregates aggregates = store.getAggregates();
+        totalProfitCents += aggregates.getTotalProfitCents();
+        StringTable itemCodes = store.getItemCodes();
+        for (int id = 0; id < itemCodes.size(); id++) {
+            long profitCents = aggregates.getItemCodeProfitCents(id);
+            if (profitCents != 0) {
+                addToFamily(GroupAggregator.familyOf(itemCodes.get(id)), profitCents);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Adds the profit of a family, e.g. from totals computed elsewhere.
+     *
+     * @param family The item family
+     * @param profitCents The profit in cents
+     * @return This engine
+     */
+    public TaxEngine addFamilyProfit(String family, long profitCents) {
+        totalProfitCents += profitCents;
+        addToFamily(family, profitCents);
+        return this;
+    }
+
+    private void addToFamily(String family, long profitCents) {
+        Integer index = familyIndexes.get(family);
+        if (index == null) {
+            index = familyIndexes.size();
+            familyIndexes.put(family, index);
+            if (index == families.length) {
+                families = Arrays.copyOf(families, index * 2);
+                familyProfitCents = Arrays.copyOf(familyProfitCents, index * 2);
+            }
+            families[index] = family;
+        }
+        familyProfitCents[index] += profitCents;
+    }
+
+    public long getTotalProfitCents() { return totalProfitCents; }
+
+    /**
+     * @param schedule The schedule to apply
+     * @return The tax of the schedule
+     */
+    public Result calculate(TaxSchedule schedule) {
+        return sweep(List.of(schedule)).get(0);
+    }
+
+    /**
+     * Calculates the tax of every schedule. The families are visited once for all schedules, and
+     * only when some schedule has family rates.
+     *
+     * @param schedules The schedules to compare
+     * @return One result per schedule, in the same order
+     */
+    public List<Result> sweep(List<TaxSchedule> schedules) {
+        int count = schedules.size();
+        long[] familyTaxCents = new long[count];
+        long[] familyRatedCents = new long[count];
+        if (schedules.stream().anyMatch(TaxSchedule::hasFamilyRates)) {
+            int familyCount = familyIndexes.size();
+            for (int f = 0; f < familyCount; f++) {
+                for (int s = 0; s < count; s++) {
+                    Double rate = schedules.get(s).getFamilyRate(families[f]);
+                    if (rate != null) {
+                        familyTaxCents[s] += MoneyUtil.percentOf(familyProfitCents[f], rate);
+                        familyRatedCents[s] += familyProfitCents[f];
+                    }
+                }
+            }
+        }
+
+        List<Result> results = new ArrayList<>(count);
+        for (int s = 0; s < count; s++) {
+            TaxSchedule schedule = schedules.get(s);
+            long taxCents = familyTaxCents[s] + schedule.bracketTaxCents(totalProfitCents - familyRatedCents[s]);
+            results.add(new Result(schedule, totalProfitCents, taxCents));
+        }
+        return results;
+    }
+
+    /**
+     * The tax of one schedule.
+     */
+    public static class Result {
+        private final TaxSchedule schedule;
+        private final long profitCents;
+        private final long taxCents;
+
+        Result(TaxSchedule schedule, long profitCents, long taxCents) {
+            this.schedule = schedule;
+            this.profitCents = profitCents;
+            this.taxCents = taxCents;
+        }
+
+        public TaxSchedule getSchedule() { return schedule; }
+
+        public long getProfitCents() { return profitCents; }
+
+        public long getTaxCents() { return taxCents; }
+
+        public double getTax() { return MoneyUtil.toDouble(taxCents); }
+
+        /**
+         * @return The tax as a percentage of the profit, or 0 when there is no profit
+         */
+        public double getEffectiveRate() {
+            return profitCents == 0 ? 0 : 100.0 * taxCents / profitCents;
+        }
+    }
+}
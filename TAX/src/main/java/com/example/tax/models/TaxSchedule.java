@@ -0,0 +1,185 @@
+package com.example.tax.models;
+
+import com.example.tax.utils.MoneyUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A tax rate schedule: marginal brackets over the total profit, plus flat rates for item families
+ * (see GroupAggregator.familyOf) that are taxed on their own. The profit of a family with its own
+ * rate is taken out of the total before the brackets are applied.
+ * Schedules are written as comma separated entries, e.g. "5, 100000:10, 500000:15, Cake=8":
+ * a bare rate applies from 0, "threshold:rate" applies to the profit above the threshold in LKR,
+ * and "Family=rate" sets a family's rate. A single number such as "10" is a flat rate, as before.
+ * Profit below the first threshold is tax free, and a loss is taxed at the first bracket's rate,
+ * so it reduces the tax the same way a flat rate does.
+ */
+public class TaxSchedule {
+    private final String name;
+    private final long[] thresholdCents;
+    private final double[] rates;
+    private final Map<String, Double> familyRates;
+
+    private TaxSchedule(String name, long[] thresholdCents, double[] rates, Map<String, Double> familyRates) {
+        this.name = name;
+        this.thresholdCents = thresholdCents;
+        this.rates = rates;
+        this.familyRates = familyRates;
+    }
+
+    /**
+     * Creates a schedule with one rate for all profit.
+     *
+     * @param rate The tax rate in percent
+     * @return The schedule
+     */
+    public static TaxSchedule flat(double rate) {
+        checkRate(rate, String.valueOf(rate));
+        return new TaxSchedule(String.valueOf(rate), new long[]{0}, new double[]{rate}, Collections.emptyMap());
+    }
+
+    /**
+     * Parses a schedule written as described above.
+     *
+     * @param spec The schedule, e.g. "5, 100000:10, Cake=8"
+     * @return The schedule
+     * @throws IllegalArgumentException If an entry is malformed, a threshold or family is repeated,
+     *                                  or no entry applies to the profit outside the family rates
+     */
+    public static TaxSchedule parse(String spec) {
+        TreeMap<Long, Double> brackets = new TreeMap<>();
+        Map<String, Double> familyRates = new HashMap<>();
+        for (String entry : spec.split(",", -1)) {
+            entry = entry.trim();
+            if (entry.isEmpty()) {
+                throw new IllegalArgumentException("Empty entry in tax schedule: " + spec.trim());
+            }
+            int equals = entry.indexOf('=');
+            int colon = entry.indexOf(':');
+            if (equals >= 0) {
+                String family = entry.substring(0, equals).trim();
+                if (family.isEmpty()) {
+                    throw new IllegalArgumentException("Missing family name: " + entry);
+                }
+                if (familyRates.put(family, parseRate(entry.substring(equals + 1), entry)) != null) {
+                    throw new IllegalArgumentException("Family rate given twice: " + family);
+                }
+            } else {
+                long threshold = colon >= 0 ? parseThreshold(entry.substring(0, colon), entry) : 0;
+                double rate = parseRate(colon >= 0 ? entry.substring(colon + 1) : entry, entry);
+                if (brackets.put(threshold, rate) != null) {
+                    throw new IllegalArgumentException("Threshold given twice: " + entry);
+                }
+            }
+        }
+        if (brackets.isEmpty()) {
+            throw new IllegalArgumentException("No rate for the profit outside the family rates: " + spec.trim());
+        }
+        // Profit below the first threshold is tax free
+        brackets.putIfAbsent(0L, 0.0);
+
+        long[] thresholdCents = new long[brackets.size()];
+        double[] rates = new double[brackets.size()];
+        int i = 0;
+        for (Map.Entry<Long, Double> bracket : brackets.entrySet()) {
+            thresholdCents[i] = bracket.getKey();
+            rates[i] = bracket.getValue();
+            i++;
+        }
+        return new TaxSchedule(spec.trim(), thresholdCents, rates, familyRates);
+    }
+
+    /**
+     * Parses several schedules separated by semicolons, e.g. "8; 10; 5, 100000:15" to compare three.
+     *
+     * @param specs The schedules
+     * @return The schedules in the order given
+     * @throws IllegalArgumentException If a schedule is malformed or none is given
+     */
+    public static List<TaxSchedule> parseAll(String specs) {
+        List<TaxSchedule> schedules = new ArrayList<>();
+        for (String spec : specs.split(";")) {
+            if (!spec.isBlank()) {
+                schedules.add(parse(spec));
+            }
+        }
+        if (schedules.isEmpty()) {
+            throw new IllegalArgumentException("No tax schedule given");
+        }
+        return schedules;
+    }
+
+    private static long parseThreshold(String text, String entry) {
+        double threshold;
+        try {
+            threshold = Double.parseDouble(text.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid threshold: " + entry);
+        }
+        if (!(threshold >= 0) || Double.isInfinite(threshold)) {
+            throw new IllegalArgumentException("Invalid threshold: " + entry);
+        }
+        return MoneyUtil.toCents(threshold);
+    }
+
+    private static double parseRate(String text, String entry) {
+        double rate;
+        try {
+            rate = Double.parseDouble(text.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid rate: " + entry);
+        }
+        checkRate(rate, entry);
+        return rate;
+    }
+
+    private static void checkRate(double rate, String entry) {
+        if (Double.isNaN(rate) || Double.isInfinite(rate)) {
+            throw new IllegalArgumentException("Invalid rate: " + entry);
+        }
+    }
+
+    /**
+     * Calculates the tax on profit that no family rate applies to, bracket by bracket.
+     * Each bracket's share is rounded half-up to the cent.
+     *
+     * @param profitCents The profit in cents
+     * @return The tax in cents
+     */
+    public long bracketTaxCents(long profitCents) {
+        if (profitCents <= 0) {
+            return MoneyUtil.percentOf(profitCents, rates[0]);
+        }
+        long tax = 0;
+        for (int i = 0; i < thresholdCents.length && profitCents > thresholdCents[i]; i++) {
+            long upper = i + 1 < thresholdCents.length ? Math.min(profitCents, thresholdCents[i + 1]) : profitCents;
+            tax += MoneyUtil.percentOf(upper - thresholdCents[i], rates[i]);
+        }
+        return tax;
+    }
+
+    /**
+     * @param family An item family
+     * @return The family's own rate in percent, or null if its profit goes through the brackets
+     */
+    public Double getFamilyRate(String family) {
+        return familyRates.get(family);
+    }
+
+    public boolean hasFamilyRates() { return !familyRates.isEmpty(); }
+
+    /**
+     * @return The schedule as it was written
+     */
+    public String getName() { return name; }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
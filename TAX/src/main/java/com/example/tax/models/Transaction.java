@@ -1,6 +1,6 @@
 package com.example.tax.models;
 
-import com.example.tax.utils.ChecksumUtil;
+import com.example.tax.utils.MoneyUtil;
 import javafx.beans.property.SimpleDoubleProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
@@ -12,6 +12,10 @@ import javafx.beans.property.DoubleProperty;
  * Provides methods to validate checksums and calculate derived values.
  */
 public class Transaction {
+    private static final byte VALIDITY_UNKNOWN = 0;
+    private static final byte VALIDITY_VALID = 1;
+    private static final byte VALIDITY_INVALID = 2;
+
     private final SimpleStringProperty itemCode;
     private final SimpleDoubleProperty cost;
     private final SimpleDoubleProperty salePrice;
@@ -20,6 +24,9 @@ public class Transaction {
     private final SimpleDoubleProperty discountedPrice;
     private final SimpleDoubleProperty profit;
 
+    // Cached result of isValidChecksum(), cleared whenever one of its inputs changes
+    private byte validity = VALIDITY_UNKNOWN;
+
     /**
      * Constructs a new Transaction with the specified attributes.
      *
@@ -30,11 +37,26 @@ public class Transaction {
      * @param checksum The checksum value from the transaction file
      */
     public Transaction(String itemCode, double cost, double salePrice, double discount, String checksum) {
-        this.itemCode = new SimpleStringProperty(itemCode);
-        this.cost = new SimpleDoubleProperty(cost);
-        this.salePrice = new SimpleDoubleProperty(salePrice);
-        this.discount = new SimpleDoubleProperty(discount);
-        this.checksum = new SimpleStringProperty(checksum);
+        this.itemCode = new SimpleStringProperty(itemCode) {
+            @Override
+            protected void invalidated() { invalidateValidity(); }
+        };
+        this.cost = new SimpleDoubleProperty(cost) {
+            @Override
+            protected void invalidated() { invalidateValidity(); }
+        };
+        this.salePrice = new SimpleDoubleProperty(salePrice) {
+            @Override
+            protected void invalidated() { invalidateValidity(); }
+        };
+        this.discount = new SimpleDoubleProperty(discount) {
+            @Override
+            protected void invalidated() { invalidateValidity(); }
+        };
+        this.checksum = new SimpleStringProperty(checksum) {
+            @Override
+            protected void invalidated() { invalidateValidity(); }
+        };
         this.discountedPrice = new SimpleDoubleProperty(0.0);
         this.profit = new SimpleDoubleProperty(0.0);
         calculateDiscountedPrice();
@@ -46,32 +68,41 @@ public class Transaction {
      * 1. Item code format (no special characters except underscore)
      * 2. No negative values for cost or sale price
      * 3. Checksum matches the calculated value
+     * The result is cached until the item code, cost, sale price, discount or checksum changes,
+     * so repeated calls from table cells and record counts cost nothing.
      *
      * @return true if the transaction is valid, false otherwise
      */
     public boolean isValidChecksum() {
-        // Check for special characters in item code (except underscore)
-        String itemCode = getItemCode();
-        if (itemCode.matches(".*[!@#$%^&*()+=\\[\\]{}|;:'\",.<>/?`~-].*")) {
-            return false;
+        if (validity == VALIDITY_UNKNOWN) {
+            validity = computeValidity() ? VALIDITY_VALID : VALIDITY_INVALID;
         }
+        return validity == VALIDITY_VALID;
+    }
 
-        // Check for negative values
-        if (getCost() < 0 || getSalePrice() < 0) {
-            return false;
-        }
+    /**
+     * Clears the cached validity so the next isValidChecksum() call re-validates.
+     */
+    private void invalidateValidity() {
+        validity = VALIDITY_UNKNOWN;
+    }
 
+    private boolean computeValidity() {
         // Calculate discounted price first to ensure it's up to date
         calculateDiscountedPrice();
 
-        // Use the utility class to format transaction line and calculate checksum
-        String transactionLine = ChecksumUtil.formatTransactionLine(
-                getItemCode(), getCost(), getSalePrice(), getDiscount(), getDiscountedPrice());
-
-        int calculatedChecksum = ChecksumUtil.calculateChecksum(transactionLine);
+        return TransactionValidator.isValid(getItemCode(), getCost(), getSalePrice(), getDiscount(),
+                getDiscountedPrice(), getChecksum());
+    }
 
-        // Compare with provided checksum
-        return String.valueOf(calculatedChecksum).equals(getChecksum());
+    /**
+     * Seeds the validity cache with a result already known to the caller,
+     * e.g. when a view is created for a row whose validity the store has computed.
+     *
+     * @param valid The known validity of this transaction's current values
+     */
+    void seedValidity(boolean valid) {
+        validity = valid ? VALIDITY_VALID : VALIDITY_INVALID;
     }
 
     /**
@@ -79,17 +110,16 @@ public class Transaction {
      * Updates the discountedPrice property.
      */
     private void calculateDiscountedPrice() {
-        double discounted = getSalePrice() - (getSalePrice() * (getDiscount() / 100));
-        setDiscountedPrice(discounted);
+        setDiscountedPrice(TransactionValidator.calculateDiscountedPrice(getSalePrice(), getDiscount()));
     }
 
     /**
-     * Calculates the profit as the difference between discounted price and cost.
+     * Calculates the profit as the difference between discounted price and cost, in whole cents.
      * Updates the profit property.
      */
     private void calculateProfit() {
-        double calculatedProfit = getDiscountedPrice() - getCost();
-        setProfit(calculatedProfit);
+        long profitCents = MoneyUtil.toCents(getDiscountedPrice()) - MoneyUtil.toCents(getCost());
+        setProfit(MoneyUtil.toDouble(profitCents));
     }
 
     // Getters and setters for JavaFX properties
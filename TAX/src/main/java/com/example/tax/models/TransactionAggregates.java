@@ -0,0 +1,118 @@
+package com.example.tax.models;
+
+import com.example.tax.utils.MoneyUtil;
+
+import java.util.Arrays;
+
+/**
+ * Running totals over a transaction set: record counts by validity, the total profit and the
+ * profit of each item code, indexed by the store's item code id.
+ * Kept up to date through add/remove/update deltas instead of rescanning all rows,
+ * so adding, editing or deleting one record costs O(1).
+ * The profit is summed in whole cents, so long chains of additions and removals
+ * are exact and the total does not depend on the order of operations.
+ */
+public class TransactionAggregates {
+    private int totalCount;
+    private int validCount;
+    private long profitCents;
+    private long[] itemCodeProfitCents = new long[16];
+
+    /**
+     * Accounts for a new record.
+     *
+     * @param profitCents The record's profit in cents
+     * @param valid Whether the record is valid
+     */
+    public void add(long profitCents, boolean valid) {
+        totalCount++;
+        if (valid) validCount++;
+        this.profitCents += profitCents;
+    }
+
+    /**
+     * Accounts for a removed record.
+     *
+     * @param profitCents The record's profit in cents
+     * @param valid Whether the record was valid
+     */
+    public void remove(long profitCents, boolean valid) {
+        totalCount--;
+        if (valid) validCount--;
+        this.profitCents -= profitCents;
+    }
+
+    /**
+     * Accounts for a record whose values changed.
+     *
+     * @param oldProfitCents The profit in cents before the change
+     * @param oldValid The validity before the change
+     * @param newProfitCents The profit in cents after the change
+     * @param newValid The validity after the change
+     */
+    public void update(long oldProfitCents, boolean oldValid, long newProfitCents, boolean newValid) {
+        remove(oldProfitCents, oldValid);
+        add(newProfitCents, newValid);
+    }
+
+    /**
+     * Accounts for a record whose validity has just been computed.
+     * Records whose validity is not known yet are counted as not valid.
+     *
+     * @param valid Whether the record turned out to be valid
+     */
+    void validated(boolean valid) {
+        if (valid) validCount++;
+    }
+
+    /**
+     * Accounts for profit added to or, when negative, taken from the records of an item code.
+     * TransactionStore calls this next to add, remove and update, which cannot see item codes.
+     *
+     * @param itemCodeId The item code id in the store's item code table
+     * @param profitCents The change in profit in cents
+     */
+    void addItemCodeProfit(int itemCodeId, long profitCents) {
+        if (itemCodeId >= itemCodeProfitCents.length) {
+            itemCodeProfitCents = Arrays.copyOf(itemCodeProfitCents, Math.max(itemCodeId + 1, itemCodeProfitCents.length * 2));
+        }
+        itemCodeProfitCents[itemCodeId] += profitCents;
+    }
+
+    /**
+     * Sets the totals saved with a snapshot of the transaction set.
+     */
+    void restore(int totalCount, int validCount, long profitCents) {
+        this.totalCount = totalCount;
+        this.validCount = validCount;
+        this.profitCents = profitCents;
+    }
+
+    /**
+     * Resets all totals to zero.
+     */
+    public void clear() {
+        totalCount = 0;
+        validCount = 0;
+        profitCents = 0;
+        Arrays.fill(itemCodeProfitCents, 0);
+    }
+
+    public int getTotalCount() { return totalCount; }
+
+    public int getValidCount() { return validCount; }
+
+    public int getInvalidCount() { return totalCount - validCount; }
+
+    public double getTotalProfit() { return MoneyUtil.toDouble(profitCents); }
+
+    public long getTotalProfitCents() { return profitCents; }
+
+    /**
+     * @param itemCodeId The item code id in the store's item code table
+     * @return The total profit in cents of the records with that item code, 0 if there are none
+     */
+    public long getItemCodeProfitCents(int itemCodeId) {
+        return itemCodeId < itemCodeProfitCents.length ? itemCodeProfitCents[itemCodeId] : 0;
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.tax.models;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary snapshot of an imported transaction set, so an unchanged source file can be reopened
+ * without parsing and validating it again.
+ * A snapshot holds the columns of a TransactionStore, its two string tables, the validity of every
+ * row as one bit and the aggregates, and is keyed by the source file's path, size and modification
+ * time. It is read through a memory mapping, and the columns are copied into the store's arrays in bulk.
+ *
+ * <p>Layout (little-endian): the header, the source path, the item code and checksum tables
+ * (count + 1 offsets followed by the UTF-8 bytes), then the columns itemCodeIds, costCents,
+ * salePriceCents, discountUnits, checksumIds and the validity bits.</p>
+ */
+public class TransactionSnapshot {
+    private static final int MAGIC = 0x54415853; // "TAXS"
+    // 2: validity follows the POS rounding of the discounted price
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 52;
+
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * Writes a snapshot of a store, replacing any previous snapshot at the same path.
+     * The rows are validated first. The file is written next to its final path and then moved
+     * into place, so a reader never sees a half-written snapshot.
+     *
+     * @param store The store to save
+     * @param file The snapshot file
+     * @param sourcePath The absolute path of the source file the rows were imported from
+     * @param sourceSize The size of the source file when it was read
+     * @param sourceModified The modification time of the source file when it was read
+     * @throws IOException If the snapshot cannot be written
+     */
+    public static void write(TransactionStore store, Path file, String sourcePath, long sourceSize,
+                             long sourceModified) throws IOException {
+        TransactionAggregates aggregates = store.getAggregates();
+        int rows = store.size();
+        byte[] path = sourcePath.getBytes(StandardCharsets.UTF_8);
+        byte[][] itemCodes = encode(store.getItemCodes());
+        byte[][] checksums = encode(store.getChecksums());
+        long size = HEADER_SIZE + path.length + tableSize(itemCodes) + tableSize(checksums)
+                + rows * (4L + 8 + 8 + 8 + 4) + validityWords(rows) * 8L;
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             Arena arena = Arena.ofConfined()) {
+            MemorySegment segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, size, arena);
+            segment.set(INT, 0, MAGIC);
+            segment.set(INT, 4, VERSION);
+            segment.set(LONG, 8, sourceSize);
+            segment.set(LONG, 16, sourceModified);
+            segment.set(INT, 24, rows);
+            segment.set(INT, 28, aggregates.getValidCount());
+            segment.set(LONG, 32, aggregates.getTotalProfitCents());
+            segment.set(INT, 40, itemCodes.length);
+            segment.set(INT, 44, checksums.length);
+            segment.set(INT, 48, path.length);
+            MemorySegment.copy(path, 0, segment, ValueLayout.JAVA_BYTE, HEADER_SIZE, path.length);
+            long pos = HEADER_SIZE + path.length;
+            pos = writeTable(segment, pos, itemCodes);
+            pos = writeTable(segment, pos, checksums);
+
+            for (int row = 0; row < rows; row++, pos += 4) segment.set(INT, pos, store.getItemCodeId(row));
+            for (int row = 0; row < rows; row++, pos += 8) segment.set(LONG, pos, store.getCostCents(row));
+            for (int row = 0; row < rows; row++, pos += 8) segment.set(LONG, pos, store.getSalePriceCents(row));
+            for (int row = 0; row < rows; row++, pos += 8) segment.set(LONG, pos, store.getDiscountUnits(row));
+            for (int row = 0; row < rows; row++, pos += 4) segment.set(INT, pos, store.getChecksumId(row));
+            for (int word = 0; word < validityWords(rows); word++, pos += 8) {
+                long bits = 0;
+                for (int row = word * 64, end = Math.min(rows, row + 64); row < end; row++) {
+                    if (store.isValid(row)) {
+                        bits |= 1L << (row & 63);
+                    }
+                }
+                segment.set(LONG, pos, bits);
+            }
+            segment.force();
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a snapshot if it was written for the given version of the source file.
+     *
+     * @param file The snapshot file
+     * @param sourcePath The absolute path of the source file
+     * @param sourceSize The current size of the source file
+     * @param sourceModified The current modification time of the source file
+     * @return The restored store, or null if the snapshot belongs to another file or an older version of it
+     * @throws IOException If the snapshot cannot be read or is damaged
+     */
+    public static TransactionStore read(Path file, String sourcePath, long sourceSize, long sourceModified)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             Arena arena = Arena.ofConfined()) {
+            MemorySegment segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+            if (segment.byteSize() < HEADER_SIZE || segment.get(INT, 0) != MAGIC) {
+                throw new IOException("Not a transaction snapshot: " + file);
+            }
+            if (segment.get(INT, 4) != VERSION || segment.get(LONG, 8) != sourceSize
+                    || segment.get(LONG, 16) != sourceModified) {
+                return null;
+            }
+            int rows = segment.get(INT, 24);
+            if (rows < 0 || rows * (4L + 8 + 8 + 8 + 4) > segment.byteSize()) {
+                throw new IOException("Damaged transaction snapshot: " + file);
+            }
+            int pathLength = segment.get(INT, 48);
+            byte[] path = segment.asSlice(HEADER_SIZE, pathLength).toArray(ValueLayout.JAVA_BYTE);
+            if (!sourcePath.equals(new String(path, StandardCharsets.UTF_8))) {
+                return null;
+            }
+
+            long pos = HEADER_SIZE + pathLength;
+            StringTable itemCodes = new StringTable();
+            pos = readTable(segment, pos, segment.get(INT, 40), itemCodes);
+            StringTable checksums = new StringTable();
+            pos = readTable(segment, pos, segment.get(INT, 44), checksums);
+
+            int capacity = Math.max(16, rows);
+            int[] itemCodeIds = new int[capacity];
+            long[] costCents = new long[capacity];
+            long[] salePriceCents = new long[capacity];
+            long[] discountUnits = new long[capacity];
+            int[] checksumIds = new int[capacity];
+            byte[] validity = new byte[capacity];
+            MemorySegment.copy(segment, INT, pos, itemCodeIds, 0, rows);
+            pos += rows * 4L;
+            MemorySegment.copy(segment, LONG, pos, costCents, 0, rows);
+            pos += rows * 8L;
+            MemorySegment.copy(segment, LONG, pos, salePriceCents, 0, rows);
+            pos += rows * 8L;
+            MemorySegment.copy(segment, LONG, pos, discountUnits, 0, rows);
+            pos += rows * 8L;
+            MemorySegment.copy(segment, INT, pos, checksumIds, 0, rows);
+            pos += rows * 4L;
+            for (int row = 0; row < rows; row++) {
+                long bits = segment.get(LONG, pos + (row >>> 6) * 8L);
+                validity[row] = (bits & (1L << (row & 63))) != 0
+                        ? TransactionStore.VALIDITY_VALID : TransactionStore.VALIDITY_INVALID;
+            }
+            pos += validityWords(rows) * 8L;
+            if (pos != segment.byteSize()) {
+                throw new IOException("Damaged transaction snapshot: " + file);
+            }
+            checkIds(itemCodeIds, rows, itemCodes.size(), file);
+            checkIds(checksumIds, rows, checksums.size(), file);
+
+            return new TransactionStore(itemCodes, checksums, rows, itemCodeIds, costCents, salePriceCents,
+                    discountUnits, checksumIds, validity, segment.get(INT, 28), segment.get(LONG, 32));
+        } catch (IndexOutOfBoundsException | IllegalArgumentException | NegativeArraySizeException e) {
+            throw new IOException("Damaged transaction snapshot: " + file, e);
+        }
+    }
+
+    private static byte[][] encode(StringTable table) {
+        byte[][] values = new byte[table.size()][];
+        for (int id = 0; id < values.length; id++) {
+            values[id] = table.get(id).getBytes(StandardCharsets.UTF_8);
+        }
+        return values;
+    }
+
+    private static long tableSize(byte[][] values) {
+        long size = (values.length + 1) * 4L;
+        for (byte[] value : values) {
+            size += value.length;
+        }
+        return size;
+    }
+
+    private static long writeTable(MemorySegment segment, long pos, byte[][] values) {
+        long bytesAt = pos + (values.length + 1) * 4L;
+        int offset = 0;
+        for (int id = 0; id < values.length; id++) {
+            segment.set(INT, pos + id * 4L, offset);
+            MemorySegment.copy(values[id], 0, segment, ValueLayout.JAVA_BYTE, bytesAt + offset, values[id].length);
+            offset += values[id].length;
+        }
+        segment.set(INT, pos + values.length * 4L, offset);
+        return bytesAt + offset;
+    }
+
+    /**
+     * Reads a string table back in id order, so interning gives every string its original id.
+     */
+    private static long readTable(MemorySegment segment, long pos, int count, StringTable table) throws IOException {
+        if (count < 0 || pos + (count + 1) * 4L > segment.byteSize()) {
+            throw new IOException("Damaged transaction snapshot table");
+        }
+        int[] offsets = new int[count + 1];
+        MemorySegment.copy(segment, INT, pos, offsets, 0, count + 1);
+        long bytesAt = pos + (count + 1) * 4L;
+        byte[] bytes = segment.asSlice(bytesAt, offsets[count]).toArray(ValueLayout.JAVA_BYTE);
+        for (int id = 0; id < count; id++) {
+            table.intern(new String(bytes, offsets[id], offsets[id + 1] - offsets[id], StandardCharsets.UTF_8));
+        }
+        if (table.size() != count) {
+            throw new IOException("Duplicate strings in transaction snapshot table");
+        }
+        return bytesAt + offsets[count];
+    }
+
+    private static void checkIds(int[] ids, int rows, int tableSize, Path file) throws IOException {
+        for (int row = 0; row < rows; row++) {
+            if (ids[row] < 0 || ids[row] >= tableSize) {
+                throw new IOException("Damaged transaction snapshot: " + file);
+            }
+        }
+    }
+
+    private static int validityWords(int rows) {
+        return (rows + 63) >>> 6;
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.tax.models;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Sort and filter engine for the transaction table, working on primitive columns.
+ * capture() copies the columns a sort needs from the store, which is cheap and must happen on the
+ * thread that owns the store; sort() then computes the display order on any thread, e.g. a background
+ * task, while the store keeps changing. Each row's key is packed with its position into a long and the
+ * longs are sorted with Arrays.parallelSort, so no key is boxed and large sorts use every core.
+ * Ties keep the store order, as the table's own stable sort did.
+ */
+public class TransactionSorter {
+
+    /** The columns the table can be sorted by. */
+    public enum Column { ITEM_CODE, COST, SALE_PRICE, DISCOUNT, DISCOUNTED_PRICE, CHECKSUM, VALIDITY, PROFIT }
+
+    /** The rows the table shows. */
+    public enum Filter { ALL, VALID, INVALID }
+
+    private static final long MAX_PACKED_KEY = Integer.MAX_VALUE;
+
+    private final Column column;
+    private final boolean ascending;
+    private final Filter filter;
+    private final int size;
+    private long[] values;
+    private int[] ids;
+    private String[] strings;
+    private boolean[] valid;
+
+    private TransactionSorter(Column column, boolean ascending, Filter filter, int size) {
+        this.column = column;
+        this.ascending = ascending;
+        this.filter = filter;
+        this.size = size;
+    }
+
+    /**
+     * Copies the columns needed to sort and filter the rows of a store.
+     * Validates any rows whose validity is not known yet.
+     *
+     * @param store The store to sort
+     * @param column The column to sort by, or null to keep the store order
+     * @param ascending Whether to sort in ascending order
+     * @param filter The rows to keep
+     * @return A sorter that no longer reads the store
+     */
+    public static TransactionSorter capture(TransactionStore store, Column column, boolean ascending, Filter filter) {
+        int size = store.size();
+        TransactionSorter sorter = new TransactionSorter(column, ascending, filter, size);
+        if (filter != Filter.ALL || column == Column.VALIDITY) {
+            store.validateAll();
+            sorter.valid = new boolean[size];
+            for (int row = 0; row < size; row++) {
+                sorter.valid[row] = store.isValid(row);
+            }
+        }
+        if (column == null) {
+            return sorter;
+        }
+        switch (column) {
+            case ITEM_CODE -> {
+                sorter.ids = new int[size];
+                for (int row = 0; row < size; row++) sorter.ids[row] = store.getItemCodeId(row);
+                sorter.strings = copyStrings(store.getItemCodes());
+            }
+            case CHECKSUM -> {
+                sorter.ids = new int[size];
+                for (int row = 0; row < size; row++) sorter.ids[row] = store.getChecksumId(row);
+                sorter.strings = copyStrings(store.getChecksums());
+            }
+            case COST, SALE_PRICE, DISCOUNT, DISCOUNTED_PRICE, PROFIT -> sorter.values = copy(store, size, column);
+            case VALIDITY -> { }
+        }
+        return sorter;
+    }
+
+    /**
+     * Computes the display order.
+     *
+     * @return The store rows to show, in display order
+     */
+    public int[] sort() {
+        int[] rows = filterRows();
+        if (column == null) {
+            return rows;
+        }
+
+        long[] keys = keys(rows);
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (long key : keys) {
+            min = Math.min(min, key);
+            max = Math.max(max, key);
+        }
+        if (rows.length > 0 && (max - min < 0 || max - min > MAX_PACKED_KEY)) {
+            // Too wide to pack next to a position; sort by the rank of each key instead
+            rankKeys(keys);
+            min = 0;
+            max = rows.length - 1;
+        }
+
+        // Key in the high half, position in the low half, so equal keys keep their order
+        long[] packed = new long[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            long key = ascending ? keys[i] - min : max - keys[i];
+            packed[i] = key << 32 | i;
+        }
+        Arrays.parallelSort(packed);
+
+        int[] sorted = new int[rows.length];
+        for (int i = 0; i < packed.length; i++) {
+            sorted[i] = rows[(int) packed[i]];
+        }
+        return sorted;
+    }
+
+    /**
+     * @return The filter this sorter applies
+     */
+    public Filter getFilter() {
+        return filter;
+    }
+
+    /**
+     * Tests whether a row of the store passes a filter, e.g. for rows appended after a sort.
+     *
+     * @param store The store holding the row
+     * @param row The row to test
+     * @param filter The filter to apply
+     * @return true if the row should be shown
+     */
+    public static boolean matches(TransactionStore store, int row, Filter filter) {
+        return switch (filter) {
+            case ALL -> true;
+            case VALID -> store.isValid(row);
+            case INVALID -> !store.isValid(row);
+        };
+    }
+
+    private int[] filterRows() {
+        int[] rows = new int[size];
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            if (filter == Filter.ALL || valid[row] == (filter == Filter.VALID)) {
+                rows[count++] = row;
+            }
+        }
+        return count == size ? rows : Arrays.copyOf(rows, count);
+    }
+
+    private long[] keys(int[] rows) {
+        long[] keys = new long[rows.length];
+        switch (column) {
+            case ITEM_CODE, CHECKSUM -> {
+                int[] ranks = stringRanks();
+                for (int i = 0; i < rows.length; i++) keys[i] = ranks[ids[rows[i]]];
+            }
+            case COST, SALE_PRICE, DISCOUNT, DISCOUNTED_PRICE, PROFIT -> {
+                for (int i = 0; i < rows.length; i++) keys[i] = values[rows[i]];
+            }
+            // "Invalid" sorts before "Valid", as the column's text did
+            case VALIDITY -> {
+                for (int i = 0; i < rows.length; i++) keys[i] = valid[rows[i]] ? 1 : 0;
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Orders the distinct strings once, by String.compareTo as the table's default comparator does,
+     * and returns the rank of every string id. Table entries are distinct, so ranks are too.
+     */
+    private int[] stringRanks() {
+        Integer[] order = new Integer[strings.length];
+        for (int id = 0; id < order.length; id++) {
+            order[id] = id;
+        }
+        Arrays.parallelSort(order, Comparator.comparing((Integer id) -> strings[id]));
+        int[] ranks = new int[strings.length];
+        for (int rank = 0; rank < order.length; rank++) {
+            ranks[order[rank]] = rank;
+        }
+        return ranks;
+    }
+
+    /**
+     * Replaces every key with its rank among the distinct keys.
+     */
+    private static void rankKeys(long[] keys) {
+        long[] distinct = keys.clone();
+        Arrays.parallelSort(distinct);
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = Arrays.binarySearch(distinct, keys[i]);
+        }
+    }
+
+    private static long[] copy(TransactionStore store, int size, Column column) {
+        long[] values = new long[size];
+        for (int row = 0; row < size; row++) {
+            values[row] = switch (column) {
+                case COST -> store.getCostCents(row);
+                case SALE_PRICE -> store.getSalePriceCents(row);
+                case DISCOUNT -> store.getDiscountUnits(row);
+                case DISCOUNTED_PRICE -> store.getDiscountedPriceCents(row);
+                case PROFIT -> store.getProfitCents(row);
+                default -> throw new IllegalArgumentException("Not a numeric column: " + column);
+            };
+        }
+        return values;
+    }
+
+    private static String[] copyStrings(StringTable table) {
+        String[] values = new String[table.size()];
+        for (int id = 0; id < values.length; id++) {
+            values[id] = table.get(id);
+        }
+        return values;
+    }
+}
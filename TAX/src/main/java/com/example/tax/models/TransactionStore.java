@@ -0,0 +1,632 @@
+package com.example.tax.models;
+
+import com.example.tax.events.BatchValidationEvent;
+import com.example.tax.utils.MoneyUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * Columnar store of transaction records and the system of record for an imported transaction set.
+ * Each field is held in a primitive array indexed by row, and item codes and checksums are
+ * deduplicated through string tables, so a row costs a few dozen bytes instead of a
+ * Transaction with seven JavaFX properties. Money is held in fixed-point (cents, and discount
+ * units of 1/10,000th of a percent, see MoneyUtil), so the discounted price, profit, checksum
+ * and totals are all exact integer math. The discounted price is computed once when a row is
+ * written and kept in its own column, so reading it or the profit is an array load, and
+ * validity is computed once per row and cached until the row changes.
+ * Appended rows are validated in batches (see validateAll), with their checksums computed
+ * by BatchChecksum over canonical lines; item code rules and checksum values are evaluated
+ * once per distinct string rather than once per row.
+ * Record counts, the total profit and the profit of each item code are maintained incrementally in
+ * TransactionAggregates, and the rows of each item code in an ItemCodeIndex, so lookups and totals
+ * by item code never scan the rows.
+ * This class does not depend on JavaFX; views for the table are created by TransactionStoreList.
+ */
+public class TransactionStore {
+    static final byte VALIDITY_UNKNOWN = 0;
+    static final byte VALIDITY_VALID = 1;
+    static final byte VALIDITY_INVALID = 2;
+    private static final int VALIDATION_BATCH = 1024;
+
+    /** Marks an item code whose checksum has to be computed from its chars. */
+    private static final byte[] NOT_ASCII = new byte[0];
+    /** Marks a checksum column value that no calculated checksum can equal. */
+    private static final int NEVER_MATCHES = -1;
+    private static final int NOT_PARSED = Integer.MIN_VALUE;
+
+    private final StringTable itemCodes;
+    private final StringTable checksums;
+    private final TransactionAggregates aggregates = new TransactionAggregates();
+    private final ItemCodeIndex itemCodeIndex = new ItemCodeIndex();
+
+    private int[] itemCodeIds;
+    private long[] costCents;
+    private long[] salePriceCents;
+    private long[] discountUnits;
+    // Derived from the sale price and discount by write(), never set on its own
+    private long[] discountedPriceCents;
+    private int[] checksumIds;
+    private byte[] validity;
+    private int size;
+    // Rows before this index have a known validity
+    private int pendingFrom;
+
+    // Caches indexed by string table id
+    private byte[][] itemCodeBytes = new byte[0][];
+    private byte[] itemCodeValidity = new byte[0];
+    private int[] checksumValues = new int[0];
+    private ChecksumBatch checksumBatch;
+
+    /**
+     * Creates an empty store with a default capacity.
+     */
+    public TransactionStore() {
+        this(1024);
+    }
+
+    /**
+     * Creates an empty store able to hold the given number of rows before growing.
+     *
+     * @param initialCapacity The initial row capacity
+     */
+    public TransactionStore(int initialCapacity) {
+        this(new StringTable(), new StringTable(), initialCapacity);
+    }
+
+    /**
+     * Creates an empty store that shares the string tables of another store,
+     * so rows can be copied between the two by id.
+     */
+    private TransactionStore(StringTable itemCodes, StringTable checksums, int initialCapacity) {
+        this.itemCodes = itemCodes;
+        this.checksums = checksums;
+        int capacity = Math.max(16, initialCapacity);
+        itemCodeIds = new int[capacity];
+        costCents = new long[capacity];
+        salePriceCents = new long[capacity];
+        discountUnits = new long[capacity];
+        discountedPriceCents = new long[capacity];
+        checksumIds = new int[capacity];
+        validity = new byte[capacity];
+    }
+
+    /**
+     * Creates a store over columns restored by TransactionSnapshot. The arrays are adopted, not copied,
+     * every row must already have a known validity, and the aggregates are taken as given.
+     */
+    TransactionStore(StringTable itemCodes, StringTable checksums, int size, int[] itemCodeIds, long[] costCents,
+                     long[] salePriceCents, long[] discountUnits, int[] checksumIds, byte[] validity,
+                     int validCount, long profitCents) {
+        this.itemCodes = itemCodes;
+        this.checksums = checksums;
+        this.itemCodeIds = itemCodeIds;
+        this.costCents = costCents;
+        this.salePriceCents = salePriceCents;
+        this.discountUnits = discountUnits;
+        this.discountedPriceCents = new long[salePriceCents.length];
+        this.checksumIds = checksumIds;
+        this.validity = validity;
+        this.size = size;
+        this.pendingFrom = size;
+        aggregates.restore(size, validCount, profitCents);
+        for (int row = 0; row < size; row++) {
+            discountedPriceCents[row] = MoneyUtil.discountedCents(salePriceCents[row], discountUnits[row]);
+            itemCodeIndex.add(itemCodeIds[row], row);
+            aggregates.addItemCodeProfit(itemCodeIds[row], getProfitCents(row));
+        }
+    }
+
+    /**
+     * Appends a row. Has the same shape as TransactionRowHandler so parsers can feed the store directly.
+     *
+     * @param itemCode The item code
+     * @param cost The cost price
+     * @param salePrice The sale price
+     * @param discount The discount percentage
+     * @param checksum The checksum value from the transaction file
+     * @return The index of the new row
+     */
+    public int add(String itemCode, double cost, double salePrice, double discount, String checksum) {
+        return addCents(itemCode, MoneyUtil.toCents(cost), MoneyUtil.toCents(salePrice),
+                MoneyUtil.toDiscountUnits(discount), checksum);
+    }
+
+    /**
+     * Appends a row given in fixed-point.
+     *
+     * @param itemCode The item code
+     * @param costCents The cost price in cents
+     * @param salePriceCents The sale price in cents
+     * @param discountUnits The discount in 1/10,000ths of a percent
+     * @param checksum The checksum value from the transaction file
+     * @return The index of the new row
+     */
+    public int addCents(String itemCode, long costCents, long salePriceCents, long discountUnits, String checksum) {
+        if (size == this.costCents.length) {
+            grow();
+        }
+        int row = size++;
+        write(row, itemCode, costCents, salePriceCents, discountUnits, checksum);
+        itemCodeIndex.add(itemCodeIds[row], row);
+        long profitCents = getProfitCents(row);
+        // Counted as not valid until validateAll() or isValid() checks it
+        aggregates.add(profitCents, false);
+        aggregates.addItemCodeProfit(itemCodeIds[row], profitCents);
+        return row;
+    }
+
+    /**
+     * Appends every row of another store, reusing the validity it already computed.
+     * Item codes and checksums are translated between the two string tables once per
+     * distinct value rather than once per row, so appending a page of rows is mostly array copies.
+     *
+     * @param other The store to copy rows from
+     */
+    public void addAll(TransactionStore other) {
+        ensureCapacity(size + other.size);
+        int[] itemCodeMap = idMap(other.itemCodes, itemCodes);
+        int[] checksumMap = idMap(other.checksums, checksums);
+        for (int row = 0; row < other.size; row++) {
+            int added = size++;
+            itemCodeIds[added] = mapId(itemCodeMap, other.itemCodes, itemCodes, other.itemCodeIds[row]);
+            costCents[added] = other.costCents[row];
+            salePriceCents[added] = other.salePriceCents[row];
+            discountUnits[added] = other.discountUnits[row];
+            discountedPriceCents[added] = other.discountedPriceCents[row];
+            checksumIds[added] = mapId(checksumMap, other.checksums, checksums, other.checksumIds[row]);
+            validity[added] = other.validity[row];
+            itemCodeIndex.add(itemCodeIds[added], added);
+            aggregates.add(getProfitCents(added), validity[added] == VALIDITY_VALID);
+            aggregates.addItemCodeProfit(itemCodeIds[added], getProfitCents(added));
+            if (validity[added] == VALIDITY_UNKNOWN) {
+                pendingFrom = Math.min(pendingFrom, added);
+            }
+        }
+    }
+
+    /**
+     * Replaces the values of an existing row and clears its cached validity.
+     *
+     * @param row The row to update
+     * @param itemCode The item code
+     * @param cost The cost price
+     * @param salePrice The sale price
+     * @param discount The discount percentage
+     * @param checksum The checksum value
+     */
+    public void set(int row, String itemCode, double cost, double salePrice, double discount, String checksum) {
+        checkRow(row);
+        long oldProfit = getProfitCents(row);
+        boolean oldValid = validity[row] == VALIDITY_VALID;
+        int oldItemCodeId = itemCodeIds[row];
+        write(row, itemCode, MoneyUtil.toCents(cost), MoneyUtil.toCents(salePrice),
+                MoneyUtil.toDiscountUnits(discount), checksum);
+        itemCodeIndex.change(row, oldItemCodeId, itemCodeIds[row]);
+        aggregates.update(oldProfit, oldValid, getProfitCents(row), false);
+        aggregates.addItemCodeProfit(oldItemCodeId, -oldProfit);
+        aggregates.addItemCodeProfit(itemCodeIds[row], getProfitCents(row));
+        isValid(row);
+    }
+
+    /**
+     * Removes a row, shifting the following rows down by one.
+     *
+     * @param row The row to remove
+     */
+    public void remove(int row) {
+        checkRow(row);
+        aggregates.remove(getProfitCents(row), validity[row] == VALIDITY_VALID);
+        aggregates.addItemCodeProfit(itemCodeIds[row], -getProfitCents(row));
+        itemCodeIndex.remove(itemCodeIds[row], row);
+        if (pendingFrom > row) {
+            pendingFrom--;
+        }
+        moveRows(row + 1, row, size - row - 1);
+        size--;
+    }
+
+    /**
+     * Marks every row matching the predicate in a single pass.
+     *
+     * @param filter Tests a row index
+     * @return The matching rows
+     */
+    public BitSet markRows(IntPredicate filter) {
+        BitSet marked = new BitSet(size);
+        for (int row = 0; row < size; row++) {
+            if (filter.test(row)) {
+                marked.set(row);
+            }
+        }
+        return marked;
+    }
+
+    /**
+     * Removes every marked row in one pass, moving each run of kept rows down in place.
+     * Costs O(n) however many rows are removed, instead of one array shift per removed row.
+     * The removed rows are returned in their original order, in a store that shares this
+     * store's string tables and keeps their cached validity.
+     *
+     * @param rows The rows to remove; bits at or beyond size() are ignored
+     * @return The removed rows
+     */
+    public TransactionStore removeRows(BitSet rows) {
+        int first = rows.nextSetBit(0);
+        if (first < 0 || first >= size) {
+            return new TransactionStore(itemCodes, checksums, 0);
+        }
+        TransactionStore removed = new TransactionStore(itemCodes, checksums, rows.cardinality());
+
+        int write = first;
+        int read = first;
+        while (read < size) {
+            // Rows read .. keepStart-1 are marked
+            int keepStart = Math.min(rows.nextClearBit(read), size);
+            for (int row = read; row < keepStart; row++) {
+                aggregates.remove(getProfitCents(row), validity[row] == VALIDITY_VALID);
+                aggregates.addItemCodeProfit(itemCodeIds[row], -getProfitCents(row));
+                removed.appendRow(this, row);
+            }
+            if (keepStart == size) {
+                break;
+            }
+            int nextMarked = rows.nextSetBit(keepStart);
+            int keepEnd = nextMarked < 0 ? size : Math.min(nextMarked, size);
+            moveRows(keepStart, write, keepEnd - keepStart);
+            write += keepEnd - keepStart;
+            read = keepEnd;
+        }
+        size = write;
+        itemCodeIndex.removeRows(new RowRanks(rows));
+        // Rows only move down, so no pending row can have moved below the first removed one
+        pendingFrom = Math.min(pendingFrom, first);
+        return removed;
+    }
+
+    /**
+     * Removes all rows. The string tables are kept so re-imports reuse their entries.
+     */
+    public void clear() {
+        size = 0;
+        pendingFrom = 0;
+        aggregates.clear();
+        itemCodeIndex.clear();
+    }
+
+    /**
+     * @return The number of rows in the store
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the running totals, first validating any rows whose validity is not known yet.
+     *
+     * @return The running record counts and total profit of this store
+     */
+    public TransactionAggregates getAggregates() {
+        validateAll();
+        return aggregates;
+    }
+
+    /**
+     * Validates every row whose validity is not known yet, e.g. rows just appended by an import.
+     * Rows are checksummed in batches with BatchChecksum; rows with non-ASCII item codes fall back
+     * to the single-row rules. Gives the same results as calling isValid() on each row.
+     */
+    public void validateAll() {
+        if (pendingFrom >= size) {
+            pendingFrom = size;
+            return;
+        }
+        if (checksumBatch == null) {
+            checksumBatch = new ChecksumBatch(VALIDATION_BATCH);
+        }
+        ChecksumBatch batch = checksumBatch;
+        BatchValidationEvent event = new BatchValidationEvent();
+        event.begin();
+        int validBefore = aggregates.getValidCount();
+        int validated = 0;
+        for (int row = pendingFrom; row < size; row++) {
+            if (validity[row] != VALIDITY_UNKNOWN) {
+                continue;
+            }
+            validated++;
+            byte[] itemCode = itemCodeBytes(itemCodeIds[row]);
+            if (!isValidItemCodeId(itemCodeIds[row]) || costCents[row] < 0 || salePriceCents[row] < 0) {
+                setValidity(row, false);
+            } else if (itemCode == NOT_ASCII) {
+                isValid(row);
+            } else if (!batch.add(row, itemCode, costCents[row], salePriceCents[row], discountUnits[row],
+                    discountedPriceCents[row])) {
+                finishBatch(batch);
+                validated--;
+                row--; // Add the row again to the empty batch
+            }
+        }
+        finishBatch(batch);
+        pendingFrom = size;
+        if (event.shouldCommit()) {
+            event.rows = validated;
+            event.valid = aggregates.getValidCount() - validBefore;
+            event.invalid = validated - event.valid;
+            event.commit();
+        }
+    }
+
+    /**
+     * Checks the row against the validation rules, computing the result only once per row.
+     *
+     * @param row The row to check
+     * @return true if the row is valid
+     */
+    public boolean isValid(int row) {
+        checkRow(row);
+        byte state = validity[row];
+        if (state == VALIDITY_UNKNOWN) {
+            boolean valid = TransactionValidator.isValid(getItemCode(row), costCents[row], salePriceCents[row],
+                    discountUnits[row], getDiscountedPriceCents(row), getChecksum(row));
+            setValidity(row, valid);
+            return valid;
+        }
+        return state == VALIDITY_VALID;
+    }
+
+    /**
+     * Finds the first row holding an item code.
+     *
+     * @param itemCode The item code to look up
+     * @return The first matching row, or -1 if no row holds the item code
+     */
+    public int findItemCode(String itemCode) {
+        return itemCodeIndex.first(itemCodes.find(itemCode));
+    }
+
+    /**
+     * Returns every row holding an item code, without scanning the other rows.
+     *
+     * @param itemCode The item code to look up
+     * @return The matching rows in ascending order, empty if there are none
+     */
+    public int[] rowsWithItemCode(String itemCode) {
+        return itemCodeIndex.rows(itemCodes.find(itemCode));
+    }
+
+    /**
+     * @param itemCode The item code to look up
+     * @return The number of rows holding the item code
+     */
+    public int countItemCode(String itemCode) {
+        return itemCodeIndex.count(itemCodes.find(itemCode));
+    }
+
+    /**
+     * @param row A row
+     * @return true if other rows hold the same item code as the row
+     */
+    public boolean hasDuplicateItemCode(int row) {
+        checkRow(row);
+        return itemCodeIndex.count(itemCodeIds[row]) > 1;
+    }
+
+    /**
+     * @return The number of item codes held by more than one row
+     */
+    public int getDuplicateItemCodeCount() {
+        return itemCodeIndex.duplicateCodeCount();
+    }
+
+    /**
+     * Lists the item codes held by more than one row, checking each distinct item code once.
+     *
+     * @return The duplicated item codes in the order they were first imported
+     */
+    public List<String> getDuplicateItemCodes() {
+        List<String> duplicates = new ArrayList<>(itemCodeIndex.duplicateCodeCount());
+        int limit = Math.min(itemCodeIndex.idLimit(), itemCodes.size());
+        for (int id = 0; id < limit && duplicates.size() < itemCodeIndex.duplicateCodeCount(); id++) {
+            if (itemCodeIndex.count(id) > 1) {
+                duplicates.add(itemCodes.get(id));
+            }
+        }
+        return duplicates;
+    }
+
+    public String getItemCode(int row) { return itemCodes.get(itemCodeIds[row]); }
+    public int getItemCodeId(int row) { return itemCodeIds[row]; }
+    public StringTable getItemCodes() { return itemCodes; }
+
+    public double getCost(int row) { return MoneyUtil.toDouble(costCents[row]); }
+    public double getSalePrice(int row) { return MoneyUtil.toDouble(salePriceCents[row]); }
+    public double getDiscount(int row) { return MoneyUtil.discountToDouble(discountUnits[row]); }
+    public String getChecksum(int row) { return checksums.get(checksumIds[row]); }
+    public int getChecksumId(int row) { return checksumIds[row]; }
+    public StringTable getChecksums() { return checksums; }
+
+    public double getDiscountedPrice(int row) { return MoneyUtil.toDouble(getDiscountedPriceCents(row)); }
+    public double getProfit(int row) { return MoneyUtil.toDouble(getProfitCents(row)); }
+
+    public long getCostCents(int row) { return costCents[row]; }
+    public long getSalePriceCents(int row) { return salePriceCents[row]; }
+    public long getDiscountUnits(int row) { return discountUnits[row]; }
+
+    public long getDiscountedPriceCents(int row) { return discountedPriceCents[row]; }
+    public long getProfitCents(int row) { return discountedPriceCents[row] - costCents[row]; }
+
+    private void write(int row, String itemCode, long costCents, long salePriceCents, long discountUnits,
+                       String checksum) {
+        itemCodeIds[row] = itemCodes.intern(itemCode);
+        this.costCents[row] = costCents;
+        this.salePriceCents[row] = salePriceCents;
+        this.discountUnits[row] = discountUnits;
+        discountedPriceCents[row] = MoneyUtil.discountedCents(salePriceCents, discountUnits);
+        checksumIds[row] = checksums.intern(checksum);
+        validity[row] = VALIDITY_UNKNOWN;
+    }
+
+    /**
+     * Appends a row of a store sharing the same string tables, copying ids and cached validity.
+     */
+    private void appendRow(TransactionStore source, int row) {
+        if (size == costCents.length) {
+            grow();
+        }
+        int added = size++;
+        itemCodeIds[added] = source.itemCodeIds[row];
+        costCents[added] = source.costCents[row];
+        salePriceCents[added] = source.salePriceCents[row];
+        discountUnits[added] = source.discountUnits[row];
+        discountedPriceCents[added] = source.discountedPriceCents[row];
+        checksumIds[added] = source.checksumIds[row];
+        validity[added] = source.validity[row];
+        itemCodeIndex.add(itemCodeIds[added], added);
+        aggregates.add(getProfitCents(added), validity[added] == VALIDITY_VALID);
+        aggregates.addItemCodeProfit(itemCodeIds[added], getProfitCents(added));
+        if (validity[added] == VALIDITY_UNKNOWN) {
+            pendingFrom = Math.min(pendingFrom, added);
+        }
+    }
+
+    private void setValidity(int row, boolean valid) {
+        validity[row] = valid ? VALIDITY_VALID : VALIDITY_INVALID;
+        aggregates.validated(valid);
+    }
+
+    private void finishBatch(ChecksumBatch batch) {
+        batch.calculate();
+        for (int i = 0; i < batch.size(); i++) {
+            int row = batch.row(i);
+            setValidity(row, batch.checksum(i) == checksumValue(checksumIds[row]));
+        }
+        batch.reset();
+    }
+
+    private boolean isValidItemCodeId(int id) {
+        if (id >= itemCodeValidity.length) {
+            itemCodeValidity = Arrays.copyOf(itemCodeValidity, Math.max(id + 1, itemCodes.size()));
+        }
+        if (itemCodeValidity[id] == VALIDITY_UNKNOWN) {
+            boolean valid = TransactionValidator.isValidItemCode(itemCodes.get(id));
+            itemCodeValidity[id] = valid ? VALIDITY_VALID : VALIDITY_INVALID;
+        }
+        return itemCodeValidity[id] == VALIDITY_VALID;
+    }
+
+    private byte[] itemCodeBytes(int id) {
+        if (id >= itemCodeBytes.length) {
+            itemCodeBytes = Arrays.copyOf(itemCodeBytes, Math.max(id + 1, itemCodes.size()));
+        }
+        byte[] bytes = itemCodeBytes[id];
+        if (bytes == null) {
+            String itemCode = itemCodes.get(id);
+            bytes = new byte[itemCode.length()];
+            for (int i = 0; i < bytes.length; i++) {
+                char c = itemCode.charAt(i);
+                if (c > 127) {
+                    bytes = NOT_ASCII;
+                    break;
+                }
+                bytes[i] = (byte) c;
+            }
+            itemCodeBytes[id] = bytes;
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns the checksum column value as a number, or NEVER_MATCHES unless it is written exactly
+     * as String.valueOf would write a calculated checksum.
+     */
+    private int checksumValue(int id) {
+        if (id >= checksumValues.length) {
+            int oldLength = checksumValues.length;
+            checksumValues = Arrays.copyOf(checksumValues, Math.max(id + 1, checksums.size()));
+            Arrays.fill(checksumValues, oldLength, checksumValues.length, NOT_PARSED);
+        }
+        int value = checksumValues[id];
+        if (value == NOT_PARSED) {
+            value = parseChecksum(checksums.get(id));
+            checksumValues[id] = value;
+        }
+        return value;
+    }
+
+    private static int parseChecksum(String checksum) {
+        int length = checksum.length();
+        if (length == 0 || length > 10 || (checksum.charAt(0) == '0' && length > 1)) {
+            return NEVER_MATCHES;
+        }
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            char c = checksum.charAt(i);
+            if (c < '0' || c > '9') {
+                return NEVER_MATCHES;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value <= Integer.MAX_VALUE ? (int) value : NEVER_MATCHES;
+    }
+
+    /**
+     * Returns a lazily filled translation from the ids of one table to another, or null if they are the same table.
+     */
+    private static int[] idMap(StringTable from, StringTable to) {
+        if (from == to) {
+            return null;
+        }
+        int[] map = new int[from.size()];
+        Arrays.fill(map, -1);
+        return map;
+    }
+
+    private static int mapId(int[] map, StringTable from, StringTable to, int id) {
+        if (map == null) {
+            return id;
+        }
+        int mapped = map[id];
+        if (mapped < 0) {
+            mapped = to.intern(from.get(id));
+            map[id] = mapped;
+        }
+        return mapped;
+    }
+
+    private void moveRows(int from, int to, int length) {
+        System.arraycopy(itemCodeIds, from, itemCodeIds, to, length);
+        System.arraycopy(costCents, from, costCents, to, length);
+        System.arraycopy(salePriceCents, from, salePriceCents, to, length);
+        System.arraycopy(discountUnits, from, discountUnits, to, length);
+        System.arraycopy(discountedPriceCents, from, discountedPriceCents, to, length);
+        System.arraycopy(checksumIds, from, checksumIds, to, length);
+        System.arraycopy(validity, from, validity, to, length);
+    }
+
+    private void grow() {
+        ensureCapacity(costCents.length + (costCents.length >> 1));
+    }
+
+    private void ensureCapacity(int minCapacity) {
+        if (minCapacity <= costCents.length) {
+            return;
+        }
+        int capacity = Math.max(minCapacity, costCents.length + (costCents.length >> 1));
+        itemCodeIds = Arrays.copyOf(itemCodeIds, capacity);
+        costCents = Arrays.copyOf(costCents, capacity);
+        salePriceCents = Arrays.copyOf(salePriceCents, capacity);
+        discountUnits = Arrays.copyOf(discountUnits, capacity);
+        discountedPriceCents = Arrays.copyOf(discountedPriceCents, capacity);
+        checksumIds = Arrays.copyOf(checksumIds, capacity);
+        validity = Arrays.copyOf(validity, capacity);
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of bounds for size " + size);
+        }
+    }
+}
@@ -0,0 +1,513 @@
+package com.example.tax.models;
+
+import javafx.collections.ObservableListBase;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.IntPredicate;
+
+/**
+ * Observable list of Transaction views over a TransactionStore.
+ * A view is only created when the table asks for its row, i.e. for the rows currently on screen,
+ * and the most recently used views are kept so a row keeps the same object while it is visible.
+ * Changes made to a view are written back to the store with commit().
+ * The list shows the store's rows in store order, or in a display order set with setOrder(),
+ * e.g. the result of a TransactionSorter; list indexes are translated to store rows throughout.
+ * Rows can be tagged with the source they were read from, so all rows of a changed file can be replaced.
+ * A store row can be tracked with trackRow(), which follows it as rows before it are removed, so an
+ * edit that takes a while, such as an open dialog, is written back to the row it was made on.
+ */
+public class TransactionStoreList extends ObservableListBase<Transaction> {
+    private static final int VIEW_CACHE_SIZE = 1024;
+
+    /** Source of rows that were not tagged with one. */
+    public static final int NO_SOURCE = -1;
+
+    private final TransactionStore store;
+    private final Map<Integer, Transaction> views = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Transaction> eldest) {
+            return size() > VIEW_CACHE_SIZE;
+        }
+    };
+
+    // Store rows in display order, or null to show every row in store order
+    private int[] order;
+    private int orderSize;
+    private IntPredicate appendFilter;
+    // List index of each store row, or -1 if it is not shown; built when first needed
+    private int[] positions;
+    private int modCount;
+    // Source of each store row, or null until a row is tagged
+    private int[] sources;
+    private final List<TrackedRow> trackedRows = new ArrayList<>();
+
+    /**
+     * Creates a list backed by the given store.
+     *
+     * @param store The store holding the rows
+     */
+    public TransactionStoreList(TransactionStore store) {
+        this.store = store;
+    }
+
+    /**
+     * @return The store backing this list
+     */
+    public TransactionStore getStore() {
+        return store;
+    }
+
+    @Override
+    public Transaction get(int index) {
+        Objects.checkIndex(index, size());
+        Transaction view = views.get(index);
+        if (view == null) {
+            view = createView(store, rowAt(index));
+            views.put(index, view);
+        }
+        return view;
+    }
+
+    @Override
+    public int size() {
+        return order == null ? store.size() : orderSize;
+    }
+
+    /**
+     * @param index An index in this list
+     * @return The store row shown at that index
+     */
+    public int rowAt(int index) {
+        return order == null ? index : order[index];
+    }
+
+    /**
+     * @param row A store row
+     * @return The index the row is shown at, or -1 if the current filter hides it
+     */
+    public int indexOfRow(int row) {
+        if (order == null) {
+            return row < store.size() ? row : -1;
+        }
+        if (positions == null) {
+            positions = new int[store.size()];
+            Arrays.fill(positions, -1);
+            for (int i = 0; i < orderSize; i++) {
+                positions[order[i]] = i;
+            }
+        }
+        return row < positions.length ? positions[row] : -1;
+    }
+
+    /**
+     * @return A copy of the store rows in display order, or null if every row is shown in store order
+     */
+    public int[] getOrder() {
+        return order == null ? null : Arrays.copyOf(order, orderSize);
+    }
+
+    /**
+     * Counts changes to the rows, so a sort computed in the background can tell
+     * whether the rows it captured are still the rows in the store.
+     *
+     * @return A number that changes whenever rows are added, edited or removed
+     */
+    public int getModCount() {
+        return modCount;
+    }
+
+    /**
+     * Tags a range of store rows with the source they were read from, e.g. one file of a folder import.
+     *
+     * @param fromRow The first store row, inclusive
+     * @param toRow The last store row, exclusive
+     * @param source A non-negative number identifying the source
+     */
+    public void setSource(int fromRow, int toRow, int source) {
+        Objects.checkFromToIndex(fromRow, toRow, store.size());
+        ensureSources(store.size());
+        Arrays.fill(sources, fromRow, toRow, source);
+    }
+
+    /**
+     * @param row A store row
+     * @return The source the row was tagged with, or NO_SOURCE
+     */
+    public int getSource(int row) {
+        return sources == null ? NO_SOURCE : sources[row];
+    }
+
+    /**
+     * Removes every row tagged with the given source, e.g. before the new version of a file is appended.
+     *
+     * @param source The source whose rows to remove
+     * @return The number of rows removed
+     */
+    public int removeSource(int source) {
+        return sources == null ? 0 : removeRows(row -> sources[row] == source);
+    }
+
+    /**
+     * Shows the store rows in the given order and fires a single change for the whole list:
+     * a permutation if the same rows are shown before and after, otherwise a replace.
+     *
+     * @param rows The store rows to show in display order, or null to show every row in store order
+     * @param appendFilter Decides which rows appended later are shown, or null to show them all
+     */
+    public void setOrder(int[] rows, IntPredicate appendFilter) {
+        int previousSize = size();
+        int[] previousOrder = order == null ? null : Arrays.copyOf(order, orderSize);
+        boolean allRowsBefore = previousSize == store.size();
+
+        order = rows == null ? null : rows.clone();
+        orderSize = rows == null ? 0 : rows.length;
+        this.appendFilter = rows == null ? null : appendFilter;
+        positions = null;
+        views.clear();
+
+        beginChange();
+        if (allRowsBefore && size() == store.size()) {
+            // Same rows in a new order
+            int[] permutation = new int[previousSize];
+            for (int i = 0; i < previousSize; i++) {
+                permutation[i] = indexOfRow(previousOrder == null ? i : previousOrder[i]);
+            }
+            nextPermutation(0, previousSize, permutation);
+        } else {
+            nextReplace(0, size(), new OrderedRows(previousOrder, previousSize));
+        }
+        endChange();
+    }
+
+    /**
+     * Writes the values of the view at the given index back to the store,
+     * then refreshes the view's derived values from the store.
+     *
+     * @param index The index of the edited row
+     */
+    public void commit(int index) {
+        commitRow(rowAt(index), get(index));
+    }
+
+    /**
+     * Writes the values of an edited transaction to a store row, then refreshes the transaction's
+     * derived values from the store. If the row is shown, the transaction becomes its view.
+     *
+     * @param row The store row the edit was made on, e.g. from a TrackedRow
+     * @param edited The transaction holding the new values
+     */
+    public void commitRow(int row, Transaction edited) {
+        Objects.checkIndex(row, store.size());
+        store.set(row, edited.getItemCode(), edited.getCost(), edited.getSalePrice(),
+                edited.getDiscount(), edited.getChecksum());
+        edited.setDiscountedPrice(store.getDiscountedPrice(row));
+        edited.setProfit(store.getProfit(row));
+        modCount++;
+
+        int index = indexOfRow(row);
+        if (index >= 0) {
+            Transaction previous = views.put(index, edited);
+            beginChange();
+            nextSet(index, previous != null ? previous : edited);
+            endChange();
+        }
+    }
+
+    /**
+     * Starts following a store row through later removals. Call untrack() when done.
+     *
+     * @param row The store row to follow
+     * @return The tracked row
+     */
+    public TrackedRow trackRow(int row) {
+        Objects.checkIndex(row, store.size());
+        TrackedRow tracked = new TrackedRow(row);
+        trackedRows.add(tracked);
+        return tracked;
+    }
+
+    /**
+     * Stops following a row.
+     *
+     * @param tracked The row returned by trackRow()
+     */
+    public void untrack(TrackedRow tracked) {
+        trackedRows.remove(tracked);
+    }
+
+    /**
+     * Appends the rows of another store, e.g. a page delivered while a large file is still loading,
+     * and fires a single add change for them. While a display order is set, the new rows are shown
+     * after it, in store order, if they pass the append filter.
+     *
+     * @param page The rows to append
+     */
+    public void appendAll(TransactionStore page) {
+        appendAll(page, NO_SOURCE);
+    }
+
+    /**
+     * Appends the rows of another store and tags them with the source they were read from.
+     *
+     * @param page The rows to append
+     * @param source The source of the rows, or NO_SOURCE
+     */
+    public void appendAll(TransactionStore page, int source) {
+        if (page.size() == 0) {
+            return;
+        }
+        int from = size();
+        int firstRow = store.size();
+        store.addAll(page);
+        modCount++;
+        if (sources != null || source != NO_SOURCE) {
+            ensureSources(store.size());
+            Arrays.fill(sources, firstRow, store.size(), source);
+        }
+        if (order != null) {
+            order = Arrays.copyOf(order, Math.max(order.length, orderSize + page.size()));
+            for (int row = firstRow; row < store.size(); row++) {
+                if (appendFilter == null || appendFilter.test(row)) {
+                    order[orderSize++] = row;
+                }
+            }
+            positions = null;
+        }
+
+        if (size() > from) {
+            beginChange();
+            nextAdd(from, size());
+            endChange();
+        }
+    }
+
+    @Override
+    public Transaction remove(int index) {
+        Transaction removed = get(index);
+        int row = rowAt(index);
+        store.remove(row);
+        modCount++;
+        for (TrackedRow tracked : trackedRows) {
+            if (tracked.row == row) {
+                tracked.row = TrackedRow.REMOVED;
+            } else if (tracked.row > row) {
+                tracked.row--;
+            }
+        }
+        if (sources != null) {
+            System.arraycopy(sources, row + 1, sources, row, store.size() - row);
+        }
+        if (order != null) {
+            System.arraycopy(order, index + 1, order, index, orderSize - index - 1);
+            orderSize--;
+            for (int i = 0; i < orderSize; i++) {
+                if (order[i] > row) {
+                    order[i]--;
+                }
+            }
+            positions = null;
+        }
+        views.clear();
+
+        beginChange();
+        nextRemove(index, removed);
+        endChange();
+        return removed;
+    }
+
+    /**
+     * Removes every row matching the predicate. The rows are marked in a bitset in one pass,
+     * the store is compacted in place, and a single replace change is fired for the whole list.
+     * The change's removed list is built lazily from the removed rows and the compacted store,
+     * so no Transaction is created unless a listener reads it.
+     *
+     * @param filter Tests a row index of the store
+     * @return The number of rows removed
+     */
+    public int removeRows(IntPredicate filter) {
+        BitSet marked = store.markRows(filter);
+        if (marked.isEmpty()) {
+            return 0;
+        }
+        int previousSize = size();
+        int[] previousOrder = order == null ? null : Arrays.copyOf(order, orderSize);
+        RowRanks ranks = new RowRanks(marked);
+        int previousRows = store.size();
+        TransactionStore removed = store.removeRows(marked);
+        modCount++;
+        for (TrackedRow tracked : trackedRows) {
+            if (tracked.row != TrackedRow.REMOVED) {
+                tracked.row = ranks.isMarked(tracked.row)
+                        ? TrackedRow.REMOVED : tracked.row - ranks.markedBefore(tracked.row);
+            }
+        }
+        if (sources != null) {
+            int kept = 0;
+            for (int row = marked.nextClearBit(0); row < previousRows; row = marked.nextClearBit(row + 1)) {
+                sources[kept++] = sources[row];
+            }
+        }
+        if (order != null) {
+            int kept = 0;
+            for (int i = 0; i < orderSize; i++) {
+                int row = order[i];
+                if (!ranks.isMarked(row)) {
+                    order[kept++] = row - ranks.markedBefore(row);
+                }
+            }
+            orderSize = kept;
+            positions = null;
+        }
+        views.clear();
+
+        beginChange();
+        nextReplace(0, size(), new PreviousRows(previousOrder, previousSize, ranks, removed));
+        endChange();
+        return removed.size();
+    }
+
+    /**
+     * Replaces the store's rows with the given transactions, in store order.
+     */
+    @Override
+    public boolean setAll(Collection<? extends Transaction> transactions) {
+        List<Transaction> replacement = new ArrayList<>(transactions);
+        List<Transaction> removed = new ArrayList<>(this);
+
+        store.clear();
+        views.clear();
+        order = null;
+        appendFilter = null;
+        positions = null;
+        sources = null;
+        modCount++;
+        for (TrackedRow tracked : trackedRows) {
+            tracked.row = TrackedRow.REMOVED;
+        }
+        for (int i = 0; i < replacement.size(); i++) {
+            Transaction transaction = replacement.get(i);
+            store.add(transaction.getItemCode(), transaction.getCost(), transaction.getSalePrice(),
+                    transaction.getDiscount(), transaction.getChecksum());
+            if (i < VIEW_CACHE_SIZE) {
+                views.put(i, transaction);
+            }
+        }
+
+        beginChange();
+        nextReplace(0, store.size(), removed);
+        endChange();
+        return true;
+    }
+
+    private void ensureSources(int rows) {
+        if (sources == null) {
+            sources = new int[Math.max(rows, 16)];
+            Arrays.fill(sources, NO_SOURCE);
+        } else if (sources.length < rows) {
+            int length = sources.length;
+            sources = Arrays.copyOf(sources, Math.max(rows, length * 2));
+            Arrays.fill(sources, length, sources.length, NO_SOURCE);
+        }
+    }
+
+    /**
+     * Creates a standalone Transaction holding the values of a store row.
+     *
+     * @param store The store to read from
+     * @param row The row to copy
+     * @return A new Transaction with the row's values and known validity
+     */
+    public static Transaction createView(TransactionStore store, int row) {
+        Transaction view = new Transaction(store.getItemCode(row), store.getCost(row), store.getSalePrice(row),
+                store.getDiscount(row), store.getChecksum(row));
+        view.seedValidity(store.isValid(row));
+        return view;
+    }
+
+    /**
+     * A store row followed through removals of other rows.
+     */
+    public static class TrackedRow {
+        private static final int REMOVED = -1;
+
+        private int row;
+
+        private TrackedRow(int row) {
+            this.row = row;
+        }
+
+        /**
+         * @return The row's current index in the store, or -1 if the row itself was removed
+         */
+        public int getRow() { return row; }
+
+        public boolean isRemoved() { return row == REMOVED; }
+    }
+
+    /**
+     * The list as it was before its order changed, read from the unchanged store.
+     * Only valid while the change is being delivered.
+     */
+    private class OrderedRows extends AbstractList<Transaction> {
+        private final int[] order;
+        private final int size;
+
+        OrderedRows(int[] order, int size) {
+            this.order = order;
+            this.size = size;
+        }
+
+        @Override
+        public Transaction get(int index) {
+            Objects.checkIndex(index, size);
+            return createView(store, order == null ? index : order[index]);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * The list as it was before a bulk removal, read from the removed rows and the compacted store.
+     * Only valid while the change is being delivered, before the store is modified again.
+     */
+    private class PreviousRows extends AbstractList<Transaction> {
+        private final int[] order;
+        private final int size;
+        private final RowRanks ranks;
+        private final TransactionStore removed;
+
+        PreviousRows(int[] order, int size, RowRanks ranks, TransactionStore removed) {
+            this.order = order;
+            this.size = size;
+            this.ranks = ranks;
+            this.removed = removed;
+        }
+
+        @Override
+        public Transaction get(int index) {
+            Objects.checkIndex(index, size);
+            int row = order == null ? index : order[index];
+            int markedBefore = ranks.markedBefore(row);
+            if (ranks.isMarked(row)) {
+                return createView(removed, markedBefore);
+            }
+            return createView(store, row - markedBefore);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
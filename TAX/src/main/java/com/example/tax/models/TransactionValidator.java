@@ -0,0 +1,83 @@
+package com.example.tax.models;
+
+import com.example.tax.utils.ChecksumUtil;
+import com.example.tax.utils.MoneyUtil;
+
+import java.util.regex.Pattern;
+
+/**
+ * Validation and derived-value rules for transaction records.
+ * Kept free of JavaFX so that both the Transaction model and the columnar
+ * TransactionStore apply exactly the same rules. Prices are compared in fixed-point
+ * (see MoneyUtil), so both give the same answer whether they hold doubles or cents.
+ */
+public class TransactionValidator {
+    private static final Pattern SPECIAL_CHARACTERS = Pattern.compile(".*[!@#$%^&*()+=\\[\\]{}|;:'\",.<>/?`~-].*");
+
+    /**
+     * Calculates the discounted price based on sale price and discount percentage,
+     * rounded to the cent as the POS writes it (see MoneyUtil.discountedCents).
+     *
+     * @param salePrice The original selling price
+     * @param discount The discount percentage
+     * @return The price after the discount is applied
+     */
+    public static double calculateDiscountedPrice(double salePrice, double discount) {
+        return MoneyUtil.toDouble(MoneyUtil.discountedCents(
+                MoneyUtil.toCents(salePrice), MoneyUtil.toDiscountUnits(discount)));
+    }
+
+    /**
+     * Checks that an item code has no special characters except underscore.
+     *
+     * @param itemCode The item code to check
+     * @return true if the item code is acceptable
+     */
+    public static boolean isValidItemCode(String itemCode) {
+        return !SPECIAL_CHARACTERS.matcher(itemCode).matches();
+    }
+
+    /**
+     * Validates a transaction by checking:
+     * 1. Item code format (no special characters except underscore)
+     * 2. No negative values for cost or sale price
+     * 3. Checksum matches the calculated value
+     *
+     * @param itemCode The item code
+     * @param cost The cost price
+     * @param salePrice The sale price
+     * @param discount The discount percentage
+     * @param discountedPrice The discounted price
+     * @param checksum The checksum value from the transaction file
+     * @return true if the transaction is valid, false otherwise
+     */
+    public static boolean isValid(String itemCode, double cost, double salePrice, double discount,
+                                  double discountedPrice, String checksum) {
+        return isValid(itemCode, MoneyUtil.toCents(cost), MoneyUtil.toCents(salePrice),
+                MoneyUtil.toDiscountUnits(discount), MoneyUtil.toCents(discountedPrice), checksum);
+    }
+
+    /**
+     * Validates a transaction held in fixed-point, using integer math only.
+     *
+     * @param itemCode The item code
+     * @param costCents The cost price in cents
+     * @param salePriceCents The sale price in cents
+     * @param discountUnits The discount in 1/10,000ths of a percent
+     * @param discountedPriceCents The discounted price in cents
+     * @param checksum The checksum value from the transaction file
+     * @return true if the transaction is valid, false otherwise
+     */
+    public static boolean isValid(String itemCode, long costCents, long salePriceCents, long discountUnits,
+                                  long discountedPriceCents, String checksum) {
+        if (!isValidItemCode(itemCode)) {
+            return false;
+        }
+        if (costCents < 0 || salePriceCents < 0) {
+            return false;
+        }
+        int calculatedChecksum = ChecksumUtil.calculateChecksumCents(
+                itemCode, costCents, salePriceCents, discountUnits, discountedPriceCents);
+        return String.valueOf(calculatedChecksum).equals(checksum);
+    }
+}
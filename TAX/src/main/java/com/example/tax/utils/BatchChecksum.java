@@ -0,0 +1,85 @@
+package com.example.tax.utils;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Batch checksum calculation over many transaction lines held as bytes.
+ * Lines are classified with the Vector API (jdk.incubator.vector) when that module is
+ * available, so the bytes of each line are tested in SIMD lanes instead of one char at a time.
+ * Otherwise, or when the vector kernel cannot be loaded, an equivalent scalar loop is used.
+ * Both give exactly the same results as ChecksumUtil.calculateChecksum(String) on the decoded line.
+ *
+ * <p>The vector module is optional: run with {@code --add-modules jdk.incubator.vector} to enable it.</p>
+ */
+public class BatchChecksum {
+
+    private static final boolean VECTORIZED = loadVectorKernel();
+
+    /**
+     * @return true if checksums are computed with the Vector API
+     */
+    public static boolean isVectorized() {
+        return VECTORIZED;
+    }
+
+    /**
+     * Calculates the checksum of each line in a buffer.
+     * Lines are UTF-8; a line containing non-ASCII bytes is decoded and checksummed char by char.
+     *
+     * @param data The buffer holding the lines
+     * @param lineStarts The offset of the first byte of each line
+     * @param lineEnds The offset just past the last byte of each line
+     * @param count The number of lines
+     * @param checksums Receives the checksum of each line
+     */
+    public static void calculateChecksums(byte[] data, int[] lineStarts, int[] lineEnds, int count, int[] checksums) {
+        if (VECTORIZED) {
+            VectorChecksumKernel.calculateChecksums(data, lineStarts, lineEnds, count, checksums);
+        } else {
+            calculateChecksumsScalar(data, lineStarts, lineEnds, count, checksums);
+        }
+    }
+
+    /**
+     * The scalar kernel, also used to check the vector kernel in tests.
+     */
+    static void calculateChecksumsScalar(byte[] data, int[] lineStarts, int[] lineEnds, int count, int[] checksums) {
+        for (int line = 0; line < count; line++) {
+            checksums[line] = checksumOfLine(data, lineStarts[line], lineEnds[line]);
+        }
+    }
+
+    private static int checksumOfLine(byte[] data, int start, int end) {
+        int counted = 0;
+        int digitSum = 0;
+        for (int i = start; i < end; i++) {
+            int b = data[i];
+            if (b < 0) {
+                return checksumOfDecodedLine(data, start, end);
+            }
+            if ((b >= 'A' && b <= 'Z') || (b >= 'a' && b <= 'z') || b == '.' || b == '_') {
+                counted++;
+            } else if (b >= '0' && b <= '9') {
+                counted++;
+                digitSum += b - '0';
+            }
+        }
+        return counted + digitSum;
+    }
+
+    /**
+     * Checksums a line with non-ASCII characters exactly as ChecksumUtil does for a String.
+     */
+    static int checksumOfDecodedLine(byte[] data, int start, int end) {
+        return ChecksumUtil.calculateChecksum(new String(data, start, end - start, StandardCharsets.UTF_8));
+    }
+
+    private static boolean loadVectorKernel() {
+        try {
+            return VectorChecksumKernel.isAvailable();
+        } catch (LinkageError e) {
+            // jdk.incubator.vector is not in the module graph
+            return false;
+        }
+    }
+}
@@ -1,12 +1,23 @@
 package com.example.tax.utils;
 
+import java.util.Locale;
+
 /**
  * Utility class for calculating checksums and formatting transaction lines.
  * This class provides static methods to ensure consistent checksum calculation
- * and transaction line formatting across the application.
+ * and transaction line formatting across the application. Lines are formatted in Locale.ROOT,
+ * so checksums do not depend on the default locale of the machine.
  */
 public class ChecksumUtil {
 
+    private static final double[] POWERS_OF_TEN = {1, 10, 100};
+
+    /** Scaled values below this have an ulp far smaller than HALF_TOLERANCE. */
+    private static final double EXACT_SCALED_LIMIT = 1e12;
+
+    /** Scaled values this close to a half are rounded through Formatter itself. */
+    private static final double HALF_TOLERANCE = 1e-3;
+
     /**
      * Calculates the checksum for a transaction line using the enhanced algorithm.
      * The algorithm counts capital letters, lowercase letters, digits, underscores,
@@ -16,13 +27,67 @@ public class ChecksumUtil {
      * @return The calculated checksum value
      */
     public static int calculateChecksum(String transactionLine) {
+        return checksumOfChars(transactionLine);
+    }
+
+    /**
+     * Calculates the checksum of a transaction directly from its fields.
+     * Gives exactly the same result as
+     * {@code calculateChecksum(formatTransactionLine(itemCode, cost, salePrice, discount, discountedPrice))},
+     * including the half-up rounding done by %.2f and %.1f, but without building the line:
+     * no String, Formatter or char array is created for ordinary values.
+     *
+     * @param itemCode The item code
+     * @param cost The cost price
+     * @param salePrice The sale price
+     * @param discount The discount percentage
+     * @param discountedPrice The discounted price
+     * @return The calculated checksum value
+     */
+    public static int calculateChecksum(String itemCode, double cost, double salePrice,
+                                        double discount, double discountedPrice) {
+        // Commas between the fields contribute nothing, so the fields can be summed separately
+        return checksumOfChars(itemCode)
+                + checksumOfNumber(cost, 2)
+                + checksumOfNumber(salePrice, 2)
+                + checksumOfNumber(discount, 1)
+                + checksumOfNumber(discountedPrice, 2);
+    }
+
+    /**
+     * Calculates the checksum of a transaction from fixed-point fields using integer math only.
+     * Matches the checksum of the formatted line: amounts print with two decimals and the
+     * discount is rounded half-up to the single decimal %.1f prints.
+     *
+     * @param itemCode The item code
+     * @param costCents The cost price in cents
+     * @param salePriceCents The sale price in cents
+     * @param discountUnits The discount in 1/10,000ths of a percent
+     * @param discountedPriceCents The discounted price in cents
+     * @return The calculated checksum value
+     */
+    public static int calculateChecksumCents(String itemCode, long costCents, long salePriceCents,
+                                             long discountUnits, long discountedPriceCents) {
+        long discountTenths = MoneyUtil.roundHalfUp(discountUnits, MoneyUtil.DISCOUNT_SCALE / 10);
+        return checksumOfChars(itemCode)
+                + checksumOfUnits(Math.abs(costCents), 2)
+                + checksumOfUnits(Math.abs(salePriceCents), 2)
+                + checksumOfUnits(Math.abs(discountTenths), 1)
+                + checksumOfUnits(Math.abs(discountedPriceCents), 2);
+    }
+
+    /**
+     * Applies the checksum rules to every character of the given text.
+     */
+    private static int checksumOfChars(CharSequence text) {
         int capitalCount = 0;
         int simpleCount = 0;
         int numberCount = 0;
         int underscoreCount = 0;
         int digitSum = 0;
 
-        for (char c : transactionLine.toCharArray()) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
             if (Character.isUpperCase(c)) {
                 capitalCount++;
             } else if (Character.isLowerCase(c)) {
@@ -35,16 +100,56 @@ public class ChecksumUtil {
             } else if (c == '_') {
                 underscoreCount++;
             }
-        } // Added missing closing bracket
+        }
 
         return capitalCount + simpleCount + numberCount + underscoreCount + digitSum;
     }
 
+    /**
+     * Computes the checksum contribution of a number as %.{precision}f would print it.
+     * The number is rounded to an integer count of 10^-precision units; its digits each add
+     * one plus their value, and the decimal point adds one. The sign adds nothing.
+     * Formatter rounds half-up on the shortest decimal form of the double, which can differ from
+     * rounding the binary value when it sits right on a half; those rare cases, together with
+     * huge and non-finite values, are delegated to String.format so the result stays identical.
+     */
+    private static int checksumOfNumber(double value, int precision) {
+        double scaled = Math.abs(value) * POWERS_OF_TEN[precision];
+        if (!(scaled < EXACT_SCALED_LIMIT)) {
+            return checksumOfChars(String.format(Locale.ROOT, "%." + precision + "f", value));
+        }
+        double floor = Math.floor(scaled);
+        double fraction = scaled - floor;
+        if (Math.abs(fraction - 0.5) < HALF_TOLERANCE) {
+            return checksumOfChars(String.format(Locale.ROOT, "%." + precision + "f", value));
+        }
+
+        return checksumOfUnits((long) floor + (fraction > 0.5 ? 1 : 0), precision);
+    }
 
+    /**
+     * Computes the checksum contribution of a non-negative count of 10^-precision units printed
+     * with that many decimals: each digit adds one plus its value, and the decimal point adds one.
+     */
+    private static int checksumOfUnits(long units, int precision) {
+        int sum = 1; // The decimal point
+        for (int i = 0; i < precision; i++) {
+            int digit = (int) (units % 10);
+            sum += 1 + digit;
+            units /= 10;
+        }
+        do {
+            int digit = (int) (units % 10);
+            sum += 1 + digit;
+            units /= 10;
+        } while (units != 0);
+        return sum;
+    }
 
     /**
      * Formats a transaction line string with consistent formatting.
      * Ensures that all transaction lines follow the same format for reliable checksum calculation.
+     * Numbers are always printed with a '.' decimal point and no grouping, whatever the default locale.
      *
      * @param itemCode The item code
      * @param cost The cost price
@@ -55,7 +160,7 @@ public class ChecksumUtil {
      */
     public static String formatTransactionLine(String itemCode, double cost, double salePrice,
                                                double discount, double discountedPrice) {
-        return String.format("%s,%.2f,%.2f,%.1f,%.2f",
+        return String.format(Locale.ROOT, "%s,%.2f,%.2f,%.1f,%.2f",
                 itemCode, cost, salePrice, discount, discountedPrice);
     }
 }
@@ -0,0 +1,267 @@
+package com.example.tax.utils;
+
+import com.example.tax.models.RowDeduplicator;
+import com.example.tax.models.TransactionStore;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Imports every Tax Transaction File in a directory in parallel.
+ * Each ttf_*.csv file is parsed as its own task on a bounded worker pool,
+ * and the per-file results are returned in file name order so they can be merged.
+ */
+public class DirectoryImporter {
+
+    /** Glob matching the files written by the POS system. */
+    public static final String FILE_PATTERN = "ttf_*.csv";
+
+    /**
+     * Imports a directory using one worker per available processor.
+     *
+     * @param directory The directory containing the tax files
+     * @return One result per file, sorted by file name
+     * @throws IOException If the directory cannot be listed
+     * @throws InterruptedException If the calling thread is interrupted while waiting
+     */
+    public static List<FileImportResult> importDirectory(Path directory)
+            throws IOException, InterruptedException {
+        return importDirectory(directory, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Imports a directory using at most the given number of worker threads.
+     * Malformed lines are recorded on the file's result and skipped; a file that
+     * cannot be read at all is reported with an error and no rows.
+     *
+     * @param directory The directory containing the tax files
+     * @param threads The maximum number of worker threads
+     * @return One result per file, sorted by file name
+     * @throws IOException If the directory cannot be listed
+     * @throws InterruptedException If the calling thread is interrupted while waiting
+     */
+    public static List<FileImportResult> importDirectory(Path directory, int threads)
+            throws IOException, InterruptedException {
+        return importDirectory(directory, threads, null);
+    }
+
+    /**
+     * Imports a directory, reporting cumulative rows and bytes each time a file finishes.
+     *
+     * @param directory The directory containing the tax files
+     * @param threads The maximum number of worker threads
+     * @param listener Receives progress reports on the calling thread, or null for none
+     * @return One result per file, sorted by file name
+     * @throws IOException If the directory cannot be listed
+     * @throws InterruptedException If the calling thread is interrupted while waiting
+     */
+    public static List<FileImportResult> importDirectory(Path directory, int threads, ImportProgressListener listener)
+            throws IOException, InterruptedException {
+        return importFiles(listTaxFiles(directory), threads, listener);
+    }
+
+    /**
+     * Imports the given tax files in parallel, reporting cumulative rows and bytes each time a file finishes.
+     *
+     * @param files The files to import
+     * @param threads The maximum number of worker threads
+     * @param listener Receives progress reports on the calling thread, or null for none
+     * @return One result per file, in the order the files were given
+     * @throws IOException If the size of a file cannot be read
+     * @throws InterruptedException If the calling thread is interrupted while waiting
+     */
+    public static List<FileImportResult> importFiles(List<Path> files, int threads, ImportProgressListener listener)
+            throws IOException, InterruptedException {
+        long totalBytes = 0;
+        List<Callable<FileImportResult>> tasks = new ArrayList<>(files.size());
+        for (Path file : files) {
+            totalBytes += Files.size(file);
+            tasks.add(importTask(file));
+        }
+        return run(tasks, threads, listener, totalBytes);
+    }
+
+    /**
+     * Reads what was appended to each file since its reader last read it, in parallel.
+     * A file that was rewritten is read again in full; see TailFileReader.
+     *
+     * @param readers The readers of the files to refresh; each must be used by one thread at a time
+     * @param threads The maximum number of worker threads
+     * @return One result per reader, in the order the readers were given
+     * @throws InterruptedException If the calling thread is interrupted while waiting
+     */
+    public static List<FileImportResult> refreshFiles(List<TailFileReader> readers, int threads)
+            throws InterruptedException {
+        List<Callable<FileImportResult>> tasks = new ArrayList<>(readers.size());
+        for (TailFileReader reader : readers) {
+            tasks.add(reader::refresh);
+        }
+        try {
+            return run(tasks, threads, null, 0);
+        } catch (IOException e) {
+            // Only thrown when reporting progress
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static List<FileImportResult> run(List<Callable<FileImportResult>> tasks, int threads,
+                                              ImportProgressListener listener, long totalBytes)
+            throws IOException, InterruptedException {
+        List<FileImportResult> results = new ArrayList<>(tasks.size());
+        if (tasks.isEmpty()) {
+            return results;
+        }
+        long rowsDone = 0;
+        long bytesDone = 0;
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, tasks.size())));
+        try {
+            List<Future<FileImportResult>> futures = new ArrayList<>(tasks.size());
+            for (Callable<FileImportResult> task : tasks) {
+                futures.add(pool.submit(task));
+            }
+            for (Future<FileImportResult> future : futures) {
+                try {
+                    FileImportResult result = future.get();
+                    results.add(result);
+                    if (listener != null) {
+                        rowsDone += result.getRowCount();
+                        bytesDone += Files.size(result.getFile());
+                        listener.onProgress(rowsDone, bytesDone, totalBytes);
+                    }
+                } catch (ExecutionException e) {
+                    // importTask catches everything it expects, so this is a programming error
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return results;
+    }
+
+    /**
+     * Lists the tax files in a directory in file name order.
+     *
+     * @param directory The directory to scan
+     * @return The matching files
+     * @throws IOException If the directory cannot be listed
+     */
+    public static List<Path> listTaxFiles(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, FILE_PATTERN)) {
+            for (Path file : stream) {
+                if (Files.isRegularFile(file)) {
+                    files.add(file);
+                }
+            }
+        }
+        files.sort(null);
+        return files;
+    }
+
+    /**
+     * Concatenates the rows of all results in order.
+     *
+     * @param results The per-file results
+     * @return A single store holding every imported row
+     */
+    public static TransactionStore merge(List<FileImportResult> results) {
+        int total = 0;
+        for (FileImportResult result : results) {
+            total += result.getRowCount();
+        }
+        TransactionStore merged = new TransactionStore(total);
+        for (FileImportResult result : results) {
+            merged.addAll(result.getStore());
+        }
+        return merged;
+    }
+
+    /**
+     * Removes the rows that repeat rows of an earlier file, such as a bill's sales that are both in its
+     * ttf_&lt;id&gt;.csv and in ttf_all_bills.csv, and records on each result how many it lost.
+     * Rows repeated within one file are kept; see RowDeduplicator. Files are taken in the given order,
+     * so with file name order the per-bill files keep their rows and ttf_all_bills.csv loses them.
+     *
+     * @param results The per-file results, in import order
+     * @return The total number of rows removed
+     */
+    public static int removeDuplicates(List<FileImportResult> results) {
+        int total = 0;
+        for (FileImportResult result : results) {
+            total += result.getRowCount();
+        }
+        return removeDuplicates(results, new RowDeduplicator(total));
+    }
+
+    /**
+     * Removes duplicate rows as above, keeping what was kept in a deduplicator so that files read later
+     * can be checked against it; see removeDuplicates(FileImportResult, int, RowDeduplicator).
+     * Each result's source in the deduplicator is its index in the list.
+     *
+     * @param results The per-file results, in import order
+     * @param deduplicator A deduplicator nothing has been added to
+     * @return The total number of rows removed
+     */
+    public static int removeDuplicates(List<FileImportResult> results, RowDeduplicator deduplicator) {
+        int removed = 0;
+        for (int i = 0; i < results.size(); i++) {
+            FileImportResult result = results.get(i);
+            BitSet duplicates = deduplicator.add(result.getStore(), i);
+            result.getStore().removeRows(duplicates);
+            result.setDuplicatesRemoved(duplicates.cardinality());
+            removed += duplicates.cardinality();
+        }
+        return removed;
+    }
+
+    /**
+     * Removes the rows of a file read again by a watched folder that are already kept, e.g. the sales of a
+     * new bill appended to ttf_all_bills.csv after its ttf_&lt;id&gt;.csv was read, and records how many it lost.
+     * If the file was rewritten, its earlier rows are forgotten first, and the rows of other files that were
+     * dropped as duplicates of them but are no longer in the file are returned, to be added back.
+     *
+     * @param result The result of reading the file again; see TaxFolderWatcher
+     * @param source The file's source in the deduplicator
+     * @param deduplicator The deduplicator the file's earlier rows were checked with
+     * @return The rows to add back, by source; empty unless the file was rewritten
+     */
+    public static Map<Integer, TransactionStore> removeDuplicates(FileImportResult result, int source,
+                                                                  RowDeduplicator deduplicator) {
+        if (!result.isAppend()) {
+            deduplicator.removeSource(source);
+        }
+        BitSet duplicates = deduplicator.add(result.getStore(), source);
+        result.getStore().removeRows(duplicates);
+        result.setDuplicatesRemoved(duplicates.cardinality());
+        return deduplicator.takeMissingRows();
+    }
+
+    /**
+     * Imports a single tax file on the calling thread. Malformed lines are recorded on the
+     * result and skipped; a file that cannot be read is reported with an error and no rows.
+     * The file is read through a TailFileReader, so a watched folder can later read only what was appended.
+     *
+     * @param file The file to import
+     * @return The result for the file
+     */
+    public static FileImportResult importFile(Path file) {
+        return new TailFileReader(file).refresh();
+    }
+
+    private static Callable<FileImportResult> importTask(Path file) {
+        return () -> importFile(file);
+    }
+}
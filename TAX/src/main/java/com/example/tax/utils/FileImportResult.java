@@ -0,0 +1,92 @@
+package com.example.tax.utils;
+
+import com.example.tax.models.TransactionStore;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of importing a single Tax Transaction File.
+ * Holds the parsed rows together with the row count, any errors and the time taken,
+ * so a multi-file import can report on each file separately.
+ */
+public class FileImportResult {
+    private final Path file;
+    private final TransactionStore store = new TransactionStore();
+    private final List<String> errors = new ArrayList<>();
+    private long elapsedNanos;
+    private SnapshotCache.SourceKey sourceKey;
+    private boolean append;
+    private TailFileReader tail;
+    private int duplicatesRemoved;
+    private OperationMetrics metrics;
+
+    /**
+     * Creates an empty result for the given file.
+     *
+     * @param file The file this result describes
+     */
+    public FileImportResult(Path file) {
+        this.file = file;
+    }
+
+    public Path getFile() { return file; }
+
+    public TransactionStore getStore() { return store; }
+
+    public int getRowCount() { return store.size(); }
+
+    public List<String> getErrors() { return errors; }
+
+    public boolean hasErrors() { return !errors.isEmpty(); }
+
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    void setElapsedNanos(long elapsedNanos) { this.elapsedNanos = elapsedNanos; }
+
+    /**
+     * @return The size and modification time of the file when it was read, or null if they could not be read
+     */
+    public SnapshotCache.SourceKey getSourceKey() { return sourceKey; }
+
+    void setSourceKey(SnapshotCache.SourceKey sourceKey) { this.sourceKey = sourceKey; }
+
+    /**
+     * @return true if the rows were appended to the file since it was last read and follow the rows read then,
+     *         false if they are the whole file
+     */
+    public boolean isAppend() { return append; }
+
+    void setAppend(boolean append) { this.append = append; }
+
+    /**
+     * @return The reader that produced this result, positioned after the rows it read
+     */
+    TailFileReader getTail() { return tail; }
+
+    void setTail(TailFileReader tail) { this.tail = tail; }
+
+    /**
+     * @return The number of rows dropped because an earlier file already had them; see DirectoryImporter.removeDuplicates
+     */
+    public int getDuplicatesRemoved() { return duplicatesRemoved; }
+
+    void setDuplicatesRemoved(int duplicatesRemoved) { this.duplicatesRemoved = duplicatesRemoved; }
+
+    /**
+     * @return The stage timings, bytes read and allocations of reading the file, or null if they were not recorded
+     */
+    public OperationMetrics getMetrics() { return metrics; }
+
+    void setMetrics(OperationMetrics metrics) { this.metrics = metrics; }
+
+    /**
+     * @return A one-line summary such as "ttf_1001.csv: 4 rows, 0 errors",
+     *         followed by ", 2 duplicates removed" if any were
+     */
+    public String getSummary() {
+        String summary = String.format("%s: %d rows, %d errors", file.getFileName(), getRowCount(), errors.size());
+        return duplicatesRemoved > 0 ? summary + ", " + duplicatesRemoved + " duplicates removed" : summary;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.tax.utils;
+
+/**
+ * Receives periodic progress reports while a transaction file is being parsed.
+ * Reports arrive in batches of rows rather than once per row.
+ */
+@FunctionalInterface
+public interface ImportProgressListener {
+    void onProgress(long rowsParsed, long bytesRead, long totalBytes);
+}
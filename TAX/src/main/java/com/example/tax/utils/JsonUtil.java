@@ -0,0 +1,35 @@
+package com.example.tax.utils;
+
+/**
+ * Helpers for the small JSON documents the batch mode and the metrics log write by hand.
+ */
+public class JsonUtil {
+
+    /**
+     * Quotes a string as a JSON string literal, escaping quotes, backslashes and control characters.
+     *
+     * @param value The string to quote
+     * @return The JSON literal, including the surrounding quotes
+     */
+    public static String quote(String value) {
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> quoted.append("\\\"");
+                case '\\' -> quoted.append("\\\\");
+                case '\n' -> quoted.append("\\n");
+                case '\r' -> quoted.append("\\r");
+                case '\t' -> quoted.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+                }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
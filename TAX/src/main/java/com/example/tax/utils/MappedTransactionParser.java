@@ -0,0 +1,297 @@
+package com.example.tax.utils;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Zero-copy parser for Tax Transaction Files.
+ * Maps the whole file into memory and scans the bytes directly, without creating a String
+ * per line or a String[] per split. Numbers are parsed straight from the bytes, and item codes
+ * and checksums are served from small caches, so repeated values allocate nothing.
+ * Expected format: ItemCode,Cost,SalePrice,Discount,DiscountedPrice,Checksum (with a header line).
+ *
+ * <p>TransactionFileReader remains the line-based fallback for inputs that cannot be mapped.</p>
+ */
+public class MappedTransactionParser {
+
+    private static final int EXPECTED_COLUMNS = 6;
+    private static final int PROGRESS_INTERVAL = 8192;
+    private static final int CACHE_SIZE = 4096;
+    private static final int MAX_CACHED_CODE_LENGTH = 64;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final String[] SMALL_CHECKSUMS = new String[CACHE_SIZE];
+
+    static {
+        for (int i = 0; i < SMALL_CHECKSUMS.length; i++) {
+            SMALL_CHECKSUMS[i] = String.valueOf(i);
+        }
+    }
+
+    private final String[] itemCodeCache = new String[CACHE_SIZE];
+    private final int[] fieldStart = new int[EXPECTED_COLUMNS];
+    private final int[] fieldEnd = new int[EXPECTED_COLUMNS];
+
+    private MemorySegment segment;
+    private int lineNumber;
+
+    /**
+     * Parses a transaction file by memory-mapping it.
+     *
+     * @param file The CSV file to parse
+     * @param handler Receives each row as soon as it is parsed
+     * @return The number of rows emitted
+     * @throws IOException If the file cannot be opened or mapped
+     * @throws TransactionFormatException If a line is malformed
+     */
+    public static int parse(Path file, TransactionRowHandler handler) throws IOException, TransactionFormatException {
+        return parse(file, handler, null);
+    }
+
+    /**
+     * Parses a transaction file by memory-mapping it, reporting progress every few thousand rows.
+     *
+     * @param file The CSV file to parse
+     * @param handler Receives each row as soon as it is parsed
+     * @param listener Receives progress reports, or null for none
+     * @return The number of rows emitted
+     * @throws IOException If the file cannot be opened or mapped
+     * @throws TransactionFormatException If a line is malformed
+     */
+    public static int parse(Path file, TransactionRowHandler handler, ImportProgressListener listener)
+            throws IOException, TransactionFormatException {
+        return new MappedTransactionParser().parseFile(file, handler, listener);
+    }
+
+    private int parseFile(Path file, TransactionRowHandler handler, ImportProgressListener listener)
+            throws IOException, TransactionFormatException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             Arena arena = Arena.ofConfined()) {
+            segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+            return parseSegment(handler, listener);
+        } finally {
+            segment = null;
+        }
+    }
+
+    private int parseSegment(TransactionRowHandler handler, ImportProgressListener listener)
+            throws TransactionFormatException {
+        long size = segment.byteSize();
+        long pos = 0;
+        int count = 0;
+        lineNumber = 0;
+
+        while (pos < size) {
+            long lineEnd = pos;
+            while (lineEnd < size && byteAt(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            lineNumber++;
+
+            if (lineNumber > 1) { // Skip header
+                if (parseLine(pos, lineEnd, handler)) {
+                    count++;
+                    if (listener != null && count % PROGRESS_INTERVAL == 0) {
+                        listener.onProgress(count, lineEnd, size);
+                    }
+                }
+            }
+            pos = lineEnd + 1;
+        }
+        if (listener != null) {
+            listener.onProgress(count, size, size);
+        }
+        return count;
+    }
+
+    /**
+     * Parses the bytes [start, end) of one line.
+     *
+     * @return true if a row was emitted, false if the line was blank
+     */
+    private boolean parseLine(long start, long end, TransactionRowHandler handler) throws TransactionFormatException {
+        // Same trimming rule as String.trim(): drop bytes <= ' ' at either end (also removes '\r')
+        while (start < end && (byteAt(start) & 0xFF) <= ' ') start++;
+        while (end > start && (byteAt(end - 1) & 0xFF) <= ' ') end--;
+        if (start == end) {
+            return false;
+        }
+
+        int length = (int) (end - start);
+        int columns = 0;
+        int fieldFrom = 0;
+        for (int i = 0; i <= length; i++) {
+            if (i == length || byteAt(start + i) == ',') {
+                if (columns < EXPECTED_COLUMNS) {
+                    fieldStart[columns] = fieldFrom;
+                    fieldEnd[columns] = i;
+                }
+                columns++;
+                fieldFrom = i + 1;
+            }
+        }
+        // Trailing empty fields don't count, matching what String.split(",") reports
+        int found = byteAt(end - 1) == ',' ? countColumns(start, length) : columns;
+        if (found < EXPECTED_COLUMNS) {
+            throw new TransactionFormatException(lineNumber, "Invalid data format in line " + lineNumber
+                    + ". Expected at least " + EXPECTED_COLUMNS + " columns, but found " + found);
+        }
+
+        String itemCode = readItemCode(start, 0);
+        double cost = readDouble(start, 1);
+        double salePrice = readDouble(start, 2);
+        double discount = readDouble(start, 3);
+        TransactionFileReader.checkRange(lineNumber, cost, salePrice, discount);
+        String checksum = readChecksum(start, 5);
+
+        handler.onRow(itemCode, cost, salePrice, discount, checksum);
+        return true;
+    }
+
+    private String readItemCode(long lineStart, int field) {
+        long from = lineStart + fieldStart[field];
+        long to = lineStart + fieldEnd[field];
+        while (from < to && (byteAt(from) & 0xFF) <= ' ') from++;
+        while (to > from && (byteAt(to - 1) & 0xFF) <= ' ') to--;
+
+        if (to - from > MAX_CACHED_CODE_LENGTH) {
+            return decode(from, to); // Unusually long, don't cache
+        }
+        int hash = 0;
+        for (long i = from; i < to; i++) {
+            byte b = byteAt(i);
+            if (b < 0) {
+                return decode(from, to); // Non-ASCII, don't cache
+            }
+            hash = 31 * hash + b;
+        }
+
+        int slot = (hash ^ (hash >>> 16)) & (CACHE_SIZE - 1);
+        String cached = itemCodeCache[slot];
+        if (cached != null && matches(cached, from, to)) {
+            return cached;
+        }
+        String code = decode(from, to);
+        itemCodeCache[slot] = code;
+        return code;
+    }
+
+    private String readChecksum(long lineStart, int field) {
+        long from = lineStart + fieldStart[field];
+        long to = lineStart + fieldEnd[field];
+        while (from < to && (byteAt(from) & 0xFF) <= ' ') from++;
+        while (to > from && (byteAt(to - 1) & 0xFF) <= ' ') to--;
+
+        // Canonical small numbers ("0", "52", ...) come from a shared table
+        int length = (int) (to - from);
+        if (length > 0 && length <= 4 && (length == 1 || byteAt(from) != '0')) {
+            int value = 0;
+            boolean digits = true;
+            for (long i = from; i < to && digits; i++) {
+                byte b = byteAt(i);
+                digits = b >= '0' && b <= '9';
+                value = value * 10 + (b - '0');
+            }
+            if (digits && value < CACHE_SIZE) {
+                return SMALL_CHECKSUMS[value];
+            }
+        }
+        return decode(from, to);
+    }
+
+    /**
+     * Parses a plain decimal such as "1400.00" directly from the bytes.
+     * Values whose digits fit in a double exactly are converted with a single correctly-rounded
+     * division, which gives the same result as Double.parseDouble. Anything else (exponents,
+     * very long numbers, malformed input) goes through Double.parseDouble itself.
+     */
+    private double readDouble(long lineStart, int field) throws TransactionFormatException {
+        long from = lineStart + fieldStart[field];
+        long to = lineStart + fieldEnd[field];
+        while (from < to && (byteAt(from) & 0xFF) <= ' ') from++;
+        while (to > from && (byteAt(to - 1) & 0xFF) <= ' ') to--;
+
+        long i = from;
+        boolean negative = false;
+        if (i < to && (byteAt(i) == '-' || byteAt(i) == '+')) {
+            negative = byteAt(i) == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int scale = -1;
+        for (; i < to; i++) {
+            byte b = byteAt(i);
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (scale >= 0) scale++;
+            } else if (b == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                break;
+            }
+        }
+
+        if (i == to && digits > 0 && digits <= 15 && scale < POWERS_OF_TEN.length) {
+            double value = scale > 0 ? mantissa / POWERS_OF_TEN[scale] : mantissa;
+            return negative ? -value : value;
+        }
+
+        String text = decode(from, to);
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw new TransactionFormatException(lineNumber,
+                    "Invalid number format in line " + lineNumber + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Counts columns the same way String.split(",") does, i.e. ignoring trailing empty fields.
+     */
+    private int countColumns(long start, int length) {
+        int end = length;
+        while (end > 0 && byteAt(start + end - 1) == ',') {
+            end--;
+        }
+        if (end == 0) {
+            return 0;
+        }
+        int columns = 1;
+        for (int i = 0; i < end; i++) {
+            if (byteAt(start + i) == ',') columns++;
+        }
+        return columns;
+    }
+
+    private boolean matches(String cached, long from, long to) {
+        if (cached.length() != to - from) {
+            return false;
+        }
+        for (int i = 0; i < cached.length(); i++) {
+            if (cached.charAt(i) != byteAt(from + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String decode(long from, long to) {
+        byte[] bytes = segment.asSlice(from, to - from).toArray(ValueLayout.JAVA_BYTE);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private byte byteAt(long offset) {
+        return segment.get(ValueLayout.JAVA_BYTE, offset);
+    }
+}
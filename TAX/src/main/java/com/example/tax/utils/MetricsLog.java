@@ -0,0 +1,87 @@
+package com.example.tax.utils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Keeps the metrics of the most recent imports and bulk operations, for the metrics panel of the home view
+ * and the JSON dump of the batch mode. The oldest entries are dropped once the log is full. Thread-safe.
+ */
+public class MetricsLog {
+    /** Operations the shared log keeps. */
+    static final int CAPACITY = 100;
+
+    private static final MetricsLog SHARED = new MetricsLog(CAPACITY);
+
+    private final int capacity;
+    private final Deque<OperationMetrics> entries = new ArrayDeque<>();
+
+    /**
+     * Creates an empty log.
+     *
+     * @param capacity The number of operations to keep
+     */
+    public MetricsLog(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * @return The log the application records its operations in
+     */
+    public static MetricsLog shared() {
+        return SHARED;
+    }
+
+    /**
+     * Finishes an operation's metrics and adds them to the log.
+     *
+     * @param metrics The metrics of the operation
+     */
+    public synchronized void record(OperationMetrics metrics) {
+        metrics.finish();
+        if (entries.size() == capacity) {
+            entries.removeFirst();
+        }
+        entries.addLast(metrics);
+    }
+
+    /**
+     * @return The logged operations, oldest first
+     */
+    public synchronized List<OperationMetrics> getEntries() {
+        return new ArrayList<>(entries);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * @return The logged operations as a JSON document, oldest first
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{\"operations\":[");
+        List<OperationMetrics> logged = getEntries();
+        for (int i = 0; i < logged.size(); i++) {
+            if (i > 0) json.append(',');
+            json.append(logged.get(i).toJson());
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * Writes the logged operations to a file as JSON.
+     *
+     * @param file The file to create or replace
+     * @throws IOException If the file cannot be written
+     */
+    public void writeJson(Path file) throws IOException {
+        Files.writeString(file, toJson() + System.lineSeparator(), StandardCharsets.UTF_8);
+    }
+}
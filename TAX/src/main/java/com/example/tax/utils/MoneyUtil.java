@@ -0,0 +1,199 @@
+package com.example.tax.utils;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * Utility class for fixed-point money arithmetic.
+ * Amounts are held as a long count of cents and discount percentages as a long count of
+ * 1/10,000ths of a percent, so sums and tax are computed with exact integer math and give the
+ * same result on every run. Rounding is half-up (away from zero), the same rounding %.2f applies
+ * when a transaction line is formatted. The one exception is the discounted price, which is
+ * derived in double exactly as the POS writes it (see discountedCents), so checksums match.
+ */
+public class MoneyUtil {
+
+    /** Cents in one rupee. */
+    public static final long CENTS_PER_UNIT = 100;
+
+    /** Discount units in one percent, i.e. four decimal places of a percentage. */
+    public static final long DISCOUNT_SCALE = 10_000;
+
+    /**
+     * The largest amount in rupees a row may hold, so its cents, discounted price and profit all fit in a long.
+     * Larger amounts, NaN and infinities are rejected when a row is read or edited.
+     */
+    public static final double MAX_AMOUNT = 1e12;
+
+    /** The largest discount percentage a row may hold, for the same reason. */
+    public static final double MAX_DISCOUNT = 1e4;
+
+    /** A discount of 100%, in discount units. */
+    private static final long FULL_DISCOUNT = 100 * DISCOUNT_SCALE;
+
+    /** Scaled values below this have an ulp far smaller than HALF_TOLERANCE. */
+    private static final double EXACT_SCALED_LIMIT = 1e12;
+
+    /** Scaled values this close to a half are rounded through BigDecimal instead. */
+    private static final double HALF_TOLERANCE = 1e-3;
+
+    /**
+     * Converts an amount to cents, rounding half-up on its shortest decimal form as %.2f does.
+     *
+     * @param amount The amount in rupees
+     * @return The amount in cents
+     */
+    public static long toCents(double amount) {
+        return toScaled(amount, CENTS_PER_UNIT, 2);
+    }
+
+    /**
+     * Converts a discount percentage to discount units, rounding half-up at four decimal places.
+     * Checksums print the discount with one decimal, rounded from the units. A discount with more
+     * than four decimals can round up onto a half of a tenth, e.g. 12.34996 to 12.3500, and would
+     * then print as 12.4 where %.1f on the percentage prints 12.3; such a discount is stored one unit
+     * closer to zero instead (12.3499), so the printed tenth always matches the percentage's own.
+     *
+     * @param percent The discount percentage
+     * @return The discount in 1/10,000ths of a percent
+     */
+    public static long toDiscountUnits(double percent) {
+        long units = toScaled(percent, DISCOUNT_SCALE, 4);
+        if (Math.abs(units) % (DISCOUNT_SCALE / 10) == DISCOUNT_SCALE / 20
+                && BigDecimal.valueOf(Math.abs(percent)).compareTo(BigDecimal.valueOf(Math.abs(units), 4)) < 0) {
+            return units < 0 ? units + 1 : units - 1;
+        }
+        return units;
+    }
+
+    /**
+     * @param amount An amount in rupees
+     * @return true if the amount is finite and no larger than MAX_AMOUNT either way, so toCents() accepts it
+     */
+    public static boolean isStorableAmount(double amount) {
+        return Math.abs(amount) <= MAX_AMOUNT;
+    }
+
+    /**
+     * @param percent A discount percentage
+     * @return true if the discount is finite and no larger than MAX_DISCOUNT either way
+     */
+    public static boolean isStorableDiscount(double percent) {
+        return Math.abs(percent) <= MAX_DISCOUNT;
+    }
+
+    /**
+     * @param cents An amount in cents
+     * @return The amount in rupees
+     */
+    public static double toDouble(long cents) {
+        return cents / (double) CENTS_PER_UNIT;
+    }
+
+    /**
+     * @param discountUnits A discount in 1/10,000ths of a percent
+     * @return The discount percentage
+     */
+    public static double discountToDouble(long discountUnits) {
+        return discountUnits / (double) DISCOUNT_SCALE;
+    }
+
+    /**
+     * Calculates the price after a discount as the POS does: salePrice - salePrice * (discount / 100)
+     * in double, rounded to the cent the way %.2f prints it (half-up on the shortest decimal form).
+     * This is not the exact discounted price: 0.30 at 25% is 0.22499999999999998 in double and the
+     * POS writes 0.22, so rounding the exact 0.225 would give a different checksum for about one
+     * record in a hundred. The result is still whole cents, so totals over it stay exact.
+     *
+     * @param salePriceCents The sale price in cents
+     * @param discountUnits The discount in 1/10,000ths of a percent
+     * @return The discounted price in cents
+     */
+    public static long discountedCents(long salePriceCents, long discountUnits) {
+        // Dividing by a power of ten gives the same double as parsing the decimal the POS wrote
+        double salePrice = toDouble(salePriceCents);
+        return toCents(salePrice - salePrice * (discountToDouble(discountUnits) / 100));
+    }
+
+    /**
+     * Calculates a percentage of an amount, rounded half-up to the cent, e.g. the tax on a profit.
+     *
+     * @param cents The amount in cents
+     * @param percent The percentage to take
+     * @return The percentage of the amount in cents
+     */
+    public static long percentOf(long cents, double percent) {
+        return scaleAndRound(cents, toDiscountUnits(percent), FULL_DISCOUNT);
+    }
+
+    /**
+     * Divides two integers, rounding half-up (away from zero).
+     *
+     * @param numerator The dividend
+     * @param denominator The divisor, which must be positive
+     * @return The rounded quotient
+     */
+    public static long roundHalfUp(long numerator, long denominator) {
+        long quotient = numerator / denominator;
+        long remainder = Math.abs(numerator % denominator);
+        if (remainder >= denominator - remainder) {
+            quotient += numerator < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+
+    /**
+     * Formats cents as a plain decimal with two places, e.g. -1234.50, without a Formatter.
+     *
+     * @param cents The amount in cents
+     * @return The formatted amount
+     */
+    public static String format(long cents) {
+        StringBuilder text = new StringBuilder(24);
+        if (cents < 0) {
+            text.append('-');
+        }
+        long magnitude = Math.abs(cents);
+        long fraction = magnitude % CENTS_PER_UNIT;
+        text.append(magnitude / CENTS_PER_UNIT).append('.');
+        if (fraction < 10) {
+            text.append('0');
+        }
+        return text.append(fraction).toString();
+    }
+
+    /**
+     * Computes value * multiplier / divisor rounded half-up, falling back to BigInteger
+     * only if the product does not fit in a long.
+     */
+    private static long scaleAndRound(long value, long multiplier, long divisor) {
+        long high = Math.multiplyHigh(value, multiplier);
+        long low = value * multiplier;
+        if ((high == 0 && low >= 0) || (high == -1 && low < 0)) {
+            return roundHalfUp(low, divisor);
+        }
+        BigInteger product = BigInteger.valueOf(value).multiply(BigInteger.valueOf(multiplier));
+        return new BigDecimal(product).divide(BigDecimal.valueOf(divisor), 0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    /**
+     * Rounds value * scale half-up to an integer, as BigDecimal.valueOf(value).setScale(places, HALF_UP)
+     * would. Values sitting right on a half, and huge values, go through BigDecimal to stay exact.
+     */
+    private static long toScaled(double value, long scale, int places) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new ArithmeticException("Not a finite amount: " + value);
+        }
+        double scaled = Math.abs(value) * scale;
+        if (scaled < EXACT_SCALED_LIMIT) {
+            double floor = Math.floor(scaled);
+            double fraction = scaled - floor;
+            if (Math.abs(fraction - 0.5) >= HALF_TOLERANCE) {
+                long units = (long) floor + (fraction > 0.5 ? 1 : 0);
+                return value < 0 ? -units : units;
+            }
+        }
+        return BigDecimal.valueOf(value).setScale(places, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.tax.utils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Timings and counters of one import or bulk operation, such as importing a folder or deleting
+ * every invalid record. The time spent in each stage, the rows and bytes handled and the bytes
+ * allocated are added as the operation runs, from any thread, and the total time is set by finish().
+ * Stages that run on several threads at once add up their time on each thread, so the stage times of
+ * a parallel import can add up to more than the total. Allocations are the JVM's per-thread estimate
+ * of the bytes allocated on the threads that did the work, or 0 where the JVM does not track them.
+ */
+public class OperationMetrics {
+
+    /**
+     * The stages an operation's time is split into.
+     */
+    public enum Stage {
+        /** Reading bytes from a file; part of PARSE for memory-mapped files. */
+        READ,
+        /** Splitting lines into fields and adding the rows to a store. */
+        PARSE,
+        /** Checking checksums. */
+        VALIDATE,
+        /** Dropping rows repeated across files. */
+        DEDUPLICATE,
+        /** Combining the stores of several files. */
+        MERGE,
+        /** Sorting and filtering rows for the table. */
+        SORT,
+        /** Totalling rows per group. */
+        AGGREGATE,
+        /** Removing rows. */
+        DELETE,
+        /** Writing rows to a file. */
+        WRITE,
+        /** Putting rows into the table. */
+        TABLE
+    }
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final boolean ALLOCATIONS_TRACKED = THREADS instanceof com.sun.management.ThreadMXBean threads
+            && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled();
+
+    private final String name;
+    private final long startedAtMillis = System.currentTimeMillis();
+    private final long startNanos = System.nanoTime();
+    private final AtomicLongArray stageNanos = new AtomicLongArray(Stage.values().length);
+    private final AtomicLong rows = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong allocatedBytes = new AtomicLong();
+    private volatile long totalNanos = -1;
+
+    /**
+     * Starts timing an operation.
+     *
+     * @param name What the operation did, e.g. "Import folder TaxFiles"
+     */
+    public OperationMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the bytes the JVM estimates the calling thread has allocated so far. Subtracting two
+     * readings taken on the same thread gives the allocations in between.
+     *
+     * @return The allocated bytes, or 0 if the JVM does not track them
+     */
+    public static long threadAllocatedBytes() {
+        return ALLOCATIONS_TRACKED ? ((com.sun.management.ThreadMXBean) THREADS).getCurrentThreadAllocatedBytes() : 0;
+    }
+
+    public void addStageNanos(Stage stage, long nanos) { stageNanos.addAndGet(stage.ordinal(), nanos); }
+
+    public void addRows(long count) { rows.addAndGet(count); }
+
+    public void addBytes(long count) { bytes.addAndGet(count); }
+
+    public void addAllocatedBytes(long count) { allocatedBytes.addAndGet(count); }
+
+    /**
+     * Adds the stage times, rows, bytes and allocations of a part of this operation, e.g. one file of a folder.
+     *
+     * @param part The metrics of the part
+     */
+    public void add(OperationMetrics part) {
+        for (Stage stage : Stage.values()) {
+            addStageNanos(stage, part.getStageNanos(stage));
+        }
+        addRows(part.getRows());
+        addBytes(part.getBytes());
+        addAllocatedBytes(part.getAllocatedBytes());
+    }
+
+    /**
+     * Sets the total time to the time since the operation started. Only the first call counts.
+     *
+     * @return This object
+     */
+    public OperationMetrics finish() {
+        if (totalNanos < 0) {
+            totalNanos = System.nanoTime() - startNanos;
+        }
+        return this;
+    }
+
+    public String getName() { return name; }
+
+    public long getStartedAtMillis() { return startedAtMillis; }
+
+    public long getStageNanos(Stage stage) { return stageNanos.get(stage.ordinal()); }
+
+    public long getRows() { return rows.get(); }
+
+    public long getBytes() { return bytes.get(); }
+
+    public long getAllocatedBytes() { return allocatedBytes.get(); }
+
+    /**
+     * @return The time from start to finish(), or until now if the operation has not finished
+     */
+    public long getTotalNanos() {
+        long total = totalNanos;
+        return total >= 0 ? total : System.nanoTime() - startNanos;
+    }
+
+    public double getRowsPerSecond() { return rows.get() / seconds(); }
+
+    public double getMegabytesPerSecond() { return bytes.get() / 1048576.0 / seconds(); }
+
+    private double seconds() {
+        return Math.max(1e-9, getTotalNanos() / 1e9);
+    }
+
+    /**
+     * @return The metrics as a JSON object, with times in milliseconds and only the stages that took time
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{\"operation\":").append(JsonUtil.quote(name))
+                .append(",\"startedAt\":").append(startedAtMillis)
+                .append(",\"totalMillis\":").append(millis(getTotalNanos()))
+                .append(",\"rows\":").append(getRows())
+                .append(",\"bytes\":").append(getBytes())
+                .append(",\"allocatedBytes\":").append(getAllocatedBytes())
+                .append(",\"rowsPerSecond\":").append(Math.round(getRowsPerSecond()))
+                .append(",\"megabytesPerSecond\":").append(String.format(Locale.ROOT, "%.1f", getMegabytesPerSecond()))
+                .append(",\"stages\":{");
+        boolean first = true;
+        for (Stage stage : Stage.values()) {
+            if (getStageNanos(stage) > 0) {
+                if (!first) json.append(',');
+                json.append('"').append(stage.name().toLowerCase(Locale.ROOT)).append("\":").append(millis(getStageNanos(stage)));
+                first = false;
+            }
+        }
+        return json.append("}}").toString();
+    }
+
+    /**
+     * @return A short text report such as "Import folder TaxFiles: 1,000,000 rows in 812.4 ms ..."
+     *         followed by one line per stage that took time
+     */
+    public String getSummary() {
+        StringBuilder summary = new StringBuilder(String.format("%s: %,d rows in %s ms (%,.0f rows/sec",
+                name, getRows(), millis(getTotalNanos()), getRowsPerSecond()));
+        if (getBytes() > 0) {
+            summary.append(String.format(", %.1f MB/s", getMegabytesPerSecond()));
+        }
+        summary.append(')');
+        if (getAllocatedBytes() > 0) {
+            summary.append(String.format(", ~%.1f MB allocated", getAllocatedBytes() / 1048576.0));
+        }
+        for (Stage stage : Stage.values()) {
+            if (getStageNanos(stage) > 0) {
+                summary.append(String.format("%n  %-11s %s ms", stage.name().toLowerCase(Locale.ROOT), millis(getStageNanos(stage))));
+            }
+        }
+        return summary.toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1e6);
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.tax.utils;
+
+import com.example.tax.models.TransactionStore;
+
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Collects parsed rows into pages and hands each full page on as soon as it fills up, so the first rows
+ * of a very large file can be shown while the rest is still being read. The first page is kept small so
+ * it fills almost immediately; every following page is larger. Each page is validated before it is handed
+ * on, and is never touched again by the collector.
+ * Used by TransactionImportTask, which passes the pages to the JavaFX Application Thread.
+ */
+class PageCollector implements TransactionRowHandler {
+    /** Rows in the first page, kept small so the first rows show almost immediately. */
+    static final int FIRST_PAGE_ROWS = 1024;
+
+    /** Rows in every following page. */
+    static final int PAGE_ROWS = 64 * 1024;
+
+    private final int pageRows;
+    private final BooleanSupplier cancelled;
+    private final OperationMetrics metrics;
+    private final Consumer<TransactionStore> pageHandler;
+
+    private TransactionStore page;
+    private int currentPageRows;
+    private boolean delivered;
+    private int deliveredRows;
+
+    /**
+     * Creates a collector with the default page sizes.
+     *
+     * @param cancelled Tells whether the import was cancelled; checked after every row
+     * @param metrics Receives the time spent validating the pages
+     * @param pageHandler Receives each full page, on the parsing thread
+     */
+    PageCollector(BooleanSupplier cancelled, OperationMetrics metrics, Consumer<TransactionStore> pageHandler) {
+        this(FIRST_PAGE_ROWS, PAGE_ROWS, cancelled, metrics, pageHandler);
+    }
+
+    /**
+     * Creates a collector with the given page sizes.
+     *
+     * @param firstPageRows The rows in the first page
+     * @param pageRows The rows in every following page
+     * @param cancelled Tells whether the import was cancelled; checked after every row
+     * @param metrics Receives the time spent validating the pages
+     * @param pageHandler Receives each full page, on the parsing thread
+     */
+    PageCollector(int firstPageRows, int pageRows, BooleanSupplier cancelled, OperationMetrics metrics,
+                  Consumer<TransactionStore> pageHandler) {
+        this.pageRows = pageRows;
+        this.cancelled = cancelled;
+        this.metrics = metrics;
+        this.pageHandler = pageHandler;
+        this.page = new TransactionStore(firstPageRows);
+        this.currentPageRows = firstPageRows;
+    }
+
+    /**
+     * Adds a row to the current page, handing the page on once it is full.
+     *
+     * @throws CancellationException If the import was cancelled
+     */
+    @Override
+    public void onRow(String itemCode, double cost, double salePrice, double discount, String checksum) {
+        page.add(itemCode, cost, salePrice, discount, checksum);
+        if (page.size() == currentPageRows) {
+            deliver();
+        }
+        if (cancelled.getAsBoolean()) {
+            throw new CancellationException();
+        }
+    }
+
+    /**
+     * Hands the current page on if it has any rows, e.g. the last, partly filled page of a file.
+     * A page is only handed on once; the collector starts a new page for any row added afterwards.
+     */
+    void deliver() {
+        TransactionStore full = page;
+        if (full.size() > 0) {
+            long validateStart = System.nanoTime();
+            full.validateAll();
+            metrics.addStageNanos(OperationMetrics.Stage.VALIDATE, System.nanoTime() - validateStart);
+            delivered = true;
+            deliveredRows += full.size();
+            page = new TransactionStore(pageRows);
+            currentPageRows = pageRows;
+            pageHandler.accept(full);
+        }
+    }
+
+    /**
+     * @return The number of rows handed on so far
+     */
+    int rowsDelivered() {
+        return deliveredRows;
+    }
+
+    /**
+     * Discards the rows of the current page so parsing can start again from the top,
+     * unless pages have already been handed on.
+     *
+     * @return true if the rows were discarded, false if pages were already handed on
+     */
+    boolean reset() {
+        if (delivered) {
+            return false;
+        }
+        page.clear();
+        return true;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.tax.utils;
+
+import com.example.tax.models.TransactionSnapshot;
+import com.example.tax.models.TransactionStore;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Folder of TransactionSnapshot files, one per imported source file.
+ * A snapshot is found by the source file's absolute path and is only used while the source
+ * still has the size and modification time it had when it was imported, so an edited file
+ * is always imported again.
+ */
+public class SnapshotCache {
+    private final Path directory;
+
+    /**
+     * Creates a cache that keeps its snapshots in the given folder, creating it when the first snapshot is saved.
+     *
+     * @param directory The snapshot folder
+     */
+    public SnapshotCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @return A cache in the .tax/snapshots folder of the user's home directory
+     */
+    public static SnapshotCache inUserHome() {
+        return new SnapshotCache(Paths.get(System.getProperty("user.home"), ".tax", "snapshots"));
+    }
+
+    /**
+     * Identifies the current version of a source file.
+     * Take the key before reading the file, so a change made while it is imported makes the snapshot stale.
+     *
+     * @param source The source file
+     * @return The key of the source file as it is now
+     * @throws IOException If the file's attributes cannot be read
+     */
+    public static SourceKey keyOf(Path source) throws IOException {
+        return new SourceKey(source.toAbsolutePath().normalize().toString(), Files.size(source),
+                Files.getLastModifiedTime(source).to(TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * Loads the snapshot of a source file if the file has not changed since it was saved.
+     * A damaged or unreadable snapshot is reported and treated as missing.
+     *
+     * @param source The source file
+     * @return The restored rows, or null if there is no up-to-date snapshot
+     */
+    public TransactionStore load(Path source) {
+        try {
+            SourceKey key = keyOf(source);
+            return TransactionSnapshot.read(snapshotFile(key), key.getPath(), key.getSize(), key.getModified());
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Saves the rows imported from a source file.
+     *
+     * @param key The key of the source file, taken before it was read
+     * @param store The imported rows
+     * @throws IOException If the snapshot cannot be written
+     */
+    public void save(SourceKey key, TransactionStore store) throws IOException {
+        TransactionSnapshot.write(store, snapshotFile(key), key.getPath(), key.getSize(), key.getModified());
+    }
+
+    private Path snapshotFile(SourceKey key) {
+        return directory.resolve(UUID.nameUUIDFromBytes(key.getPath().getBytes(StandardCharsets.UTF_8)) + ".snap");
+    }
+
+    /**
+     * Path, size and modification time of a source file.
+     */
+    public static final class SourceKey {
+        private final String path;
+        private final long size;
+        private final long modified;
+
+        private SourceKey(String path, long size, long modified) {
+            this.path = path;
+            this.size = size;
+            this.modified = modified;
+        }
+
+        public String getPath() { return path; }
+
+        public long getSize() { return size; }
+
+        public long getModified() { return modified; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof SourceKey)) return false;
+            SourceKey other = (SourceKey) o;
+            return size == other.size && modified == other.modified && path.equals(other.path);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, size, modified);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.tax.utils;
+
+import com.example.tax.events.FileImportEvent;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+/**
+ * Incremental reader for a Tax Transaction File that grows over the day, such as ttf_all_bills.csv.
+ * Remembers how many bytes it has consumed and a fingerprint of the bytes before that offset, so each
+ * refresh() only parses the lines appended since the previous one. If the file is shorter than the offset
+ * or the fingerprint no longer matches, the file was rewritten and is read again from the top.
+ * The fingerprint is a CRC32C of the first and the last 4 KiB before the offset, so checking it costs the
+ * same for any file size; a rewrite that keeps both of those blocks is taken for an append.
+ * A reader is not thread-safe; refresh it from one thread at a time.
+ */
+public class TailFileReader {
+    /** Bytes at each end of the consumed prefix that the fingerprint covers. */
+    static final int FINGERPRINT_BLOCK = 4096;
+
+    private final Path file;
+    private long offset;
+    private long fingerprint;
+    private int lineNumber;
+    // Whether the consumed bytes end with a newline, so new bytes start a new line
+    private boolean atLineEnd = true;
+
+    /**
+     * Creates a reader that has not read anything yet.
+     *
+     * @param file The file to read
+     */
+    public TailFileReader(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * @return The file this reader reads
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * @return The number of bytes consumed so far
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Reads the rows added since the last refresh, or the whole file on the first refresh and after a rewrite.
+     * The header line is skipped, blank lines are ignored, and malformed lines are recorded on the result
+     * and skipped. A file that cannot be read is reported with an error and no rows, and is read again
+     * from the top on the next refresh.
+     *
+     * @return The new rows; isAppend() tells whether they follow the rows read before or replace them
+     */
+    public FileImportResult refresh() {
+        FileImportResult result = new FileImportResult(file);
+        OperationMetrics metrics = new OperationMetrics("Read " + file.getFileName());
+        FileImportEvent event = new FileImportEvent();
+        event.begin();
+        long allocatedBefore = OperationMetrics.threadAllocatedBytes();
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // Taken before reading, so a change made while the file is read shows up as a new version
+            result.setSourceKey(SnapshotCache.keyOf(file));
+            if (!isAppendedTo(channel)) {
+                offset = 0;
+                lineNumber = 0;
+                atLineEnd = true;
+            }
+            result.setAppend(offset > 0);
+            long readStart = System.nanoTime();
+            long startOffset = offset;
+            long readNanos = readLines(channel, result);
+            metrics.addStageNanos(OperationMetrics.Stage.READ, readNanos);
+            metrics.addStageNanos(OperationMetrics.Stage.PARSE, System.nanoTime() - readStart - readNanos);
+            metrics.addBytes(offset - startOffset);
+            fingerprint = fingerprint(channel, offset);
+        } catch (IOException e) {
+            result.getStore().clear();
+            result.getErrors().add("Error reading file: " + e.getMessage());
+            result.setAppend(false);
+            offset = 0;
+            lineNumber = 0;
+            atLineEnd = true;
+        }
+        long validateStart = System.nanoTime();
+        result.getStore().validateAll();
+        metrics.addStageNanos(OperationMetrics.Stage.VALIDATE, System.nanoTime() - validateStart);
+        metrics.addRows(result.getRowCount());
+        metrics.addAllocatedBytes(OperationMetrics.threadAllocatedBytes() - allocatedBefore);
+        result.setElapsedNanos(System.nanoTime() - start);
+        result.setMetrics(metrics.finish());
+        result.setTail(this);
+        if (event.shouldCommit()) {
+            event.path = file.toString();
+            event.bytes = metrics.getBytes();
+            event.rows = result.getRowCount();
+            event.errors = result.getErrors().size();
+            event.append = result.isAppend();
+            event.commit();
+        }
+        return result;
+    }
+
+    /**
+     * Tests whether the consumed bytes are still the start of the file, so reading can continue after them.
+     * A last line without its newline may have been extended since, so it always forces a full read.
+     */
+    private boolean isAppendedTo(FileChannel channel) throws IOException {
+        return offset > 0 && atLineEnd && channel.size() >= offset && fingerprint(channel, offset) == fingerprint;
+    }
+
+    /**
+     * Parses every line from the offset to the end of the file and moves the offset past them.
+     *
+     * @return The time spent waiting for reads, as opposed to parsing
+     */
+    private long readLines(FileChannel channel, FileImportResult result) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(TransactionFileReader.DEFAULT_CHUNK_SIZE);
+        byte[] bytes = buffer.array();
+        byte[] partial = new byte[256];
+        int partialLength = 0;
+        long position = offset;
+
+        long readNanos = 0;
+        while (true) {
+            long readStart = System.nanoTime();
+            int read = channel.read(buffer.clear(), position);
+            readNanos += System.nanoTime() - readStart;
+            if (read <= 0) {
+                break;
+            }
+            int lineStart = 0;
+            for (int i = 0; i < read; i++) {
+                if (bytes[i] != '\n') {
+                    continue;
+                }
+                if (partialLength > 0) {
+                    partial = append(partial, partialLength, bytes, lineStart, i - lineStart);
+                    parse(new String(partial, 0, partialLength + i - lineStart, StandardCharsets.UTF_8), result);
+                    partialLength = 0;
+                } else {
+                    parse(new String(bytes, lineStart, i - lineStart, StandardCharsets.UTF_8), result);
+                }
+                lineStart = i + 1;
+            }
+            // Keep the start of a line that continues in the next chunk
+            partial = append(partial, partialLength, bytes, lineStart, read - lineStart);
+            partialLength += read - lineStart;
+            position += read;
+            offset = position - partialLength;
+        }
+
+        atLineEnd = partialLength == 0;
+        if (!atLineEnd) {
+            // The last line has no newline yet; read it now, but read the whole file again once it grows
+            parse(new String(partial, 0, partialLength, StandardCharsets.UTF_8), result);
+            offset = position;
+        }
+        return readNanos;
+    }
+
+    private void parse(String line, FileImportResult result) {
+        lineNumber++;
+        if (lineNumber == 1) {
+            return; // Skip header
+        }
+        line = line.trim();
+        if (line.isEmpty()) {
+            return;
+        }
+        try {
+            TransactionFileReader.parseLine(line, lineNumber, result.getStore()::add);
+        } catch (TransactionFormatException e) {
+            result.getErrors().add(e.getMessage());
+        }
+    }
+
+    private static byte[] append(byte[] to, int length, byte[] from, int start, int count) {
+        if (length + count > to.length) {
+            to = Arrays.copyOf(to, Math.max(length + count, to.length * 2));
+        }
+        System.arraycopy(from, start, to, length, count);
+        return to;
+    }
+
+    /**
+     * Checksums the first and the last block of the first length bytes of the file.
+     */
+    private static long fingerprint(FileChannel channel, long length) throws IOException {
+        CRC32C crc = new CRC32C();
+        long head = Math.min(FINGERPRINT_BLOCK, length);
+        update(crc, channel, 0, head);
+        long tailStart = Math.max(head, length - FINGERPRINT_BLOCK);
+        update(crc, channel, tailStart, length - tailStart);
+        return crc.getValue();
+    }
+
+    private static void update(CRC32C crc, FileChannel channel, long position, long length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("File shrank while it was read");
+            }
+        }
+        crc.update(buffer.flip());
+    }
+}
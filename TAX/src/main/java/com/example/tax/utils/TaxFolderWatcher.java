@@ -0,0 +1,198 @@
+package com.example.tax.utils;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Watches a folder of Tax Transaction Files and imports the ttf_*.csv files that are created or changed in it.
+ * Events are collected until the folder has been quiet for a moment, so a file the POS is still writing
+ * is read once, when it is complete. A file is only read again if its size or modification time changed,
+ * and then only from where its TailFileReader stopped, so a file that keeps growing, such as
+ * ttf_all_bills.csv, costs as much as the lines added to it. The changed files of one batch are read
+ * in parallel. If the watch service drops events, every file in the folder is compared against the
+ * known versions instead.
+ */
+public class TaxFolderWatcher implements AutoCloseable {
+    /** How long the folder must be quiet before the changed files are read. */
+    static final long QUIET_MILLIS = 100;
+
+    /** The longest a change waits while other files keep changing. */
+    static final long MAX_DELAY_MILLIS = 500;
+
+    private final Path directory;
+    private final Consumer<List<FileImportResult>> listener;
+    private final Executor listenerExecutor;
+    private final PathMatcher taxFiles;
+    // Version of each file name as it was last imported, and the reader positioned after it
+    private final Map<Path, SnapshotCache.SourceKey> known = new HashMap<>();
+    private final Map<Path, TailFileReader> tails = new HashMap<>();
+
+    private WatchService watchService;
+    private Thread thread;
+    private volatile boolean closed;
+
+    /**
+     * Creates a watcher for a folder whose files have already been imported.
+     *
+     * @param directory The folder to watch
+     * @param loaded The results of the import, so unchanged files are not read again
+     * @param listener Receives the results of each batch of new or changed files, in file name order;
+     *                 a result for which isAppend() is true holds only the rows added to the file
+     * @param listenerExecutor Runs the listener, e.g. Platform::runLater
+     */
+    public TaxFolderWatcher(Path directory, Collection<FileImportResult> loaded,
+                            Consumer<List<FileImportResult>> listener, Executor listenerExecutor) {
+        this.directory = directory;
+        this.listener = listener;
+        this.listenerExecutor = listenerExecutor;
+        this.taxFiles = directory.getFileSystem().getPathMatcher("glob:" + DirectoryImporter.FILE_PATTERN);
+        for (FileImportResult result : loaded) {
+            if (result.getSourceKey() != null) {
+                known.put(result.getFile().getFileName(), result.getSourceKey());
+            }
+            if (result.getTail() != null) {
+                tails.put(result.getFile().getFileName(), result.getTail());
+            }
+        }
+    }
+
+    /**
+     * Starts watching on a background thread. Files changed since they were imported are picked up first.
+     *
+     * @throws IOException If the folder cannot be watched
+     */
+    public void start() throws IOException {
+        watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        thread = new Thread(this::watch, "tax-folder-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops watching. Results that are still being read are dropped.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void watch() {
+        try {
+            // Files written between the import and the registration have no event
+            importChanged(new TreeSet<>(DirectoryImporter.listTaxFiles(directory)));
+            while (!closed) {
+                WatchKey key = watchService.take();
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(MAX_DELAY_MILLIS);
+                Set<Path> changed = new TreeSet<>();
+                boolean overflow = collect(key, changed);
+
+                // Let a file that is still being written finish before reading it
+                while (true) {
+                    long left = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                    WatchKey next = left > 0 ? watchService.poll(Math.min(QUIET_MILLIS, left), TimeUnit.MILLISECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    overflow |= collect(next, changed);
+                }
+                if (overflow) {
+                    changed.addAll(DirectoryImporter.listTaxFiles(directory));
+                }
+                importChanged(changed);
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed
+        } catch (IOException e) {
+            if (!closed) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Adds the tax files named by a key's events to the changed set and re-arms the key.
+     *
+     * @return true if events were lost, so the whole folder has to be compared
+     */
+    private boolean collect(WatchKey key, Set<Path> changed) {
+        boolean overflow = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                overflow = true;
+            } else if (event.context() instanceof Path name && taxFiles.matches(name)) {
+                changed.add(directory.resolve(name));
+            }
+        }
+        key.reset();
+        return overflow;
+    }
+
+    /**
+     * Reads the files whose size or modification time differ from the version last imported
+     * and hands their results to the listener.
+     */
+    private void importChanged(Set<Path> files) throws InterruptedException {
+        List<TailFileReader> changed = new ArrayList<>();
+        for (Path file : files) {
+            if (!Files.isRegularFile(file)) {
+                continue;
+            }
+            try {
+                if (!SnapshotCache.keyOf(file).equals(known.get(file.getFileName()))) {
+                    changed.add(tails.computeIfAbsent(file.getFileName(), name -> new TailFileReader(file)));
+                }
+            } catch (IOException e) {
+                // Deleted or renamed since the event
+            }
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+
+        List<FileImportResult> results = new ArrayList<>();
+        for (FileImportResult result : DirectoryImporter.refreshFiles(changed, Runtime.getRuntime().availableProcessors())) {
+            if (result.getSourceKey() != null) {
+                known.put(result.getFile().getFileName(), result.getSourceKey());
+            }
+            // Touched, or rewritten with the same lines, without adding anything
+            if (!result.isAppend() || result.getRowCount() > 0 || result.hasErrors()) {
+                results.add(result);
+            }
+        }
+        if (!results.isEmpty() && !closed) {
+            listenerExecutor.execute(() -> {
+                if (!closed) {
+                    listener.accept(results);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.tax.utils;
+
+import com.example.tax.models.TransactionStore;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes transactions back out as a Tax Transaction File.
+ * Rows are formatted straight from the store's fixed-point columns into a large byte buffer, without
+ * String.format or a String per row, and the buffer is written to a FileChannel each time it fills up.
+ * Every row gets a freshly calculated checksum, so edited rows pass the checksum check again.
+ * Amounts are written with two decimals and the discount with as many decimals as it has, at least one,
+ * as the POS writes it, so the file imports back to exactly the same values.
+ * The file is written under a temporary name and moved into place, so a failed export never leaves half a file.
+ */
+public class TransactionExporter {
+    /** The header line of a Tax Transaction File. */
+    public static final String HEADER = "ItemCode,Cost,SalePrice,Discount,DiscountedPrice,Checksum\n";
+
+    static final int BUFFER_SIZE = 1 << 20;
+
+    /** Room for the five numbers, separators and newline of a row, besides its item code. */
+    private static final int MAX_NUMBERS_LENGTH = 5 * 21 + 8;
+
+    private final TransactionStore store;
+    private final byte[][] itemCodeBytes;
+    private final byte[] bytes = new byte[BUFFER_SIZE];
+    private int length;
+
+    private TransactionExporter(TransactionStore store) {
+        this.store = store;
+        this.itemCodeBytes = new byte[store.getItemCodes().size()][];
+    }
+
+    /**
+     * Exports every row of a store in store order.
+     *
+     * @param store The rows to write
+     * @param file The file to create or replace
+     * @return The number of rows written
+     * @throws IOException If the file cannot be written
+     */
+    public static int export(TransactionStore store, Path file) throws IOException {
+        return export(store, null, file);
+    }
+
+    /**
+     * Exports the given rows of a store in the given order, e.g. the rows a sorted and filtered table shows.
+     *
+     * @param store The store holding the rows
+     * @param rows The rows to write, or null for every row in store order
+     * @param file The file to create or replace
+     * @return The number of rows written
+     * @throws IOException If the file cannot be written
+     */
+    public static int export(TransactionStore store, int[] rows, Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            int count = rows == null ? store.size() : rows.length;
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                new TransactionExporter(store).write(channel, rows, count);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return count;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void write(FileChannel channel, int[] rows, int count) throws IOException {
+        append(HEADER.getBytes(StandardCharsets.US_ASCII));
+        for (int i = 0; i < count; i++) {
+            int row = rows == null ? i : rows[i];
+            byte[] itemCode = itemCodeBytes(store.getItemCodeId(row));
+            if (bytes.length - length < itemCode.length + MAX_NUMBERS_LENGTH) {
+                flush(channel);
+                if (bytes.length < itemCode.length + MAX_NUMBERS_LENGTH) {
+                    throw new IOException("Item code too long to export in row " + row);
+                }
+            }
+            writeRow(row, itemCode);
+        }
+        flush(channel);
+    }
+
+    private void writeRow(int row, byte[] itemCode) {
+        long cost = store.getCostCents(row);
+        long salePrice = store.getSalePriceCents(row);
+        long discount = store.getDiscountUnits(row);
+        long discountedPrice = store.getDiscountedPriceCents(row);
+        int checksum = ChecksumUtil.calculateChecksumCents(store.getItemCode(row), cost, salePrice, discount, discountedPrice);
+
+        append(itemCode);
+        bytes[length++] = ',';
+        writeCents(cost);
+        bytes[length++] = ',';
+        writeCents(salePrice);
+        bytes[length++] = ',';
+        writeDiscount(discount);
+        bytes[length++] = ',';
+        writeCents(discountedPrice);
+        bytes[length++] = ',';
+        writeDigits(checksum);
+        bytes[length++] = '\n';
+    }
+
+    /**
+     * Writes cents with two decimals, e.g. -1234.50.
+     */
+    private void writeCents(long cents) {
+        if (cents < 0) {
+            bytes[length++] = '-';
+        }
+        long magnitude = Math.abs(cents);
+        writeDigits(magnitude / MoneyUtil.CENTS_PER_UNIT);
+        int fraction = (int) (magnitude % MoneyUtil.CENTS_PER_UNIT);
+        bytes[length++] = '.';
+        bytes[length++] = (byte) ('0' + fraction / 10);
+        bytes[length++] = (byte) ('0' + fraction % 10);
+    }
+
+    /**
+     * Writes a discount with the decimals it has and at least one, e.g. 20.0 or 12.375.
+     */
+    private void writeDiscount(long units) {
+        if (units < 0) {
+            bytes[length++] = '-';
+        }
+        long magnitude = Math.abs(units);
+        writeDigits(magnitude / MoneyUtil.DISCOUNT_SCALE);
+        bytes[length++] = '.';
+        long fraction = magnitude % MoneyUtil.DISCOUNT_SCALE;
+        long place = MoneyUtil.DISCOUNT_SCALE / 10;
+        do {
+            bytes[length++] = (byte) ('0' + fraction / place);
+            fraction %= place;
+            place /= 10;
+        } while (fraction != 0);
+    }
+
+    private void writeDigits(long value) {
+        int end = length + digitCount(value);
+        int position = end;
+        do {
+            bytes[--position] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        length = end;
+    }
+
+    private static int digitCount(long value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+
+    private void append(byte[] source) {
+        System.arraycopy(source, 0, bytes, length, source.length);
+        length += source.length;
+    }
+
+    private byte[] itemCodeBytes(int id) {
+        byte[] encoded = itemCodeBytes[id];
+        if (encoded == null) {
+            encoded = store.getItemCodes().get(id).getBytes(StandardCharsets.UTF_8);
+            itemCodeBytes[id] = encoded;
+        }
+        return encoded;
+    }
+
+    private void flush(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, length);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        length = 0;
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.tax.utils;
+
+import com.example.tax.models.Transaction;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Streaming reader for Tax Transaction Files.
+ * Reads the file through a fixed-size buffer and hands every parsed row to a consumer
+ * one at a time, so memory use is bounded by the chunk size instead of the file size.
+ * Expected format: ItemCode,Cost,SalePrice,Discount,DiscountedPrice,Checksum (with a header line).
+ */
+public class TransactionFileReader {
+
+    /** Default size of the read buffer in characters. */
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+    private static final int EXPECTED_COLUMNS = 6;
+    private static final int PROGRESS_INTERVAL = 8192;
+
+    /**
+     * Reads a transaction file using the default chunk size.
+     *
+     * @param file The CSV file to read
+     * @param consumer Receives each transaction as soon as its line is parsed
+     * @return The number of transactions emitted
+     * @throws IOException If the file cannot be read
+     * @throws TransactionFormatException If a line is malformed
+     */
+    public static int read(Path file, Consumer<Transaction> consumer)
+            throws IOException, TransactionFormatException {
+        return read(file, DEFAULT_CHUNK_SIZE, consumer);
+    }
+
+    /**
+     * Reads a transaction file through a buffer of the given size.
+     * The header line is skipped and blank lines are ignored.
+     *
+     * @param file The CSV file to read
+     * @param chunkSize The size of the read buffer in characters
+     * @param consumer Receives each transaction as soon as its line is parsed
+     * @return The number of transactions emitted
+     * @throws IOException If the file cannot be read
+     * @throws TransactionFormatException If a line is malformed
+     */
+    public static int read(Path file, int chunkSize, Consumer<Transaction> consumer)
+            throws IOException, TransactionFormatException {
+        return read(file, chunkSize, consumer, null);
+    }
+
+    /**
+     * Reads a transaction file, optionally collecting malformed lines instead of failing on them.
+     * When an error list is supplied, bad lines are added to it and skipped so the rest of the
+     * file is still imported; otherwise the first bad line aborts the read.
+     *
+     * @param file The CSV file to read
+     * @param chunkSize The size of the read buffer in characters
+     * @param consumer Receives each transaction as soon as its line is parsed
+     * @param errors Collects malformed lines, or null to fail fast
+     * @return The number of transactions emitted
+     * @throws IOException If the file cannot be read
+     * @throws TransactionFormatException If a line is malformed and no error list was given
+     */
+    public static int read(Path file, int chunkSize, Consumer<Transaction> consumer,
+                           List<TransactionFormatException> errors)
+            throws IOException, TransactionFormatException {
+        return readRows(file, chunkSize, (itemCode, cost, salePrice, discount, checksum) ->
+                consumer.accept(new Transaction(itemCode, cost, salePrice, discount, checksum)), errors);
+    }
+
+    /**
+     * Reads a transaction file and hands the raw fields of each row to a handler,
+     * so callers such as TransactionStore never need a Transaction object per row.
+     *
+     * @param file The CSV file to read
+     * @param chunkSize The size of the read buffer in characters
+     * @param handler Receives the fields of each row as soon as its line is parsed
+     * @param errors Collects malformed lines, or null to fail fast
+     * @return The number of rows emitted
+     * @throws IOException If the file cannot be read
+     * @throws TransactionFormatException If a line is malformed and no error list was given
+     */
+    public static int readRows(Path file, int chunkSize, TransactionRowHandler handler,
+                               List<TransactionFormatException> errors)
+            throws IOException, TransactionFormatException {
+        return readRows(file, chunkSize, handler, errors, null);
+    }
+
+    /**
+     * Reads a transaction file into a row handler, reporting progress every few thousand rows.
+     * The byte count is the position of the underlying channel, so it runs slightly ahead
+     * of the rows by up to one buffer.
+     *
+     * @param file The CSV file to read
+     * @param chunkSize The size of the read buffer in characters
+     * @param handler Receives the fields of each row as soon as its line is parsed
+     * @param errors Collects malformed lines, or null to fail fast
+     * @param listener Receives progress reports, or null for none
+     * @return The number of rows emitted
+     * @throws IOException If the file cannot be read
+     * @throws TransactionFormatException If a line is malformed and no error list was given
+     */
+    public static int readRows(Path file, int chunkSize, TransactionRowHandler handler,
+                               List<TransactionFormatException> errors, ImportProgressListener listener)
+            throws IOException, TransactionFormatException {
+        int count = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             BufferedReader reader = new BufferedReader(
+                     new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8), chunkSize)) {
+            long totalBytes = channel.size();
+            String line = reader.readLine(); // Skip header
+            int lineNumber = 1;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty()) continue;
+
+                try {
+                    parseLine(line, lineNumber, handler);
+                } catch (TransactionFormatException e) {
+                    if (errors == null) throw e;
+                    errors.add(e);
+                    continue;
+                }
+                count++;
+                if (listener != null && count % PROGRESS_INTERVAL == 0) {
+                    listener.onProgress(count, channel.position(), totalBytes);
+                }
+            }
+            if (listener != null) {
+                listener.onProgress(count, totalBytes, totalBytes);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Parses a single, already trimmed, transaction line.
+     *
+     * @param line The line to parse
+     * @param lineNumber The 1-based line number, used in error messages
+     * @return The parsed transaction
+     * @throws TransactionFormatException If the line has too few columns or bad numbers
+     */
+    public static Transaction parseLine(String line, int lineNumber) throws TransactionFormatException {
+        Transaction[] parsed = new Transaction[1];
+        parseLine(line, lineNumber, (itemCode, cost, salePrice, discount, checksum) ->
+                parsed[0] = new Transaction(itemCode, cost, salePrice, discount, checksum));
+        return parsed[0];
+    }
+
+    /**
+     * Parses a single, already trimmed, transaction line and passes its fields to a handler.
+     * Fields are located with indexOf so no intermediate String[] is created.
+     *
+     * @param line The line to parse
+     * @param lineNumber The 1-based line number, used in error messages
+     * @param handler Receives the parsed fields
+     * @throws TransactionFormatException If the line has too few columns or bad numbers
+     */
+    public static void parseLine(String line, int lineNumber, TransactionRowHandler handler)
+            throws TransactionFormatException {
+        int columns = countColumns(line);
+        if (columns < EXPECTED_COLUMNS) {
+            throw new TransactionFormatException(lineNumber, "Invalid data format in line " + lineNumber
+                    + ". Expected at least " + EXPECTED_COLUMNS + " columns, but found " + columns);
+        }
+
+        int c1 = line.indexOf(',');
+        int c2 = line.indexOf(',', c1 + 1);
+        int c3 = line.indexOf(',', c2 + 1);
+        int c4 = line.indexOf(',', c3 + 1);
+        int c5 = line.indexOf(',', c4 + 1);
+        int c6 = line.indexOf(',', c5 + 1);
+        if (c6 < 0) c6 = line.length();
+
+        String itemCode = line.substring(0, c1).trim();
+        double cost;
+        double salePrice;
+        double discount;
+        try {
+            cost = Double.parseDouble(line.substring(c1 + 1, c2).trim());
+            salePrice = Double.parseDouble(line.substring(c2 + 1, c3).trim());
+            discount = Double.parseDouble(line.substring(c3 + 1, c4).trim());
+        } catch (NumberFormatException e) {
+            throw new TransactionFormatException(lineNumber,
+                    "Invalid number format in line " + lineNumber + ": " + e.getMessage());
+        }
+        checkRange(lineNumber, cost, salePrice, discount);
+        handler.onRow(itemCode, cost, salePrice, discount, line.substring(c5 + 1, c6).trim());
+    }
+
+    /**
+     * Rejects numbers that parse but cannot be held in fixed point (see MoneyUtil): NaN, infinities,
+     * and amounts or discounts beyond MoneyUtil.MAX_AMOUNT and MAX_DISCOUNT.
+     *
+     * @param lineNumber The 1-based line number, used in error messages
+     * @throws TransactionFormatException If a number is out of range
+     */
+    static void checkRange(int lineNumber, double cost, double salePrice, double discount)
+            throws TransactionFormatException {
+        if (!MoneyUtil.isStorableAmount(cost) || !MoneyUtil.isStorableAmount(salePrice)
+                || !MoneyUtil.isStorableDiscount(discount)) {
+            throw new TransactionFormatException(lineNumber, "Number out of range in line " + lineNumber
+                    + ": cost " + cost + ", sale price " + salePrice + ", discount " + discount);
+        }
+    }
+
+    /**
+     * Counts columns the same way String.split(",") does, i.e. ignoring trailing empty fields.
+     */
+    private static int countColumns(String line) {
+        int end = line.length();
+        while (end > 0 && line.charAt(end - 1) == ',') {
+            end--;
+        }
+        if (end == 0) {
+            return 0;
+        }
+        int columns = 1;
+        for (int i = 0; i < end; i++) {
+            if (line.charAt(i) == ',') columns++;
+        }
+        return columns;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.tax.utils;
+
+/**
+ * Thrown when a line of a Tax Transaction File cannot be turned into a transaction.
+ * Carries the 1-based line number so callers can point the user at the bad row.
+ */
+public class TransactionFormatException extends Exception {
+    private final int lineNumber;
+
+    /**
+     * Creates a new exception for the given line.
+     *
+     * @param lineNumber The 1-based line number in the source file
+     * @param message The message describing the problem
+     */
+    public TransactionFormatException(int lineNumber, String message) {
+        super(message);
+        this.lineNumber = lineNumber;
+    }
+
+    /**
+     * @return The 1-based line number of the offending row
+     */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+}
@@ -0,0 +1,299 @@
+package com.example.tax.utils;
+
+import com.example.tax.events.FileImportEvent;
+import com.example.tax.models.RowDeduplicator;
+import com.example.tax.models.TransactionStore;
+import javafx.application.Platform;
+import javafx.concurrent.Task;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Background task that imports a transaction file, or a folder of tax files, into a TransactionStore.
+ * Runs off the JavaFX Application Thread and publishes progress (rows parsed, bytes read, rows/sec)
+ * through the task's progress and message properties, in batches of rows. Can be cancelled at any time.
+ * A single-file import can also deliver its rows page by page (see setOnPageLoaded), so the table
+ * can show the first rows of a very large file while the rest is still being read.
+ * With a SnapshotCache set, a completely imported file is also saved as a snapshot for the next open.
+ * Stage timings, counters and allocations of the import are collected in getMetrics().
+ */
+public class TransactionImportTask extends Task<TransactionStore> {
+    private final Path source;
+    private final boolean directory;
+    private final OperationMetrics metrics;
+
+    private final List<FileImportResult> fileResults = new ArrayList<>();
+    private volatile TransactionFormatException formatError;
+    private Consumer<TransactionStore> pageHandler;
+    private SnapshotCache snapshotCache;
+    // Key of the file a paged import read, kept until the caller saves the rows it shows
+    private SnapshotCache.SourceKey pagedSnapshotKey;
+    private boolean removeDuplicates;
+    private RowDeduplicator deduplicator;
+    private long startNanos;
+
+    private TransactionImportTask(Path source, boolean directory) {
+        this.source = source;
+        this.directory = directory;
+        this.metrics = new OperationMetrics((directory ? "Import folder " : "Import file ") + source.getFileName());
+    }
+
+    /**
+     * Creates a task that imports a single transaction file.
+     *
+     * @param file The CSV file to import
+     * @return The import task
+     */
+    public static TransactionImportTask forFile(Path file) {
+        return new TransactionImportTask(file, false);
+    }
+
+    /**
+     * Creates a task that imports every ttf_*.csv file in a directory.
+     *
+     * @param directory The directory to import
+     * @return The import task
+     */
+    public static TransactionImportTask forDirectory(Path directory) {
+        return new TransactionImportTask(directory, true);
+    }
+
+    /**
+     * Delivers the rows of a single-file import in pages instead of one store at the end.
+     * Each page is handed to the handler on the JavaFX Application Thread as soon as it is parsed,
+     * in file order and before the task succeeds, fails or is cancelled. In this mode the task's
+     * value is an empty store. Must be called before the task is started; folder imports ignore it.
+     *
+     * @param pageHandler Receives each page of parsed rows
+     */
+    public void setOnPageLoaded(Consumer<TransactionStore> pageHandler) {
+        this.pageHandler = pageHandler;
+    }
+
+    /**
+     * Saves the rows of a single-file import to a snapshot cache once the whole file has been read
+     * without a format error. Must be called before the task is started; folder imports ignore it.
+     * A paged import does not keep its pages, so the caller saves its rows with saveSnapshot().
+     *
+     * @param snapshotCache The cache to save to
+     */
+    public void setSnapshotCache(SnapshotCache snapshotCache) {
+        this.snapshotCache = snapshotCache;
+    }
+
+    /**
+     * Drops the rows of a folder import that repeat rows of an earlier file, so a sale that is both in its
+     * bill's file and in ttf_all_bills.csv is counted once. Each file's result reports how many it lost.
+     * Must be called before the task is started; single-file imports ignore it.
+     *
+     * @param removeDuplicates Whether to remove repeated rows
+     */
+    public void setRemoveDuplicates(boolean removeDuplicates) {
+        this.removeDuplicates = removeDuplicates;
+    }
+
+    /**
+     * @return The rows kept by a folder import that removed duplicates, so files read later can be checked
+     *         against them, or null if duplicates were not removed; see DirectoryImporter.removeDuplicates
+     */
+    public RowDeduplicator getDeduplicator() {
+        return deduplicator;
+    }
+
+    /**
+     * @return The per-file results of a directory import, empty for a single file
+     */
+    public List<FileImportResult> getFileResults() {
+        return fileResults;
+    }
+
+    /**
+     * Returns the metrics of the import. The task adds the time it spends reading, parsing, validating and
+     * merging; the caller may add the time it takes to show the rows and then records them in a MetricsLog.
+     *
+     * @return The metrics, complete once the task has finished
+     */
+    public OperationMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the malformed line that stopped a single-file import, if any.
+     * The rows parsed before it are still part of the task's result.
+     *
+     * @return The format error, or null if the whole file was parsed
+     */
+    public TransactionFormatException getFormatError() {
+        return formatError;
+    }
+
+    @Override
+    protected TransactionStore call() throws Exception {
+        startNanos = System.nanoTime();
+        updateMessage("Starting import...");
+        long allocatedBefore = OperationMetrics.threadAllocatedBytes();
+        try {
+            return directory ? importDirectory() : importFile();
+        } finally {
+            // Folder imports add the allocations of their worker threads with each file's metrics
+            metrics.addAllocatedBytes(OperationMetrics.threadAllocatedBytes() - allocatedBefore);
+        }
+    }
+
+    private TransactionStore importFile() throws IOException {
+        FileImportEvent event = new FileImportEvent();
+        event.begin();
+        try {
+            return readFile();
+        } finally {
+            if (event.shouldCommit()) {
+                event.path = source.toString();
+                event.bytes = metrics.getBytes();
+                event.rows = (int) metrics.getRows();
+                event.errors = formatError != null ? 1 : 0;
+                event.commit();
+            }
+        }
+    }
+
+    private TransactionStore readFile() throws IOException {
+        // Taken before reading, so a change made during the import makes the snapshot stale
+        SnapshotCache.SourceKey key = snapshotCache != null ? SnapshotCache.keyOf(source) : null;
+        if (pageHandler != null) {
+            return importFileInPages(key);
+        }
+        TransactionStore store = new TransactionStore();
+        TransactionRowHandler handler = (itemCode, cost, salePrice, discount, checksum) -> {
+            store.add(itemCode, cost, salePrice, discount, checksum);
+            if (isCancelled()) {
+                throw new CancellationException();
+            }
+        };
+        parseFile(handler, () -> {
+            store.clear();
+            return true;
+        });
+        long validateStart = System.nanoTime();
+        store.validateAll();
+        metrics.addStageNanos(OperationMetrics.Stage.VALIDATE, System.nanoTime() - validateStart);
+        metrics.addRows(store.size());
+        saveSnapshot(key, store);
+        return store;
+    }
+
+    private TransactionStore importFileInPages(SnapshotCache.SourceKey key) throws IOException {
+        PageCollector collector = new PageCollector(this::isCancelled, metrics,
+                page -> Platform.runLater(() -> pageHandler.accept(page)));
+        parseFile(collector, collector::reset);
+        collector.deliver();
+        metrics.addRows(collector.rowsDelivered());
+        pagedSnapshotKey = key;
+        return new TransactionStore();
+    }
+
+    /**
+     * Saves the rows of a paged import to the snapshot cache, taken from the table they were shown in, so the
+     * pages do not have to be kept until the end of the import. Call on the JavaFX Application Thread once the
+     * task has succeeded, when every page has been handled. Nothing is saved if the file was not read completely
+     * or no snapshot cache was set.
+     *
+     * @param loaded Every delivered row in file order, or null if the rows were changed after they were delivered
+     */
+    public void saveSnapshot(TransactionStore loaded) {
+        if (loaded == null || pagedSnapshotKey == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        saveSnapshot(pagedSnapshotKey, loaded);
+        metrics.addStageNanos(OperationMetrics.Stage.WRITE, System.nanoTime() - start);
+        pagedSnapshotKey = null;
+    }
+
+    /**
+     * Saves a completely imported file to the snapshot cache. A snapshot only speeds up the next
+     * open, so failing to write one is reported but does not fail the import.
+     */
+    private void saveSnapshot(SnapshotCache.SourceKey key, TransactionStore store) {
+        if (key == null || formatError != null || isCancelled() || store.size() == 0) {
+            return;
+        }
+        try {
+            updateMessage("Saving snapshot...");
+            snapshotCache.save(key, store);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Parses the source file with the memory-mapped parser, falling back to the line-based reader
+     * for files that cannot be mapped. A malformed line stops the parse and is kept as the format error.
+     * The time is recorded as parsing, since the mapped parser reads the file as it goes.
+     *
+     * @param handler Receives each row
+     * @param resetRows Discards the rows handled so far before the fallback starts again from the top;
+     *                  returns false if they cannot be discarded, in which case the mapping error is thrown
+     */
+    private void parseFile(TransactionRowHandler handler, BooleanSupplier resetRows) throws IOException {
+        metrics.addBytes(Files.size(source));
+        long start = System.nanoTime();
+        // Pages are validated as they fill up, in the middle of parsing
+        long validateNanos = metrics.getStageNanos(OperationMetrics.Stage.VALIDATE);
+        try {
+            try {
+                MappedTransactionParser.parse(source, handler, this::reportProgress);
+            } catch (IOException | UnsupportedOperationException e) {
+                // Fall back to the line-based reader for files that cannot be mapped
+                if (!resetRows.getAsBoolean()) {
+                    throw e;
+                }
+                TransactionFileReader.readRows(source, TransactionFileReader.DEFAULT_CHUNK_SIZE,
+                        handler, null, this::reportProgress);
+            }
+        } catch (TransactionFormatException e) {
+            formatError = e;
+        } finally {
+            validateNanos = metrics.getStageNanos(OperationMetrics.Stage.VALIDATE) - validateNanos;
+            metrics.addStageNanos(OperationMetrics.Stage.PARSE, System.nanoTime() - start - validateNanos);
+        }
+    }
+
+    private TransactionStore importDirectory() throws IOException, InterruptedException {
+        List<FileImportResult> results = DirectoryImporter.importDirectory(
+                source, Runtime.getRuntime().availableProcessors(), this::reportProgress);
+        for (FileImportResult result : results) {
+            metrics.add(result.getMetrics());
+        }
+        if (removeDuplicates) {
+            updateMessage("Removing duplicate rows...");
+            long dedupStart = System.nanoTime();
+            int rows = 0;
+            for (FileImportResult result : results) {
+                rows += result.getRowCount();
+            }
+            deduplicator = new RowDeduplicator(rows);
+            int removed = DirectoryImporter.removeDuplicates(results, deduplicator);
+            metrics.addStageNanos(OperationMetrics.Stage.DEDUPLICATE, System.nanoTime() - dedupStart);
+            metrics.addRows(-removed);
+        }
+        fileResults.addAll(results);
+        long mergeStart = System.nanoTime();
+        TransactionStore merged = DirectoryImporter.merge(results);
+        metrics.addStageNanos(OperationMetrics.Stage.MERGE, System.nanoTime() - mergeStart);
+        return merged;
+    }
+
+    private void reportProgress(long rowsParsed, long bytesRead, long totalBytes) {
+        double seconds = Math.max(1e-9, (System.nanoTime() - startNanos) / 1e9);
+        updateProgress(bytesRead, Math.max(1, totalBytes));
+        updateMessage(String.format("Parsed %,d rows (%.1f of %.1f MB) - %,.0f rows/sec",
+                rowsParsed, bytesRead / 1048576.0, totalBytes / 1048576.0, rowsParsed / seconds));
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.tax.utils;
+
+/**
+ * Receives the fields of each row parsed from a Tax Transaction File.
+ * Lets parsers feed a columnar store directly, without creating a Transaction per row.
+ */
+@FunctionalInterface
+public interface TransactionRowHandler {
+    void onRow(String itemCode, double cost, double salePrice, double discount, String checksum);
+}
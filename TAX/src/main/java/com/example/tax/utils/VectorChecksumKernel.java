@@ -0,0 +1,59 @@
+package com.example.tax.utils;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API kernel for BatchChecksum. Only loaded when jdk.incubator.vector is available.
+ * Each line is processed a vector at a time: masks select upper and lower case letters, digits,
+ * decimal points and underscores, and their lane counts give the character counts. The digit sum
+ * is built from the lane counts of each of the four bits of the digit values, so no lane can overflow.
+ */
+class VectorChecksumKernel {
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+
+    static boolean isAvailable() {
+        return SPECIES.length() > 1;
+    }
+
+    static void calculateChecksums(byte[] data, int[] lineStarts, int[] lineEnds, int count, int[] checksums) {
+        for (int line = 0; line < count; line++) {
+            checksums[line] = checksumOfLine(data, lineStarts[line], lineEnds[line]);
+        }
+    }
+
+    private static int checksumOfLine(byte[] data, int start, int end) {
+        int counted = 0;
+        int ones = 0;
+        int twos = 0;
+        int fours = 0;
+        int eights = 0;
+        for (int i = start; i < end; i += SPECIES.length()) {
+            VectorMask<Byte> inLine = SPECIES.indexInRange(i - start, end - start);
+            ByteVector bytes = ByteVector.fromArray(SPECIES, data, i, inLine);
+            if (bytes.compare(VectorOperators.LT, (byte) 0, inLine).anyTrue()) {
+                return BatchChecksum.checksumOfDecodedLine(data, start, end);
+            }
+
+            VectorMask<Byte> upper = bytes.compare(VectorOperators.GE, (byte) 'A')
+                    .and(bytes.compare(VectorOperators.LE, (byte) 'Z'));
+            VectorMask<Byte> lower = bytes.compare(VectorOperators.GE, (byte) 'a')
+                    .and(bytes.compare(VectorOperators.LE, (byte) 'z'));
+            VectorMask<Byte> digit = bytes.compare(VectorOperators.GE, (byte) '0')
+                    .and(bytes.compare(VectorOperators.LE, (byte) '9'))
+                    .and(inLine);
+            VectorMask<Byte> punctuation = bytes.compare(VectorOperators.EQ, (byte) '.')
+                    .or(bytes.compare(VectorOperators.EQ, (byte) '_'));
+            counted += upper.or(lower).or(punctuation).and(inLine).or(digit).trueCount();
+
+            ByteVector digits = bytes.sub((byte) '0');
+            ones += digits.and((byte) 1).compare(VectorOperators.NE, (byte) 0).and(digit).trueCount();
+            twos += digits.and((byte) 2).compare(VectorOperators.NE, (byte) 0).and(digit).trueCount();
+            fours += digits.and((byte) 4).compare(VectorOperators.NE, (byte) 0).and(digit).trueCount();
+            eights += digits.and((byte) 8).compare(VectorOperators.NE, (byte) 0).and(digit).trueCount();
+        }
+        return counted + ones + 2 * twos + 4 * fours + 8 * eights;
+    }
+}
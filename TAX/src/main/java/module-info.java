@@ -1,6 +1,12 @@
 module com.example.tax {
     requires javafx.controls;
     requires javafx.fxml;
+    // Per-thread allocation counts for the import metrics
+    requires jdk.management;
+    // Flight Recorder events for imports, validation, edits and tax calculation
+    requires jdk.jfr;
+    // Optional: enables the SIMD checksum kernel when run with --add-modules jdk.incubator.vector
+    requires static jdk.incubator.vector;
 
 
     opens com.example.tax to javafx.fxml;